@@ -1,17 +1,50 @@
 package org.matthiaszimmermann.crypto;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.bitcoinj.crypto.DeterministicKey;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.matthiaszimmermann.crypto.bitcoin.BitcoinAccount;
+import org.matthiaszimmermann.crypto.bitcoin.BitcoinTransactionSigner;
+import org.matthiaszimmermann.crypto.bitcoin.BitcoinWatchOnly;
+import org.matthiaszimmermann.crypto.bitcoin.Chain;
+import org.matthiaszimmermann.crypto.bitcoin.DerivationCache;
 import org.matthiaszimmermann.crypto.core.Account;
 import org.matthiaszimmermann.crypto.core.Mnemonic;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.Protocol;
 import org.matthiaszimmermann.crypto.core.ProtocolFactory;
+import org.matthiaszimmermann.crypto.core.SeedContext;
 import org.matthiaszimmermann.crypto.core.Technology;
+import org.matthiaszimmermann.crypto.core.VanitySearch;
 import org.matthiaszimmermann.crypto.core.Wallet;
+import org.matthiaszimmermann.crypto.ethereum.Ethereum;
+import org.matthiaszimmermann.crypto.ethereum.EthereumAccount;
+import org.matthiaszimmermann.crypto.ethereum.EthereumKeystoreImporter;
+import org.matthiaszimmermann.crypto.ethereum.EthereumTransactionSigner;
+import org.matthiaszimmermann.crypto.ethereum.KeystoreProfile;
+import org.matthiaszimmermann.crypto.iota.AddressIndex;
+import org.matthiaszimmermann.crypto.iota.IotaAccount;
+import org.matthiaszimmermann.crypto.iota.IotaBundle;
+import org.matthiaszimmermann.crypto.iota.IotaBundleValidator;
+import org.matthiaszimmermann.crypto.iota.IotaProofOfWork;
+import org.matthiaszimmermann.crypto.iota.SpentAddressRegistry;
 import org.matthiaszimmermann.crypto.utility.FileUtility;
+import org.matthiaszimmermann.crypto.utility.KdfScheduler;
 import org.matthiaszimmermann.crypto.utility.QrCodeUtility;
 import org.matthiaszimmermann.crypto.utility.WalletPageUtility;
 
@@ -22,20 +55,70 @@ public class Application {
 
 	public static final String COMMAND_NAME = "java -jar bpgw.jar";
 	public static final String SWITCH_TECHNOLOGY = "-t";
+	public static final String SWITCH_NETWORK = "--network";
 	public static final String SWITCH_DIRECTORY = "-d";
 	public static final String SWITCH_MNEMONIC = "-m";
 	public static final String SWITCH_PASS_PHRASE = "-p";
 	public static final String SWITCH_VERIFY = "-v";
+	public static final String SWITCH_COUNT = "-n";
+	public static final String SWITCH_THREADS = "--threads";
+	public static final String SWITCH_ADDRESS_COUNT = "--address-count";
+	public static final String SWITCH_ADDRESS_START = "--address-start";
+	public static final String SWITCH_SECURITY_LEVELS = "--security-levels";
+	public static final String SWITCH_ADDRESS_FORMAT = "--address-format";
+	public static final String SWITCH_XPUB = "--xpub";
+	public static final String SWITCH_VANITY = "--vanity";
+	public static final String SWITCH_ACCOUNT_COUNT = "--account-count";
+	public static final String SWITCH_ADDRESS_INDEX = "--address-index";
+	public static final String SWITCH_LOOKUP_ADDRESS = "--lookup-address";
+	public static final String SWITCH_SPENT_REGISTRY = "--spent-registry";
+	public static final String SWITCH_MARK_SPENT = "--mark-spent";
+	public static final String SWITCH_SIGN_TRANSFER = "--sign-transfer";
+	public static final String SWITCH_POW_TIPS = "--pow-tips";
+	public static final String SWITCH_MIN_WEIGHT_MAGNITUDE = "--mwm";
+	public static final String SWITCH_VALIDATE_BUNDLES = "--validate-bundles";
+	public static final String SWITCH_KEYSTORE_PROFILE = "--keystore-profile";
+	public static final String SWITCH_KDF_MEMORY_BUDGET = "--kdf-memory-budget";
+	public static final String SWITCH_IMPORT_KEYSTORES = "--import-keystores";
+	public static final String SWITCH_MAX_FEE = "--max-fee";
 
 	public static final String VERIFY_OK = "WALLET VERIFICATION OK";
 	public static final String VERIFY_ERROR = "WALLET VERIFICATION ERROR";
 
 	public static final String EXT_HTML = "html";
 	public static final String EXT_PNG = "png";
+	public static final String EXT_CSV = "csv";
+	public static final String ADDRESSES_SUFFIX = "_addresses";
+	public static final String EXT_TXT = "txt";
+	public static final String EXT_NDJSON = "ndjson";
+	public static final String BUNDLE_VALIDATION_FILE = "bundle_validation";
+	public static final String KEYSTORE_IMPORT_FILE = "keystore_import";
+	public static final String BUNDLE_SUFFIX = "_bundle";
+	public static final String TRANSACTIONS_SUFFIX = "_transactions";
+	public static final String WATCH_ONLY_PREFIX = "watch_only_";
+	public static final String WALLET_SET_SUFFIX = "_set";
 
-	@Parameter(names = {SWITCH_TECHNOLOGY, "--technology"}, description = "technology: (default = Bitcoin)")
+	// bitcoin addresses are derived and written in batches of this size
+	public static final int ADDRESS_BATCH_SIZE = 1000;
+
+	public static final String JSON_INPUTS = "inputs";
+	public static final String JSON_OUTPUTS = "outputs";
+	public static final String JSON_REMAINDER = "remainder";
+	public static final String JSON_INDEX = "index";
+	public static final String JSON_SECURITY = "security";
+	public static final String JSON_BALANCE = "balance";
+	public static final String JSON_ADDRESS = "address";
+	public static final String JSON_VALUE = "value";
+	public static final String JSON_TAG = "tag";
+	public static final String JSON_CHAIN = "chain";
+	public static final String JSON_PATH = "path";
+
+	@Parameter(names = {SWITCH_TECHNOLOGY, "--technology"}, description = "technology or comma separated list of technologies: (default = Bitcoin)")
 	private String technology = Technology.Bitcoin.name();
 
+	@Parameter(names = {SWITCH_NETWORK}, description = "network of created wallets and derived addresses: production, test or local (default = production)")
+	private String network = Network.Production.name();
+
 	@Parameter(names = {SWITCH_DIRECTORY, "--target-directory"}, description = "target directory for wallet file etc.")
 	private String targetDirectory = Wallet.DEFAULT_PATH_TO_DIRECTORY;
 
@@ -48,12 +131,77 @@ public class Application {
 	@Parameter(names = {SWITCH_VERIFY, "--verify-wallet-file"}, description = "verify the specified wallet file")
 	private String walletFile = null;
 
+	@Parameter(names = {SWITCH_COUNT, "--count"}, description = "number of wallet files to create (default = 1)")
+	private int count = 1;
+
+	@Parameter(names = {SWITCH_THREADS}, description = "number of worker threads for batch creation (default = number of cores)")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Parameter(names = {SWITCH_ADDRESS_COUNT}, description = "number of addresses to derive for the created/verified wallet (default = 0)")
+	private int addressCount = 0;
+
+	@Parameter(names = {SWITCH_ADDRESS_START}, description = "first key index for address derivation (default = 0)")
+	private int addressStart = 0;
+
+	@Parameter(names = {SWITCH_SECURITY_LEVELS}, description = "comma separated Iota security levels for address derivation (default = 2)")
+	private String securityLevels = String.valueOf(IotaAccount.SECURITY_LEVEL_DEFAULT);
+
+	@Parameter(names = {SWITCH_ADDRESS_FORMAT}, description = "format of the address file: csv or ndjson (default = csv)")
+	private String addressFormat = EXT_CSV;
+
+	@Parameter(names = {SWITCH_XPUB}, description = "watch-only mode: derive the Bitcoin receive and change addresses of the specified account xpub")
+	private String xpub = null;
+
+	@Parameter(names = {SWITCH_VANITY}, description = "search a wallet whose address starts with the specified pattern (Bitcoin: '1...', Ethereum: hex)")
+	private String vanity = null;
+
+	@Parameter(names = {SWITCH_ACCOUNT_COUNT}, description = "number of accounts to derive from the mnemonic into the wallet file (default = 1)")
+	private int accountCount = 1;
+
+	@Parameter(names = {SWITCH_ADDRESS_INDEX}, description = "address index file to add derived addresses to and to look up addresses in")
+	private String addressIndexFile = null;
+
+	@Parameter(names = {SWITCH_LOOKUP_ADDRESS}, description = "look up the wallet file and key index of the specified address in the address index")
+	private String lookupAddress = null;
+
+	@Parameter(names = {SWITCH_SPENT_REGISTRY}, description = "spent address registry file, reports the next unspent key index of the verified wallet")
+	private String spentRegistryFile = null;
+
+	@Parameter(names = {SWITCH_MARK_SPENT}, description = "comma separated key indexes of the verified wallet to mark as spent in the spent address registry")
+	private String markSpent = null;
+
+	@Parameter(names = {SWITCH_SIGN_TRANSFER}, description = "json transfer file to sign offline with the verified wallet (Iota: inputs, outputs, remainder; Bitcoin: transactions; Ethereum: ndjson transactions)")
+	private String transferFile = null;
+
+	@Parameter(names = {SWITCH_POW_TIPS}, description = "comma separated trunk and branch transaction to attach the signed transfer to with local proof of work")
+	private String powTips = null;
+
+	@Parameter(names = {SWITCH_MIN_WEIGHT_MAGNITUDE}, description = "min weight magnitude for local proof of work (default = 14)")
+	private int minWeightMagnitude = IotaProofOfWork.MIN_WEIGHT_MAGNITUDE_DEFAULT;
+
+	@Parameter(names = {SWITCH_VALIDATE_BUNDLES}, description = "validate the bundles (transaction trytes, one per line) in the specified file or directory")
+	private String validateBundles = null;
+
+	@Parameter(names = {SWITCH_KEYSTORE_PROFILE}, description = "scrypt profile of Ethereum key stores: standard, light or N,r,p (default = standard)")
+	private String keystoreProfile = KeystoreProfile.NAME_STANDARD;
+
+	@Parameter(names = {SWITCH_KDF_MEMORY_BUDGET}, description = "heap budget in MB for concurrent key derivations (scrypt, PBKDF2) (default = half of max heap)")
+	private long kdfMemoryBudget = 0;
+
+	@Parameter(names = {SWITCH_MAX_FEE}, description = "maximum fee in satoshi per signed Bitcoin transaction (default = 1000000)")
+	private long maxFee = BitcoinTransactionSigner.MAX_FEE_DEFAULT;
+
+	@Parameter(names = {SWITCH_IMPORT_KEYSTORES}, description = "convert and verify all Ethereum key store files (web3 json) in the specified directory using the pass phrase")
+	private String importKeystores = null;
+
 	@Parameter(names = {"-s", "--silent"}, description = "silent mode, suppress command line output")
 	private boolean silent = false;
 
 	@Parameter(names = {"-h", "--help"}, help = true)
 	private boolean help;
 
+	private AddressIndex addressIndex = null;
+
 	public static void main(String[] args) throws Exception {
 		Application app = new Application();
 		app.run(args);
@@ -61,56 +209,271 @@ public class Application {
 
 	public void run(String [] args) {
 		processCommandLine(args);
+		KeystoreProfile.setDefault(KeystoreProfile.get(keystoreProfile));
 
-		if(walletFile == null) {
-			createWalletFile();
+		if(kdfMemoryBudget > 0) {
+			KdfScheduler.configure(kdfMemoryBudget * 1024 * 1024, Runtime.getRuntime().availableProcessors());
 		}
-		else {
-			verifyWalletFile();
+
+		if(addressIndexFile != null) {
+			addressIndex = AddressIndex.open(new File(addressIndexFile));
+		}
+
+		try {
+			if(lookupAddress != null) {
+				lookupAddress();
+			}
+			else if(validateBundles != null) {
+				validateBundles();
+			}
+			else if(importKeystores != null) {
+				importKeystores();
+			}
+			else if(xpub != null) {
+				writeWatchOnlyAddressFile();
+			}
+			else if(vanity != null) {
+				createVanityWalletFile();
+			}
+			else if(walletFile == null && technology.contains(",")) {
+				createWalletSet();
+			}
+			else if(walletFile == null) {
+				if(count > 1) {
+					createWalletFiles();
+				}
+				else {
+					createWalletFile();
+				}
+			}
+			else {
+				verifyWalletFile();
+			}
+		}
+		finally {
+			if(addressIndex != null) {
+				addressIndex.close();
+			}
 		}
 	}
 
 	public void createWalletFile() {
 		log("creating wallet file ...");
 
-		// TODO add command line params to indicate network
-		Protocol protocol = ProtocolFactory.getInstance(Technology.get(technology), Network.Production);
+		Protocol protocol = getProtocol(technology);
 		// TODO this default value is different compared to targetdirectory
 		List<String> mnemonicWords = mnemonic != null ? Mnemonic.convert(mnemonic) : protocol.generateMnemonicWords();
-		Wallet wallet = null;
+		Wallet wallet = createWallet(protocol, mnemonicWords);
+
+		writeFiles(wallet, true);
+
+		if(addressCount > 0) {
+			writeAddressFile(wallet, wallet.getPathToDirectory());
+		}
+	}
+
+	/**
+	 * Creates the requested number of wallet files in a single process.
+	 * Wallets are created by a pool of worker threads, each wallet gets its own random mnemonic.
+	 * The addresses of Iota wallets are derived afterwards for many seeds at once, see {@link #writeIotaAddressFiles(List, String)}.
+	 */
+	public void createWalletFiles() {
+		if(mnemonic != null) {
+			throw new CreateWalletFileException("WALLET CREATION ERROR a mnemonic can not be used to create multiple wallets");
+		}
+
+		if(threads < 1) {
+			throw new CreateWalletFileException(String.format("WALLET CREATION ERROR invalid number of threads %d", threads));
+		}
+
+		int poolSize = Math.min(threads, count);
+		log(String.format("creating %d wallet files using %d threads ...", count, poolSize));
+
+		Protocol protocol = getProtocol(technology);
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+		List<Future<?>> results = new ArrayList<>();
+		List<Wallet> iotaWallets = Collections.synchronizedList(new ArrayList<>());
+		long start = System.nanoTime();
 
 		try {
-			wallet = protocol.createWallet(mnemonicWords, passPhrase);
+			for(int i = 0; i < count; i++) {
+				results.add(executor.submit(() -> {
+					Wallet wallet = createWallet(protocol, protocol.generateMnemonicWords());
+					writeFiles(wallet, false);
+
+					if(addressCount > 0 && wallet.getAccount() instanceof IotaAccount) {
+						iotaWallets.add(wallet);
+					}
+					else if(addressCount > 0) {
+						writeAddressFile(wallet, wallet.getPathToDirectory());
+					}
+				}));
+			}
+
+			int failed = 0;
+			for(Future<?> result : results) {
+				try {
+					result.get();
+				}
+				catch(ExecutionException e) {
+					log(e.getCause().getMessage());
+					failed++;
+				}
+			}
+
+			if(!iotaWallets.isEmpty()) {
+				writeIotaAddressFiles(iotaWallets, targetDirectory);
+			}
+
+			double seconds = (System.nanoTime() - start) / 1e9;
+			int created = count - failed;
+			log(String.format("created %d wallet files in %.1f s (%.2f wallets/s)", created, seconds, created / seconds));
+			log(KdfScheduler.getInstance().toString());
+
+			if(failed > 0) {
+				throw new CreateWalletFileException(String.format("WALLET CREATION ERROR failed to create %d of %d wallet files", failed, count));
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CreateWalletFileException("WALLET CREATION ERROR batch creation interrupted");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Searches a wallet with a vanity address on all worker threads and writes it as a regular wallet file.
+	 */
+	public void createVanityWalletFile() {
+		if(mnemonic != null) {
+			throw new CreateWalletFileException("WALLET CREATION ERROR a mnemonic can not be used for a vanity address search");
+		}
+
+		Protocol protocol = getProtocol(technology);
+		VanitySearch search = new VanitySearch(protocol, vanity, passPhrase, threads);
+
+		log(String.format("searching %s address with prefix %s using %d threads (difficulty %.0f) ...", protocol.getTechnology(), search.getPrefix(), threads, search.getDifficulty()));
+
+		search.setProgressListener(s -> log(String.format("checked %d keys (%.1f keys/s), expected time to match %.0f s", 
+				s.getCandidateCount(), s.getKeyRate(), s.getEstimatedSeconds())));
+
+		List<String> mnemonicWords = search.search();
+		log(String.format("match found after %d keys (%.1f keys/s)", search.getCandidateCount(), search.getKeyRate()));
+
+		Wallet wallet = createWallet(protocol, mnemonicWords);
+
+		if(!search.matches(wallet.getAccount().getAddress())) {
+			throw new CreateWalletFileException(String.format("WALLET CREATION ERROR wallet address %s does not match vanity pattern", wallet.getAccount().getAddress()));
+		}
+
+		writeFiles(wallet, true);
+	}
+
+	/**
+	 * Creates one wallet per requested technology from a single mnemonic. The wallets are created concurrently with
+	 * a shared seed context so that the BIP39 seed is computed only once per pass phrase. In addition to the individual wallet
+	 * files a combined html page with all wallets is written.
+	 */
+	public void createWalletSet() {
+		List<Protocol> protocols = new ArrayList<>();
+		for(String name : technology.split(",")) {
+			protocols.add(getProtocol(name.trim()));
+		}
+
+		log(String.format("creating %d wallet files from one mnemonic ...", protocols.size()));
+
+		List<String> mnemonicWords = mnemonic != null ? Mnemonic.convert(mnemonic) : protocols.get(0).generateMnemonicWords();
+		List<Wallet> wallets = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(protocols.size());
+		long start = System.nanoTime();
+
+		try(SeedContext seeds = new SeedContext(mnemonicWords)) {
+			List<Future<Wallet>> results = new ArrayList<>();
+			for(Protocol protocol : protocols) {
+				results.add(executor.submit(() -> createWallet(protocol, mnemonicWords, seeds)));
+			}
+
+			for(Future<Wallet> result : results) {
+				wallets.add(result.get());
+			}
+
+			log(String.format("created %d wallets in %.1f s (%d seed computations)", wallets.size(), (System.nanoTime() - start) / 1e9, seeds.getSeedComputations()));
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CreateWalletFileException("WALLET CREATION ERROR wallet set creation interrupted");
+		}
+		catch(ExecutionException e) {
+			throw new CreateWalletFileException(e.getCause().getMessage());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		for(Wallet wallet : wallets) {
+			writeFiles(wallet, true);
+
+			if(addressCount > 0) {
+				writeAddressFile(wallet, wallet.getPathToDirectory());
+			}
+		}
+
+		String htmlFile = String.format("%s%s%s%s.%s", targetDirectory, File.separator, wallets.get(0).getFileBaseName(), WALLET_SET_SUFFIX, EXT_HTML);
+		FileUtility.saveToFile(WalletPageUtility.createHtml(wallets), htmlFile);
+		log(String.format("combined html file %s successfully created", htmlFile));
+	}
+
+	private Protocol getProtocol(String technologyName) {
+		return ProtocolFactory.getInstance(Technology.get(technologyName), Network.get(network));
+	}
+
+	private Wallet createWallet(Protocol protocol, List<String> mnemonicWords) {
+		return createWallet(protocol, mnemonicWords, null);
+	}
+
+	private Wallet createWallet(Protocol protocol, List<String> mnemonicWords, SeedContext seeds) {
+		try {
+			Wallet wallet = seeds != null 
+					? protocol.createWallet(mnemonicWords, passPhrase, accountCount, seeds) 
+					: protocol.createWallet(mnemonicWords, passPhrase, accountCount);
 			wallet.setPathToDirectory(targetDirectory);
+			return wallet;
 		}
 		catch(Exception e) {
 			throw new CreateWalletFileException(String.format("WALLET CREATION ERROR %s", e.getMessage()));
 		}
-
-		writeFiles(wallet);
 	}
 
-	private void writeFiles(Wallet wallet) {
+	private void writeFiles(Wallet wallet, boolean logInfo) {
 		String path = wallet.getPathToDirectory();
 		String baseName = wallet.getFileBaseName();
 
-		writeWalletFile(wallet, path, baseName);
-		writeHtmlFile(wallet, path, baseName);
+		writeWalletFile(wallet, path, baseName, logInfo);
+		writeHtmlFile(wallet, path, baseName, logInfo);
 		writeQRCodeFile(wallet, path, baseName);
 	}
 
-	private void writeWalletFile(Wallet wallet, String path, String baseName) {
+	private void writeWalletFile(Wallet wallet, String path, String baseName, boolean logInfo) {
 		String jsonFile = String.format("%s%s%s", path, File.separator, baseName, Wallet.JSON_FILE_EXTENSION);
 		FileUtility.saveToFile(wallet.toString(), jsonFile);
-		logWalletInfo(wallet);
+
+		if(logInfo) {
+			logWalletInfo(wallet);
+		}
+
 		log(String.format("wallet file %s successfully created", jsonFile));
 	}
 
-	private void writeHtmlFile(Wallet wallet, String path, String baseName) {
+	private void writeHtmlFile(Wallet wallet, String path, String baseName, boolean logInfo) {
 		String html = WalletPageUtility.createHtml(wallet);
 		String htmlFile = String.format("%s%s%s.%s", path, File.separator, baseName, EXT_HTML);
 		FileUtility.saveToFile(html, htmlFile);
-		log("writing html and png output files ...");
+
+		if(logInfo) {
+			log("writing html and png output files ...");
+		}
 	}
 
 	private void writeQRCodeFile(Wallet wallet, String path, String baseName) {
@@ -119,14 +482,390 @@ public class Application {
 		FileUtility.saveToFile(qrCode, pngFile);
 	}
 
+	/**
+	 * Derives the requested address range for each requested security level and writes them to a csv file
+	 * with the columns index, security level and address.
+	 */
+	private void writeAddressFile(Wallet wallet, String path) {
+		if(wallet.getAccount() instanceof BitcoinAccount) {
+			List<Chain> chains = ((BitcoinAccount) wallet.getAccount()).getKeyContext().getChains();
+			writeBitcoinAddressFile(chains, path, wallet.getFileBaseName());
+			return;
+		}
+
+		if(wallet.getAccount() instanceof EthereumAccount) {
+			writeEthereumAddressFile(wallet, path);
+			return;
+		}
+
+		if(!(wallet.getAccount() instanceof IotaAccount)) {
+			throw new IllegalArgumentException(String.format("Address derivation is not supported for %s wallets", wallet.getProtocol().getTechnology()));
+		}
+
+		writeIotaAddressFiles(Collections.singletonList(wallet), path);
+	}
+
+	/**
+	 * Derives the requested address range for each requested security level of the provided Iota wallets and writes
+	 * a csv file per wallet. The wallets are processed in batches of about {@link #ADDRESS_BATCH_SIZE} addresses, all
+	 * (seed, index) pairs of a batch are derived in parallel so wallets with few addresses keep all cores busy, too.
+	 */
+	private void writeIotaAddressFiles(List<Wallet> wallets, String path) {
+		List<String> levels = Arrays.asList(securityLevels.split(","));
+		int batchWallets = Math.max(1, ADDRESS_BATCH_SIZE / (addressCount * levels.size()));
+
+		log(String.format("deriving %d addresses starting at index %d for %d wallets ...", addressCount, addressStart, wallets.size()));
+
+		for(int offset = 0; offset < wallets.size(); offset += batchWallets) {
+			List<Wallet> batch = wallets.subList(offset, Math.min(offset + batchWallets, wallets.size()));
+			List<String> seeds = new ArrayList<>();
+			List<StringBuffer> csvs = new ArrayList<>();
+
+			for(Wallet wallet : batch) {
+				seeds.add(wallet.getSecret());
+				csvs.add(new StringBuffer());
+			}
+
+			for(String level : levels) {
+				int security = Integer.parseInt(level.trim());
+				List<List<String>> addresses = IotaAccount.deriveAddresses(seeds, security, addressStart, addressCount, IotaAccount.CHECKSUM_DEFAULT);
+
+				for(int w = 0; w < batch.size(); w++) {
+					for(int i = 0; i < addressCount; i++) {
+						csvs.get(w).append(String.format("%d,%d,%s%n", addressStart + i, security, addresses.get(w).get(i)));
+
+						if(addressIndex != null) {
+							addressIndex.add(addresses.get(w).get(i), batch.get(w).getFileName(), addressStart + i, security);
+						}
+					}
+				}
+			}
+
+			for(int w = 0; w < batch.size(); w++) {
+				String csvFile = String.format("%s%s%s%s.%s", path, File.separator, batch.get(w).getFileBaseName(), ADDRESSES_SUFFIX, EXT_CSV);
+				FileUtility.saveToFile(csvs.get(w).toString().trim(), csvFile);
+				log(String.format("address file %s successfully created", csvFile));
+			}
+		}
+
+		if(addressIndex != null) {
+			addressIndex.flush();
+			log(String.format("address index %s contains %d addresses", addressIndex.getFile(), addressIndex.size()));
+		}
+	}
+
+	/**
+	 * Streams the first address count (gap limit) receive and change addresses of a Bitcoin
+	 * account (wallet or watch-only xpub) to a csv file (columns chain, index, address) or an ndjson file. Addresses are derived from the
+	 * public chain keys in parallel batches, only one batch is kept in memory.
+	 */
+	private void writeBitcoinAddressFile(List<Chain> chains, String path, String baseName) {
+		boolean ndjson = EXT_NDJSON.equals(addressFormat);
+
+		if(!ndjson && !EXT_CSV.equals(addressFormat)) {
+			throw new IllegalArgumentException(String.format("Unsupported address format %s", addressFormat));
+		}
+
+		log(String.format("deriving %d receive and change addresses starting at index %d ...", addressCount, addressStart));
+
+		String addressFile = String.format("%s%s%s%s.%s", path, File.separator, baseName, ADDRESSES_SUFFIX, addressFormat);
+
+		try(PrintWriter out = new PrintWriter(addressFile, "UTF8")) {
+			for(Chain chain : chains) {
+				int chainIndex = chain.isReceive() ? 0 : 1;
+
+				for(int offset = 0; offset < addressCount; offset += ADDRESS_BATCH_SIZE) {
+					int batchStart = addressStart + offset;
+					List<String> addresses = chain.getAddressStrings(batchStart, Math.min(ADDRESS_BATCH_SIZE, addressCount - offset));
+
+					for(int i = 0; i < addresses.size(); i++) {
+						if(ndjson) {
+							JSONObject line = new JSONObject();
+							line.put(JSON_CHAIN, chainIndex);
+							line.put(JSON_INDEX, batchStart + i);
+							line.put(JSON_PATH, String.format("%s/%d", chain.getPath(), batchStart + i));
+							line.put(JSON_ADDRESS, addresses.get(i));
+							out.println(line.toString());
+						}
+						else {
+							out.println(String.format("%d,%d,%s", chainIndex, batchStart + i, addresses.get(i)));
+						}
+					}
+				}
+			}
+		}
+		catch(IOException | JSONException e) {
+			throw new RuntimeException("Failed to write address file " + addressFile, e);
+		}
+
+		log(String.format("address file %s successfully created", addressFile));
+		log(DerivationCache.getInstance().toString());
+	}
+
+	/**
+	 * Streams the standard path (m/44'/60'/0'/0/i) checksum (EIP-55) addresses of an Ethereum wallet to a csv file (columns index, address)
+	 * or an ndjson file. The BIP39 seed is computed once, addresses are derived in parallel batches.
+	 * The wallet key itself (legacy derivation) is not affected. Requires the mnemonic, i.e. a newly created wallet.
+	 */
+	private void writeEthereumAddressFile(Wallet wallet, String path) {
+		boolean ndjson = EXT_NDJSON.equals(addressFormat);
+
+		if(!ndjson && !EXT_CSV.equals(addressFormat)) {
+			throw new IllegalArgumentException(String.format("Unsupported address format %s", addressFormat));
+		}
+
+		if(wallet.getMnemonicWords() == null) {
+			throw new IllegalArgumentException("Ethereum address derivation requires the mnemonic of the wallet");
+		}
+
+		log(String.format("deriving %d addresses starting at index %d ...", addressCount, addressStart));
+
+		DeterministicKey coinKey = Ethereum.deriveCoinKey(Mnemonic.toSeed(wallet.getMnemonicWords(), wallet.getPassPhrase()));
+		String addressFile = String.format("%s%s%s%s.%s", path, File.separator, wallet.getFileBaseName(), ADDRESSES_SUFFIX, addressFormat);
+
+		try(PrintWriter out = new PrintWriter(addressFile, "UTF8")) {
+			for(int offset = 0; offset < addressCount; offset += ADDRESS_BATCH_SIZE) {
+				int batchStart = addressStart + offset;
+				List<String> addresses = Ethereum.deriveAddresses(coinKey, 0, batchStart, Math.min(ADDRESS_BATCH_SIZE, addressCount - offset), true);
+
+				for(int i = 0; i < addresses.size(); i++) {
+					if(ndjson) {
+						JSONObject line = new JSONObject();
+						line.put(JSON_INDEX, batchStart + i);
+						line.put(JSON_PATH, String.format(Ethereum.BIP44_PATH_FORMAT, 0, 0, batchStart + i));
+						line.put(JSON_ADDRESS, addresses.get(i));
+						out.println(line.toString());
+					}
+					else {
+						out.println(String.format("%d,%s", batchStart + i, addresses.get(i)));
+					}
+				}
+			}
+		}
+		catch(IOException | JSONException e) {
+			throw new RuntimeException("Failed to write address file " + addressFile, e);
+		}
+
+		log(String.format("address file %s successfully created", addressFile));
+	}
+
+	/**
+	 * Watch-only mode: writes the receive and change addresses of the provided account xpub to the target directory.
+	 * Neither a wallet file nor a pass phrase is involved.
+	 */
+	public void writeWatchOnlyAddressFile() {
+		if(addressCount < 1) {
+			throw new IllegalArgumentException(String.format("Watch-only mode requires a positive address count (%s)", SWITCH_ADDRESS_COUNT));
+		}
+
+		BitcoinWatchOnly watchOnly = new BitcoinWatchOnly(xpub, Network.get(network));
+		String baseName = String.format("%s%s", WATCH_ONLY_PREFIX, watchOnly.getFingerprint());
+
+		writeBitcoinAddressFile(watchOnly.getChains(), targetDirectory, baseName);
+	}
+
+	/**
+	 * Looks up the wallet file and key index of the specified address in the address index.
+	 */
+	public void lookupAddress() {
+		if(addressIndex == null) {
+			throw new IllegalArgumentException(String.format("Address lookup requires an address index (%s)", SWITCH_ADDRESS_INDEX));
+		}
+
+		AddressIndex.Entry entry = addressIndex.lookup(lookupAddress);
+
+		if(entry == null) {
+			log(String.format("address %s not found in address index %s", lookupAddress, addressIndex.getFile()));
+		}
+		else {
+			log("address: " + entry.getAddress());
+			log("wallet file: " + entry.getWalletName());
+			log("key index: " + entry.getIndex());
+			log("security level: " + entry.getSecurity());
+		}
+	}
+
+	/**
+	 * Attaches the signed bundle to the provided tips with local proof of work using the configured number of threads.
+	 */
+	private List<String> attachBundle(List<String> trytes) {
+		String [] tips = powTips.split(",");
+
+		if(tips.length != 2) {
+			throw new IllegalArgumentException(String.format("%s requires a trunk and a branch transaction", SWITCH_POW_TIPS));
+		}
+
+		log(String.format("attaching bundle with min weight magnitude %d using %d threads ...", minWeightMagnitude, threads));
+
+		IotaProofOfWork pow = new IotaProofOfWork(threads);
+		List<String> attached = pow.attach(trytes, tips[0].trim(), tips[1].trim(), minWeightMagnitude);
+		log(String.format("proof of work done: %d hashes (%.0f hashes/s)", pow.getHashCount(), pow.getHashRate()));
+
+		return attached;
+	}
+
+	/**
+	 * Validates all bundles in the provided file or directory (.txt files) concurrently and writes one json
+	 * result per bundle (ndjson) to the target directory. Files are read one by one, at most a few bundles
+	 * per worker thread are pending at any time.
+	 */
+	public void validateBundles() {
+		if(threads < 1) {
+			throw new IllegalArgumentException(String.format("Invalid number of threads %d", threads));
+		}
+
+		File source = new File(validateBundles);
+		File [] files = source.isDirectory() ? source.listFiles((dir, name) -> name.endsWith("." + EXT_TXT)) : new File [] { source };
+
+		if(files == null || files.length == 0) {
+			throw new IllegalArgumentException("No bundle files found in " + source.getAbsolutePath());
+		}
+
+		Arrays.sort(files);
+
+		String resultFile = String.format("%s%s%s.%s", targetDirectory, File.separator, BUNDLE_VALIDATION_FILE, EXT_NDJSON);
+		log(String.format("validating bundles in %s using %d threads ...", source.getAbsolutePath(), threads));
+
+		ThreadLocal<IotaBundleValidator> validators = ThreadLocal.withInitial(IotaBundleValidator::new);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Deque<Future<IotaBundleValidator.Result>> pending = new ArrayDeque<>();
+		int [] counts = new int[2];
+		long start = System.nanoTime();
+
+		try(PrintWriter out = new PrintWriter(resultFile, "UTF8")) {
+			for(File file : files) {
+				List<String> lines = new ArrayList<>();
+				for(String line : FileUtility.readLines(file)) {
+					if(!line.trim().isEmpty()) {
+						lines.add(line.trim());
+					}
+				}
+
+				for(List<String> bundle : IotaBundleValidator.groupByBundle(lines).values()) {
+					pending.add(executor.submit(() -> validators.get().validate(file.getName(), bundle)));
+
+					while(pending.size() > 4 * threads) {
+						writeValidationResult(pending.poll().get(), out, counts);
+					}
+				}
+			}
+
+			while(!pending.isEmpty()) {
+				writeValidationResult(pending.poll().get(), out, counts);
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Bundle validation interrupted", e);
+		}
+		catch(ExecutionException | IOException e) {
+			throw new RuntimeException("Bundle validation failed", e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		log(String.format("validated %d bundles in %.1f s: %d valid, %d invalid", counts[0] + counts[1], seconds, counts[0], counts[1]));
+		log(String.format("validation results written to %s", resultFile));
+	}
+
+	private void writeValidationResult(IotaBundleValidator.Result result, PrintWriter out, int [] counts) {
+		out.println(result.toJson().toString());
+		counts[result.isValid() ? 0 : 1]++;
+	}
+
+	/**
+	 * Decrypts and verifies all key store files in the provided directory concurrently and writes a wallet (json, html,
+	 * png) per key store plus one json result per key store (ndjson) to the target directory.
+	 * The number of concurrent decryptions is bounded by the worker threads and the key derivation memory budget, at
+	 * most a few key stores per worker thread are pending at any time.
+	 */
+	public void importKeystores() {
+		if(threads < 1) {
+			throw new IllegalArgumentException(String.format("Invalid number of threads %d", threads));
+		}
+
+		File source = new File(importKeystores);
+		File [] files = source.listFiles((dir, name) -> EthereumKeystoreImporter.isKeystoreFile(name));
+
+		if(files == null || files.length == 0) {
+			throw new IllegalArgumentException("No key store files found in " + source.getAbsolutePath());
+		}
+
+		Arrays.sort(files);
+
+		KdfScheduler scheduler = KdfScheduler.getInstance();
+		long admitted = Math.max(1, scheduler.getMemoryBudget() / KeystoreProfile.STANDARD.getMemory());
+		String resultFile = String.format("%s%s%s.%s", targetDirectory, File.separator, KEYSTORE_IMPORT_FILE, EXT_NDJSON);
+		log(String.format("importing %d key stores from %s using %d threads ...", files.length, source.getAbsolutePath(), threads));
+		log(String.format("memory budget admits %d concurrent decryptions of %s key stores", Math.min(admitted, scheduler.getCpuSlots()), KeystoreProfile.STANDARD));
+
+		EthereumKeystoreImporter importer = new EthereumKeystoreImporter(passPhrase, Network.get(network));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Deque<Future<EthereumKeystoreImporter.Result>> pending = new ArrayDeque<>();
+		int [] counts = new int[2];
+		long start = System.nanoTime();
+
+		try(PrintWriter out = new PrintWriter(resultFile, "UTF8")) {
+			for(File file : files) {
+				pending.add(executor.submit(() -> {
+					EthereumKeystoreImporter.Result result = importer.importKeystore(file);
+
+					if(result.isValid()) {
+						Wallet wallet = result.getWallet();
+						wallet.setPathToDirectory(targetDirectory);
+						writeFiles(wallet, false);
+					}
+
+					return result;
+				}));
+
+				while(pending.size() > 4 * threads) {
+					writeImportResult(pending.poll().get(), out, counts);
+				}
+			}
+
+			while(!pending.isEmpty()) {
+				writeImportResult(pending.poll().get(), out, counts);
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Key store import interrupted", e);
+		}
+		catch(ExecutionException | IOException e) {
+			throw new RuntimeException("Key store import failed", e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		log(String.format("imported %d of %d key stores in %.1f s (%.2f key stores/s): %d failed", counts[0], files.length, seconds, files.length / seconds, counts[1]));
+		log(scheduler.toString());
+		log(String.format("import results written to %s", resultFile));
+	}
+
+	private void writeImportResult(EthereumKeystoreImporter.Result result, PrintWriter out, int [] counts) {
+		out.println(result.toJson().toString());
+		counts[result.isValid() ? 0 : 1]++;
+
+		if(!result.isValid()) {
+			log(String.format("%s: %s", result.getSource(), result.getError()));
+		}
+	}
+
 	public void verifyWalletFile() {
 		log("verifying wallet file ...");
 
+		File file = new File(walletFile);
+		Wallet wallet = null;
+
 		try {
-			File file = new File(walletFile);
 			JSONObject walletJson = FileUtility.readJsonFile(file);
 			Protocol protocol = ProtocolFactory.getInstance(walletJson);
-			Wallet wallet = protocol.restoreWallet(walletJson, passPhrase);
+			wallet = protocol.restoreWallet(walletJson, passPhrase);
 
 			log("wallet verification successful");
 			logWalletInfo(wallet);
@@ -134,6 +873,131 @@ public class Application {
 		catch(Exception e) {
 			throw new VerifyWalletFileException(String.format("WALLET VERIFICATION ERROR %s", e.getMessage()));
 		}
+
+		if(addressCount > 0) {
+			writeAddressFile(wallet, file.getAbsoluteFile().getParent());
+		}
+
+		if(spentRegistryFile != null) {
+			updateSpentRegistry(wallet);
+		}
+
+		if(transferFile != null) {
+			if(wallet.getAccount() instanceof BitcoinAccount) {
+				writeBitcoinTransactionFile(wallet, file.getAbsoluteFile().getParent());
+			}
+			else if(wallet.getAccount() instanceof EthereumAccount) {
+				writeEthereumTransactionFile(wallet, file.getAbsoluteFile().getParent());
+			}
+			else {
+				writeBundleFile(wallet, file.getAbsoluteFile().getParent());
+			}
+		}
+	}
+
+	/**
+	 * Creates and signs the transfer bundle specified in the transfer file and writes the transaction trytes
+	 * (one transaction per line, last transaction first) for transport to an online node.
+	 */
+	private void writeBundleFile(Wallet wallet, String path) {
+		if(!(wallet.getAccount() instanceof IotaAccount)) {
+			throw new IllegalArgumentException(String.format("Transfer signing is not supported for %s wallets", wallet.getProtocol().getTechnology()));
+		}
+
+		log("signing transfer ...");
+
+		IotaBundle bundle = new IotaBundle(wallet.getSecret());
+
+		try {
+			JSONObject transfer = FileUtility.readJsonFile(new File(transferFile));
+			JSONArray inputs = transfer.getJSONArray(JSON_INPUTS);
+			JSONArray outputs = transfer.getJSONArray(JSON_OUTPUTS);
+
+			for(int i = 0; i < inputs.length(); i++) {
+				JSONObject input = inputs.getJSONObject(i);
+				bundle.addInput(input.getInt(JSON_INDEX), input.optInt(JSON_SECURITY, IotaAccount.SECURITY_LEVEL_DEFAULT), input.getLong(JSON_BALANCE));
+			}
+
+			for(int i = 0; i < outputs.length(); i++) {
+				JSONObject output = outputs.getJSONObject(i);
+				bundle.addOutput(output.getString(JSON_ADDRESS), output.getLong(JSON_VALUE), output.optString(JSON_TAG, ""));
+			}
+
+			if(transfer.has(JSON_REMAINDER)) {
+				bundle.setRemainderAddress(transfer.getString(JSON_REMAINDER));
+			}
+		}
+		catch(JSONException e) {
+			throw new IllegalArgumentException("Invalid transfer file " + transferFile, e);
+		}
+
+		List<String> trytes = bundle.sign();
+
+		if(powTips != null) {
+			trytes = attachBundle(trytes);
+		}
+
+		String bundleFile = String.format("%s%s%s%s.%s", path, File.separator, wallet.getFileBaseName(), BUNDLE_SUFFIX, EXT_TXT);
+		FileUtility.saveToFile(String.join(System.lineSeparator(), trytes), bundleFile);
+
+		log("bundle hash: " + bundle.getBundleHash());
+		log(String.format("bundle file %s with %d transactions successfully created", bundleFile, trytes.size()));
+	}
+
+	/**
+	 * Signs the unsigned Bitcoin transactions specified in the transfer file and writes the raw transactions
+	 * (hex, one transaction per line in the order of the transfer file) for broadcasting by an online node.
+	 */
+	private void writeBitcoinTransactionFile(Wallet wallet, String path) {
+		log("signing transactions ...");
+
+		JSONObject batch = FileUtility.readJsonFile(new File(transferFile));
+		BitcoinTransactionSigner signer = new BitcoinTransactionSigner((BitcoinAccount) wallet.getAccount(), maxFee);
+		List<String> transactions = signer.sign(batch);
+
+		String transactionFile = String.format("%s%s%s%s.%s", path, File.separator, wallet.getFileBaseName(), TRANSACTIONS_SUFFIX, EXT_TXT);
+		FileUtility.saveToFile(String.join(System.lineSeparator(), transactions), transactionFile);
+
+		log(String.format("transaction file %s with %d transactions (%d keys) successfully created", transactionFile, transactions.size(), signer.getKeyCount()));
+	}
+
+	/**
+	 * Signs the unsigned Ethereum transactions (ndjson, one transaction per line) of the transfer file with the key of
+	 * the verified wallet and writes the raw transactions (hex, one per line in the order of the transfer file).
+	 * The key store of the wallet has been decrypted once when the wallet was restored.
+	 */
+	private void writeEthereumTransactionFile(Wallet wallet, String path) {
+		log("signing transactions ...");
+
+		List<String> lines = FileUtility.readLines(new File(transferFile));
+		EthereumTransactionSigner signer = new EthereumTransactionSigner((EthereumAccount) wallet.getAccount());
+		List<String> transactions = signer.sign(lines);
+
+		String transactionFile = String.format("%s%s%s%s.%s", path, File.separator, wallet.getFileBaseName(), TRANSACTIONS_SUFFIX, EXT_TXT);
+		FileUtility.saveToFile(String.join(System.lineSeparator(), transactions), transactionFile);
+
+		log(String.format("transaction file %s with %d transactions from %s successfully created", transactionFile, transactions.size(), signer.getAddress()));
+	}
+
+	/**
+	 * Marks the requested key indexes of the wallet as spent and reports the next unspent key index.
+	 */
+	private void updateSpentRegistry(Wallet wallet) {
+		if(!(wallet.getAccount() instanceof IotaAccount)) {
+			throw new IllegalArgumentException(String.format("Spent address tracking is not supported for %s wallets", wallet.getProtocol().getTechnology()));
+		}
+
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(new File(spentRegistryFile))) {
+			String seed = wallet.getSecret();
+
+			if(markSpent != null) {
+				int [] indexes = Arrays.stream(markSpent.split(",")).mapToInt(index -> Integer.parseInt(index.trim())).toArray();
+				registry.markSpent(seed, indexes);
+				log(String.format("marked key indexes %s as spent", markSpent));
+			}
+
+			log("next unspent key index: " + registry.nextUnspent(seed, 0));
+		}
 	}
 
 	private void logWalletInfo(Wallet wallet) {
@@ -144,6 +1008,17 @@ public class Application {
 		log("wallet file: " + wallet.getAbsolutePath());
 		log("protocol: " + wallet.getProtocol());
 		log("address: " + address);
+
+		List<Account> accounts = wallet.getAccounts();
+		for(int i = 1; i < accounts.size(); i++) {
+			log(String.format("account %d address: %s", i, accounts.get(i).getAddress()));
+		}
+
+		if(account instanceof EthereumAccount) {
+			log("checksum address: " + ((EthereumAccount) account).getChecksumAddress());
+			log("key store profile: " + ((EthereumAccount) account).getKeystoreProfile());
+		}
+
 		log("encrypted: " + (passPhrase != null && passPhrase.length() > 0));
 		log("pass phrase: " + passPhrase);		
 		log("seed: " + seed);
@@ -1,13 +1,10 @@
 package org.matthiaszimmermann.crypto.bitcoin;
 
-import java.math.BigInteger;
-
 import org.bitcoinj.core.ECKey;
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.core.Utils;
 import org.bitcoinj.crypto.ChildNumber;
 import org.bitcoinj.crypto.DeterministicKey;
-import org.bitcoinj.crypto.HDKeyDerivation;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -43,16 +40,11 @@ public class Address {
         this.params = params;
         childNum = child;
 
-        DeterministicKey dk = HDKeyDerivation.deriveChildKey(cKey, new ChildNumber(childNum, false));
+        DeterministicKey dk = DerivationCache.getInstance().deriveChildKey(cKey, new ChildNumber(childNum, false).i());
         // compressed WIF private key format
+        // the (compressed) public key is already known from the derivation, no need to multiply again
         if(dk.hasPrivKey()) {
-//            byte[] prepended0Byte = ArrayUtils.addAll(new byte[1], dk.getPrivKeyBytes());
-        	byte[] getPrivKeyBytes = dk.getPrivKeyBytes();
-        	byte[] prepended0Byte = new byte[1 + getPrivKeyBytes.length];
-        	prepended0Byte[0] = 0;
-            System.arraycopy(getPrivKeyBytes, 0, prepended0Byte, 1, getPrivKeyBytes.length);
-            
-            ecKey = ECKey.fromPrivate(new BigInteger(prepended0Byte), true);
+            ecKey = ECKey.fromPrivateAndPrecalculatedPublic(dk.getPrivKeyBytes(), dk.getPubKey());
         }
         else {
             ecKey = ECKey.fromPublicOnly(dk.getPubKey());
@@ -124,6 +116,16 @@ public class Address {
         return ecKey.toAddress(params);
     }
 
+    /**
+     * Return key of this address, e.g. for transaction signing.
+     *
+     * @return ECKey
+     *
+     */
+    public ECKey getECKey() {
+        return ecKey;
+    }
+
     /**
      * Return BIP44 path for this address (m / purpose' / coin_type' / account' / chain / address_index).
      *
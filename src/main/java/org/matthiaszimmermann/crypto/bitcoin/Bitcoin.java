@@ -1,20 +1,23 @@
 package org.matthiaszimmermann.crypto.bitcoin;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.crypto.ChildNumber;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.bitcoinj.crypto.HDKeyDerivation;
-import org.bitcoinj.crypto.MnemonicCode;
 import org.bitcoinj.params.MainNetParams;
 import org.bitcoinj.params.TestNet3Params;
 import org.bitcoinj.params.UnitTestParams;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.matthiaszimmermann.crypto.core.Account;
+import org.matthiaszimmermann.crypto.core.Mnemonic;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.Protocol;
+import org.matthiaszimmermann.crypto.core.SeedContext;
 import org.matthiaszimmermann.crypto.core.Technology;
 import org.matthiaszimmermann.crypto.core.Wallet;
 
@@ -47,8 +50,9 @@ public class Bitcoin extends Protocol {
 			throw new IllegalArgumentException("Provided the number of words for the mnemonic word list is not a multiple of 3");
 		}
 
+		// checks words and checksum only, the seed is derived once by the account
 		try { 
-			MnemonicCode.toSeed(mnemonicWords, "dummy");
+			Mnemonic.deriveEntropy(mnemonicWords);
 		}
 		catch (Exception e) {
 			throw new IllegalArgumentException("Provided mnemonic word list fails to verify: ", e);
@@ -61,6 +65,18 @@ public class Bitcoin extends Protocol {
 		return new BitcoinWallet(mnemonicWords, passPhase, getNetwork());
 	}
 
+	@Override
+	public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount) {
+		validateMnemonicWords(mnemonicWords);
+		return new BitcoinWallet(mnemonicWords, passPhase, getNetwork(), accountCount);
+	}
+
+	@Override
+	public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount, SeedContext seeds) {
+		validateMnemonicWords(mnemonicWords);
+		return new BitcoinWallet(mnemonicWords, passPhase, getNetwork(), accountCount, seeds);
+	}
+
 	@Override
 	public Wallet restoreWallet(JSONObject walletJson, String passPhrase) {
         // verifier.checkPreconditions(json) // and write tests for it
@@ -79,6 +95,70 @@ public class Bitcoin extends Protocol {
 		return new BitcoinAccount(mnemonicWords, passPhrase, network);
 	}
 
+	/**
+	 * Returns the first receive address (m/44'/0'/0'/0/0) of the mnemonic. Only the path to this address is derived,
+	 * no chains or private key strings are created and no node is added to the {@link DerivationCache}.
+	 */
+	@Override
+	public String deriveAddress(List<String> mnemonicWords, String passPhrase) {
+		DerivationCache cache = DerivationCache.getInstance();
+		DeterministicKey rootKey = seedToRootKey(Mnemonic.toSeed(mnemonicWords, BitcoinKeyContext.SEED_PASS_PHRASE));
+		DeterministicKey accountKey = cache.deriveChildKey(rootKey, ChildNumber.HARDENED_BIT);
+		DeterministicKey receiveKey = cache.deriveChildKey(accountKey, 0);
+
+		return cache.deriveChildKey(receiveKey, 0).toAddress(getNetworkParameters(getNetwork())).toString();
+	}
+
+	/**
+	 * Creates the accounts m/44'/0'/i' for i = 0..count-1, the seed is derived once and the accounts are derived in parallel.
+	 */
+	@Override
+	public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count) {
+		validateMnemonicWords(mnemonicWords);
+		checkAccountCount(count);
+
+		return createAccounts(new BitcoinKeyContext(mnemonicWords, getNetwork()), passPhrase, count);
+	}
+
+	/**
+	 * Creates the accounts m/44'/0'/i' for i = 0..count-1 from the seed of the provided context (empty pass phrase).
+	 */
+	@Override
+	public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count, SeedContext seeds) {
+		validateMnemonicWords(mnemonicWords);
+		checkAccountCount(count);
+
+		byte [] seed = seeds.getSeed(BitcoinKeyContext.SEED_PASS_PHRASE);
+		return createAccounts(new BitcoinKeyContext(mnemonicWords, getNetwork(), seed), passPhrase, count);
+	}
+
+	private List<Account> createAccounts(BitcoinKeyContext context, String passPhrase, int count) {
+		Account [] accounts = new Account[count];
+
+		IntStream.range(0, count)
+		.parallel()
+		.forEach(i -> accounts[i] = new BitcoinAccount(i == 0 ? context : context.deriveAccount(i), passPhrase));
+
+		return Arrays.asList(accounts);
+	}
+
+	/**
+	 * Restores the account from the key context of the first account, the BIP39 seed is not derived again.
+	 */
+	@Override
+	public Account restoreAccount(JSONObject accountJson, String passPhrase, Account first) {
+		if(!(first instanceof BitcoinAccount)) {
+			return restoreAccount(accountJson, passPhrase);
+		}
+
+		try {
+			return new BitcoinAccount(accountJson, passPhrase, ((BitcoinAccount) first).getKeyContext());
+		} 
+		catch (JSONException e) {
+			throw new RuntimeException("Failed to create Bitcoin account from json object", e);
+		}
+	}
+
 	@Override
 	public Account restoreAccount(JSONObject accountJson, String passPhrase) {
 		try {
@@ -106,8 +186,9 @@ public class Bitcoin extends Protocol {
 	// hypothesis only need to change constant 44 to 49
 	public DeterministicKey seedToRootKey(byte [] seed) {
 		DeterministicKey masterPrivateKey = HDKeyDerivation.createMasterPrivateKey(seed);
-		DeterministicKey childKey = HDKeyDerivation.deriveChildKey(masterPrivateKey, 44 | ChildNumber.HARDENED_BIT);
+		DerivationCache cache = DerivationCache.getInstance();
+		DeterministicKey childKey = cache.deriveChildKey(masterPrivateKey, 44 | ChildNumber.HARDENED_BIT);
 
-		return  HDKeyDerivation.deriveChildKey(childKey, ChildNumber.HARDENED_BIT);
+		return cache.deriveChildKey(childKey, ChildNumber.HARDENED_BIT);
 	}
 }
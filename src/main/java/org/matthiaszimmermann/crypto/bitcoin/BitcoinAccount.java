@@ -4,10 +4,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.bitcoinj.crypto.ChildNumber;
-import org.bitcoinj.crypto.DeterministicKey;
-import org.bitcoinj.crypto.HDKeyDerivation;
-import org.bitcoinj.crypto.MnemonicCode;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -21,6 +17,10 @@ import org.matthiaszimmermann.crypto.core.Network;
  */
 public class BitcoinAccount extends Account {
 
+	public static final String JSON_XPUB = "xpub";
+	public static final String JSON_ACCOUNT_INDEX = "index";
+
+	private BitcoinKeyContext keyContext = null;
 	private List<Chain> chains = null;
 
 	/**
@@ -30,16 +30,40 @@ public class BitcoinAccount extends Account {
 	 * @param NetworkParameters params
 	 */
 	public BitcoinAccount(List<String> mnemonicWords, String passPhrase, Network network) {
-		super(mnemonicWords, passPhrase, new Bitcoin(network));
-
-		chains = getChains(mnemonicWords, getNetwork());
+		this(new BitcoinKeyContext(mnemonicWords, network), passPhrase);
 	}
 
 	public BitcoinAccount(JSONObject accountJson, String passPhrase, Network network) throws JSONException {
-		super(accountJson, passPhrase, new Bitcoin(network));
-		
-		List<String> mnemonicWords = new ArrayList<String>(Arrays.asList(getSecret().split(" ")));
-		chains = getChains(mnemonicWords, getNetwork());
+		super(passPhrase, new Bitcoin(network));
+
+		// the key context is created while the secret is verified
+		restore(accountJson);
+		chains = keyContext.getChains();
+	}
+
+	/**
+	 * Restores an account of a multi account wallet, the seed and root key of the provided context of another account 
+	 * of the same mnemonic are reused.
+	 */
+	public BitcoinAccount(JSONObject accountJson, String passPhrase, BitcoinKeyContext sharedContext) throws JSONException {
+		super(passPhrase, new Bitcoin(sharedContext.getNetwork()));
+
+		keyContext = sharedContext;
+		restore(accountJson);
+		chains = keyContext.getChains();
+	}
+
+	/**
+	 * Constructor for an account of a multi account wallet, the mnemonic words are the secret of the provided key context.
+	 */
+	public BitcoinAccount(BitcoinKeyContext keyContext, String passPhrase) {
+		super(passPhrase, new Bitcoin(keyContext.getNetwork()));
+
+		this.keyContext = keyContext;
+		setSecret(keyContext.getSecret());
+		setAddress(keyContext.getReceiveChain().getAddressAt(0).getAddressString());
+
+		chains = keyContext.getChains();
 	}
 
 	@Override
@@ -49,18 +73,49 @@ public class BitcoinAccount extends Account {
 
 	@Override
 	public String deriveAddress(String secret, Network network) {
-		List<String> mnemonicWords = new ArrayList<String>(Arrays.asList(secret.split(" ")));
-		DeterministicKey dk = getDeterministicKey(mnemonicWords);
-		Chain receiveChain = new Chain(dk, true, network);
-		Address address = receiveChain.getAddressAt(0);
+		Address address = getKeyContext(secret, network).getReceiveChain().getAddressAt(0);
 		
 		return address.getAddressString();
 	}
 
+	@Override
+	protected String deriveAddress(JSONObject accountJson, String secret, Network network) {
+		int accountIndex = accountJson.optInt(JSON_ACCOUNT_INDEX, 0);
+
+		// a shared context of the same mnemonic saves the BIP39 seed computation
+		BitcoinKeyContext context = keyContext != null && keyContext.matches(secret, network) 
+				? keyContext 
+				: new BitcoinKeyContext(toWords(secret), network);
+
+		keyContext = accountIndex != context.getAccountIndex() ? context.deriveAccount(accountIndex) : context;
+
+		return keyContext.getReceiveChain().getAddressAt(0).getAddressString();
+	}
+
+	/**
+	 * Returns the account xpub (extended public key for m/44'/0'/i'), see {@link BitcoinWatchOnly}.
+	 */
+	public String getXpub() {
+		return keyContext.getAccountXpub();
+	}
+
+	/**
+	 * Returns the key context of this account.
+	 */
+	public BitcoinKeyContext getKeyContext() {
+		return keyContext;
+	}
+
 	@Override
 	public JSONObject toJson(boolean includePrototolInfo) {
 		try {
 			JSONObject obj = super.toJson(includePrototolInfo);
+			obj.put(JSON_XPUB, getXpub());
+
+			if(keyContext.getAccountIndex() > 0) {
+				obj.put(JSON_ACCOUNT_INDEX, keyContext.getAccountIndex());
+			}
+
 			obj.put("chains", chainsToJson());
 			return obj;
 		}
@@ -69,25 +124,20 @@ public class BitcoinAccount extends Account {
 		}
 	}
 
-	private List<Chain> getChains(List<String> mnemonicWords, Network network) {
-		DeterministicKey dk = getDeterministicKey(mnemonicWords);
-		List<Chain> chains = new ArrayList<>();
-		chains.add(new Chain(dk, true, network)); // receive chain
-		chains.add(new Chain(dk, false, network)); // change chain
-		
-		return chains;
+	/**
+	 * Returns the key context for the provided secret. The context of this account is reused, 
+	 * contexts for other secrets are not kept.
+	 */
+	private BitcoinKeyContext getKeyContext(String secret, Network network) {
+		if(keyContext != null && keyContext.matches(secret, network)) {
+			return keyContext;
+		}
+
+		return new BitcoinKeyContext(toWords(secret), network);
 	}
 
-	private DeterministicKey getDeterministicKey(List<String> mnemonicWords) {
-		// the passPhrase needs to be set to an empty string, otherwise the resulting addresses do not match 
-		// those produced by the electrum wallet
-		byte [] seed = MnemonicCode.toSeed(mnemonicWords, "");
-		
-		DeterministicKey rootKey = ((Bitcoin)getProtocol()).seedToRootKey(seed);
-		int child = rootKey.getChildNumber().num();
-		int childnum = child | ChildNumber.HARDENED_BIT;
-		
-		return HDKeyDerivation.deriveChildKey(rootKey, childnum);
+	private static List<String> toWords(String secret) {
+		return new ArrayList<String>(Arrays.asList(secret.split(" ")));
 	}
 
 	private JSONArray chainsToJson() {
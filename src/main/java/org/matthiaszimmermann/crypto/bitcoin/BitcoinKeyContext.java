@@ -0,0 +1,129 @@
+package org.matthiaszimmermann.crypto.bitcoin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bitcoinj.crypto.ChildNumber;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.matthiaszimmermann.crypto.core.Mnemonic;
+import org.matthiaszimmermann.crypto.core.Network;
+
+/**
+ * Keys of a BIP44 Bitcoin account (m/44'/0'/i') derived from a mnemonic.
+ * The BIP39 seed (2048 rounds of PBKDF2), the hardened derivations and the receive/change chains are computed
+ * once when the context is created and are then shared by address derivation, chain construction and json output.
+ */
+public class BitcoinKeyContext {
+
+	// the pass phrase needs to be an empty string, otherwise the resulting addresses do not match
+	// those produced by the electrum wallet
+	public static final String SEED_PASS_PHRASE = "";
+
+	private final String secret;
+	private final Network network;
+	private final byte [] seed;
+	private final DeterministicKey rootKey;
+	private final int accountIndex;
+	private final DeterministicKey accountKey;
+	private final List<Chain> chains;
+
+	/**
+	 * Creates the context for account 0.
+	 */
+	public BitcoinKeyContext(List<String> mnemonicWords, Network network) {
+		this(mnemonicWords, network, Mnemonic.toSeed(mnemonicWords, SEED_PASS_PHRASE));
+	}
+
+	/**
+	 * Creates the context for account 0 with an already computed BIP39 seed of the mnemonic (empty pass phrase).
+	 */
+	public BitcoinKeyContext(List<String> mnemonicWords, Network network, byte [] seed) {
+		this(Mnemonic.convert(mnemonicWords), network, seed, null, 0);
+	}
+
+	private BitcoinKeyContext(String secret, Network network, byte [] seed, DeterministicKey rootKey, int accountIndex) {
+		if(accountIndex < 0) {
+			throw new IllegalArgumentException("Account index must not be negative but is " + accountIndex);
+		}
+
+		this.secret = secret;
+		this.network = network;
+		this.seed = seed;
+		this.rootKey = rootKey != null ? rootKey : new Bitcoin(network).seedToRootKey(seed);
+		this.accountIndex = accountIndex;
+
+		accountKey = DerivationCache.getInstance().deriveChildKey(this.rootKey, accountIndex | ChildNumber.HARDENED_BIT);
+
+		List<Chain> chainList = new ArrayList<>();
+		chainList.add(new Chain(accountKey, true, network)); // receive chain
+		chainList.add(new Chain(accountKey, false, network)); // change chain
+		chains = Collections.unmodifiableList(chainList);
+	}
+
+	/**
+	 * Returns the context of the specified account of the same mnemonic, seed and root key are shared (no KDF).
+	 */
+	public BitcoinKeyContext deriveAccount(int accountIndex) {
+		return new BitcoinKeyContext(secret, network, seed, rootKey, accountIndex);
+	}
+
+	/**
+	 * Returns true iff this context has been derived for the provided secret (space separated mnemonic words) and network.
+	 */
+	public boolean matches(String secret, Network network) {
+		return this.secret.equals(secret) && this.network == network;
+	}
+
+	public byte [] getSeed() {
+		return seed.clone();
+	}
+
+	/**
+	 * Returns the key for m/44'/0'.
+	 */
+	public DeterministicKey getRootKey() {
+		return rootKey;
+	}
+
+	public int getAccountIndex() {
+		return accountIndex;
+	}
+
+	/**
+	 * Returns the account key for m/44'/0'/i'.
+	 */
+	public DeterministicKey getAccountKey() {
+		return accountKey;
+	}
+
+	/**
+	 * Returns the account xpub (extended public key for m/44'/0'/i') that allows watch-only address derivation.
+	 */
+	public String getAccountXpub() {
+		return accountKey.serializePubB58(Bitcoin.getNetworkParameters(network));
+	}
+
+	/**
+	 * Returns the receive and the change chain (in this order).
+	 */
+	public List<Chain> getChains() {
+		return chains;
+	}
+
+	public Chain getReceiveChain() {
+		return chains.get(0);
+	}
+
+	public Chain getChangeChain() {
+		return chains.get(1);
+	}
+
+	public String getSecret() {
+		return secret;
+	}
+
+	public Network getNetwork() {
+		return network;
+	}
+}
@@ -0,0 +1,264 @@
+package org.matthiaszimmermann.crypto.bitcoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutPoint;
+import org.bitcoinj.core.Utils;
+import org.bitcoinj.crypto.ChildNumber;
+import org.bitcoinj.crypto.TransactionSignature;
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Offline signing of unsigned Bitcoin (P2PKH) transactions with the keys of a BIP44 account.
+ *
+ * Each input references the previous output (txid, vout, value) and the key that owns it, either by chain and index
+ * or by derivation path ("1/7" relative to the account or "m/44'/0'/0'/1/7"). Outputs are given by address and value,
+ * the difference between inputs and outputs is the fee. Transactions with a fee above the maximum fee are rejected,
+ * a missing change output would otherwise give the whole remainder to the miners.
+ * Transactions are signed in parallel. Keys are derived once per signer and shared by all transactions that spend
+ * from the same address, the account and chain keys are taken from the key context of the account.
+ */
+public class BitcoinTransactionSigner {
+
+	public static final String JSON_TRANSACTIONS = "transactions";
+	public static final String JSON_INPUTS = "inputs";
+	public static final String JSON_OUTPUTS = "outputs";
+	public static final String JSON_TXID = "txid";
+	public static final String JSON_VOUT = "vout";
+	public static final String JSON_VALUE = "value";
+	public static final String JSON_CHAIN = "chain";
+	public static final String JSON_INDEX = "index";
+	public static final String JSON_PATH = "path";
+	public static final String JSON_ADDRESS = "address";
+
+	// 0.01 BTC
+	public static final long MAX_FEE_DEFAULT = 1000000;
+
+	private final BitcoinKeyContext keyContext;
+	private final NetworkParameters params;
+	private final long maxFee;
+	private final Map<Long, Address> keys = new ConcurrentHashMap<>();
+
+	public BitcoinTransactionSigner(BitcoinAccount account) {
+		this(account, MAX_FEE_DEFAULT);
+	}
+
+	/**
+	 * @param maxFee the maximum fee (in satoshi) of a single transaction
+	 */
+	public BitcoinTransactionSigner(BitcoinAccount account, long maxFee) {
+		if(account == null || account.getKeyContext() == null) {
+			throw new IllegalArgumentException("Transaction signing requires a Bitcoin account with private keys");
+		}
+
+		if(maxFee < 0) {
+			throw new IllegalArgumentException("Maximum fee must not be negative but is " + maxFee);
+		}
+
+		this.keyContext = account.getKeyContext();
+		this.params = Bitcoin.getNetworkParameters(keyContext.getNetwork());
+		this.maxFee = maxFee;
+	}
+
+	/**
+	 * Signs all transactions of the provided batch ({"transactions": [...]}) in parallel.
+	 * @return the raw signed transactions as hex strings in the order of the batch
+	 */
+	public List<String> sign(JSONObject batch) {
+		JSONArray transactions = null;
+
+		try {
+			transactions = batch.getJSONArray(JSON_TRANSACTIONS);
+		}
+		catch(JSONException e) {
+			throw new IllegalArgumentException("Transaction batch without transactions", e);
+		}
+
+		// parsing is done upfront to report invalid transactions before any signature is computed
+		List<UnsignedTransaction> unsigned = new ArrayList<>();
+		for(int i = 0; i < transactions.length(); i++) {
+			try {
+				unsigned.add(new UnsignedTransaction(transactions.getJSONObject(i)));
+			}
+			catch(JSONException | IllegalArgumentException e) {
+				throw new IllegalArgumentException(String.format("Invalid transaction %d: %s", i, e.getMessage()), e);
+			}
+		}
+
+		String [] raw = new String[unsigned.size()];
+
+		IntStream.range(0, unsigned.size())
+		.parallel()
+		.forEach(i -> raw[i] = Utils.HEX.encode(unsigned.get(i).sign().unsafeBitcoinSerialize()));
+
+		List<String> result = new ArrayList<>();
+		for(String tx : raw) {
+			result.add(tx);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of distinct input keys derived so far.
+	 */
+	public int getKeyCount() {
+		return keys.size();
+	}
+
+	private Address getAddress(int chain, int index) {
+		return keys.computeIfAbsent(((long) chain << 32) | index, k -> keyContext.getChains().get(chain).getAddressAt(index));
+	}
+
+	private int [] parsePath(JSONObject input) throws JSONException {
+		if(!input.has(JSON_PATH)) {
+			return new int [] { input.getInt(JSON_CHAIN), input.getInt(JSON_INDEX) };
+		}
+
+		String path = input.getString(JSON_PATH).trim();
+		String [] elements = path.split("/");
+
+		if(elements.length > 2) {
+			String accountPath = normalizePath(keyContext.getAccountKey().getPathAsString());
+			String prefix = normalizePath(path.substring(0, path.lastIndexOf('/', path.lastIndexOf('/') - 1)));
+
+			if(!accountPath.equals(prefix)) {
+				throw new IllegalArgumentException(String.format("Path %s does not belong to account %s", path, accountPath));
+			}
+		}
+		else if(elements.length < 2) {
+			throw new IllegalArgumentException("Invalid derivation path " + path);
+		}
+
+		try {
+			return new int [] {
+					Integer.parseInt(elements[elements.length - 2]),
+					Integer.parseInt(elements[elements.length - 1]) };
+		}
+		catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid derivation path " + path, e);
+		}
+	}
+
+	// bitcoinj writes "M/44H/0H/0H", wallets usually use "m/44'/0'/0'"
+	private static String normalizePath(String path) {
+		return path.toLowerCase().replace('\'', 'h');
+	}
+
+	private class UnsignedTransaction {
+
+		private final List<Input> inputs = new ArrayList<>();
+		private final List<org.bitcoinj.core.Address> outputAddresses = new ArrayList<>();
+		private final List<Long> outputValues = new ArrayList<>();
+
+		UnsignedTransaction(JSONObject json) throws JSONException {
+			JSONArray inputArray = json.getJSONArray(JSON_INPUTS);
+			JSONArray outputArray = json.getJSONArray(JSON_OUTPUTS);
+
+			if(inputArray.length() == 0 || outputArray.length() == 0) {
+				throw new IllegalArgumentException("Transaction requires at least one input and one output");
+			}
+
+			long inputValue = 0;
+			long outputValue = 0;
+
+			for(int i = 0; i < inputArray.length(); i++) {
+				JSONObject input = inputArray.getJSONObject(i);
+				int [] path = parsePath(input);
+				Input in = new Input(input.getString(JSON_TXID), input.getLong(JSON_VOUT), input.getLong(JSON_VALUE), path[0], path[1]);
+				inputs.add(in);
+				inputValue = Math.addExact(inputValue, in.value);
+			}
+
+			for(int i = 0; i < outputArray.length(); i++) {
+				JSONObject output = outputArray.getJSONObject(i);
+				long value = output.getLong(JSON_VALUE);
+
+				if(value <= 0) {
+					throw new IllegalArgumentException("Output value must be positive but is " + value);
+				}
+
+				outputAddresses.add(org.bitcoinj.core.Address.fromBase58(params, output.getString(JSON_ADDRESS)));
+				outputValues.add(value);
+				outputValue = Math.addExact(outputValue, value);
+			}
+
+			if(outputValue > inputValue) {
+				throw new IllegalArgumentException(String.format("Outputs (%d) exceed inputs (%d)", outputValue, inputValue));
+			}
+
+			if(inputValue - outputValue > maxFee) {
+				throw new IllegalArgumentException(String.format("Fee (%d) exceeds the maximum fee (%d), change output missing?", inputValue - outputValue, maxFee));
+			}
+		}
+
+		Transaction sign() {
+			Transaction tx = new Transaction(params);
+
+			for(int i = 0; i < outputAddresses.size(); i++) {
+				tx.addOutput(Coin.valueOf(outputValues.get(i)), outputAddresses.get(i));
+			}
+
+			List<TransactionInput> txInputs = new ArrayList<>();
+			for(Input input : inputs) {
+				TransactionOutPoint outPoint = new TransactionOutPoint(params, input.vout, input.txid);
+				txInputs.add(tx.addInput(new TransactionInput(params, tx, new byte [0], outPoint, Coin.valueOf(input.value))));
+			}
+
+			// all inputs need to be present before the first signature hash is computed
+			for(int i = 0; i < inputs.size(); i++) {
+				// keys are derived here (in parallel) rather than while parsing
+				Address address = getAddress(inputs.get(i).chain, inputs.get(i).index);
+				ECKey key = address.getECKey();
+				Script scriptPubKey = ScriptBuilder.createOutputScript(address.getAddress());
+				TransactionSignature signature = tx.calculateSignature(i, key, scriptPubKey, Transaction.SigHash.ALL, false);
+				txInputs.get(i).setScriptSig(ScriptBuilder.createInputScript(signature, key));
+			}
+
+			return tx;
+		}
+	}
+
+	private static class Input {
+
+		private final Sha256Hash txid;
+		private final long vout;
+		private final long value;
+		private final int chain;
+		private final int index;
+
+		Input(String txid, long vout, long value, int chain, int index) {
+			if(value <= 0) {
+				throw new IllegalArgumentException("Input value must be positive but is " + value);
+			}
+
+			if(vout < 0) {
+				throw new IllegalArgumentException("Output index must not be negative but is " + vout);
+			}
+
+			if(chain < 0 || chain > 1 || index < 0 || (index & ChildNumber.HARDENED_BIT) != 0) {
+				throw new IllegalArgumentException(String.format("Invalid key chain %d index %d", chain, index));
+			}
+
+			this.txid = Sha256Hash.wrap(txid);
+			this.vout = vout;
+			this.value = value;
+			this.chain = chain;
+			this.index = index;
+		}
+	}
+}
@@ -6,6 +6,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.ProtocolFactory;
+import org.matthiaszimmermann.crypto.core.SeedContext;
 import org.matthiaszimmermann.crypto.core.Technology;
 import org.matthiaszimmermann.crypto.core.Wallet;
 
@@ -21,6 +22,14 @@ public class BitcoinWallet extends Wallet {
 		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Bitcoin, network));
 	}
 
+	public BitcoinWallet(List<String> mnemonicWords, String passPhrase, Network network, int accountCount) {
+		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Bitcoin, network), accountCount);
+	}
+
+	public BitcoinWallet(List<String> mnemonicWords, String passPhrase, Network network, int accountCount, SeedContext seeds) {
+		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Bitcoin, network), accountCount, seeds);
+	}
+
 	@Override
 	public String getSecretLabel() {
 		return SECRET_LABEL;
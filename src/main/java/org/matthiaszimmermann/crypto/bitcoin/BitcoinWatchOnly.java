@@ -0,0 +1,82 @@
+package org.matthiaszimmermann.crypto.bitcoin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.matthiaszimmermann.crypto.core.Network;
+
+/**
+ * Watch-only view of a BIP44 Bitcoin account created from the account xpub (extended public key for m/44'/0'/0').
+ * Receive and change addresses are derived by non-hardened public derivation only, no mnemonic, seed or private key
+ * is involved. Extended private keys are rejected.
+ */
+public class BitcoinWatchOnly {
+
+	private final Network network;
+	private final DeterministicKey accountKey;
+	private final List<Chain> chains;
+
+	public BitcoinWatchOnly(String xpub, Network network) {
+		if(xpub == null) {
+			throw new IllegalArgumentException("Extended public key must not be null");
+		}
+
+		NetworkParameters params = Bitcoin.getNetworkParameters(network);
+		DeterministicKey key = null;
+
+		try {
+			key = DeterministicKey.deserializeB58(xpub.trim(), params);
+		}
+		catch(Exception e) {
+			throw new IllegalArgumentException("Failed to parse extended public key: " + e.getMessage(), e);
+		}
+
+		if(key.hasPrivKey()) {
+			throw new IllegalArgumentException("Watch-only accounts require an extended public key (xpub), not an extended private key");
+		}
+
+		this.network = network;
+		this.accountKey = key;
+
+		List<Chain> chainList = new ArrayList<>();
+		chainList.add(new Chain(accountKey, true, network)); // receive chain
+		chainList.add(new Chain(accountKey, false, network)); // change chain
+		chains = Collections.unmodifiableList(chainList);
+	}
+
+	/**
+	 * Returns the account xpub this watch-only account was created from.
+	 */
+	public String getXpub() {
+		return accountKey.serializePubB58(Bitcoin.getNetworkParameters(network));
+	}
+
+	/**
+	 * Returns the fingerprint of the account key (first 4 bytes of hash160 of its public key) as hex string.
+	 */
+	public String getFingerprint() {
+		return String.format("%08x", accountKey.getFingerprint());
+	}
+
+	/**
+	 * Returns the receive and the change chain (in this order).
+	 */
+	public List<Chain> getChains() {
+		return chains;
+	}
+
+	public Chain getReceiveChain() {
+		return chains.get(0);
+	}
+
+	public Chain getChangeChain() {
+		return chains.get(1);
+	}
+
+	public Network getNetwork() {
+		return network;
+	}
+}
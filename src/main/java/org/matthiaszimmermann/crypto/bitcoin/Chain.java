@@ -1,8 +1,12 @@
 package org.matthiaszimmermann.crypto.bitcoin;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
 import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.crypto.ChildNumber;
 import org.bitcoinj.crypto.DeterministicKey;
-import org.bitcoinj.crypto.HDKeyDerivation;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -17,6 +21,7 @@ import org.matthiaszimmermann.crypto.core.Network;
 public class Chain {
 
     private DeterministicKey cKey = null;
+    private DeterministicKey pubKey = null;
     private boolean isReceive;
     private Network network = null;
 
@@ -36,7 +41,9 @@ public class Chain {
         this.network = network;
         this.isReceive = isReceive;
         int chain = isReceive ? 0 : 1;
-        cKey = HDKeyDerivation.deriveChildKey(aKey, chain);
+        cKey = DerivationCache.getInstance().deriveChildKey(aKey, chain);
+        // without private bytes and parent bitcoinj derives children from the public key only
+        pubKey = cKey.dropPrivateBytes().dropParent();
     }
 
     /**
@@ -59,6 +66,40 @@ public class Chain {
         return new Address(params, cKey, addrIdx);
     }
 
+    /**
+     * Return public address string at provided index into chain.
+     * Uses public-only derivation from the chain key, no private key is derived.
+     *
+     * @return String
+     *
+     */
+    public String getAddressStringAt(int addrIdx) {
+        NetworkParameters params = Bitcoin.getNetworkParameters(network);
+        DeterministicKey dk = DerivationCache.getInstance().deriveChildKey(pubKey, addrIdx);
+        return dk.toAddress(params).toString();
+    }
+
+    /**
+     * Return public address strings for the indexes [start, start + count) into chain.
+     * Addresses are derived in parallel using public-only derivation.
+     *
+     * @return List<String> addresses ordered by index
+     *
+     */
+    public List<String> getAddressStrings(int start, int count) {
+        if(start < 0 || count < 0 || (long) start + count > ChildNumber.HARDENED_BIT) {
+            throw new IllegalArgumentException(String.format("Invalid address range start %d count %d", start, count));
+        }
+
+        String [] addresses = new String[count];
+
+        IntStream.range(0, count)
+        .parallel()
+        .forEach(i -> addresses[i] = getAddressStringAt(start + i));
+
+        return Arrays.asList(addresses);
+    }
+
     /**
      * Return BIP44 path for this chain (m / purpose' / coin_type' / account' / chain).
      *
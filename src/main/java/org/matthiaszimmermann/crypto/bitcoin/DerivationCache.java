@@ -0,0 +1,174 @@
+package org.matthiaszimmermann.crypto.bitcoin;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.crypto.ChildNumber;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
+import org.bitcoinj.crypto.HDUtils;
+import org.bitcoinj.crypto.LazyECPoint;
+import org.matthiaszimmermann.crypto.utility.Secp256k1Utility;
+
+/**
+ * Bounded, thread safe LRU cache of public BIP32 derivation nodes.
+ * A node is keyed by the identifier of its parent (hash160 of the parent public key, i.e. the full form of the
+ * BIP32 fingerprint) and the child number. Repeated derivations below the same public parent, e.g. scanning the
+ * addresses of an account chain again and again, become map lookups.
+ * Children of private parents are derived on every call and never cached, the process wide cache must not keep
+ * private keys of the wallets it has seen. Callers keep the private nodes they reuse themselves, e.g. the
+ * {@link BitcoinKeyContext}.
+ * Derivation itself happens outside of the lock, concurrent misses for the same node may both derive it.
+ */
+public class DerivationCache {
+
+	public static final int CAPACITY_DEFAULT = 10000;
+
+	private static final DerivationCache INSTANCE = new DerivationCache(CAPACITY_DEFAULT);
+
+	private final int capacity;
+	private final Map<NodeKey, DeterministicKey> nodes;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public DerivationCache(int capacity) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("Cache capacity must be positive but is " + capacity);
+		}
+
+		this.capacity = capacity;
+		this.nodes = new LinkedHashMap<NodeKey, DeterministicKey>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<NodeKey, DeterministicKey> eldest) {
+				return size() > DerivationCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache shared by chains and addresses.
+	 */
+	public static DerivationCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the child of the provided parent. Children of public parents are cached, children of private parents
+	 * are always derived. Hardened children are specified by setting {@link ChildNumber#HARDENED_BIT}.
+	 */
+	public DeterministicKey deriveChildKey(DeterministicKey parent, int child) {
+		if(parent.hasPrivKey()) {
+			return derive(parent, new ChildNumber(child));
+		}
+
+		NodeKey key = new NodeKey(parent.getIdentifier(), child);
+		DeterministicKey node = null;
+
+		synchronized (nodes) {
+			node = nodes.get(key);
+		}
+
+		if(node != null) {
+			hits.incrementAndGet();
+			return node;
+		}
+
+		misses.incrementAndGet();
+		node = derive(parent, new ChildNumber(child));
+
+		synchronized (nodes) {
+			nodes.put(key, node);
+		}
+
+		return node;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public int size() {
+		synchronized (nodes) {
+			return nodes.size();
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("derivation cache: %d of %d nodes, %d hits, %d misses", size(), capacity, getHits(), getMisses());
+	}
+
+	/**
+	 * Removes all cached nodes and resets the hit and miss counters.
+	 */
+	public void clear() {
+		synchronized (nodes) {
+			nodes.clear();
+		}
+
+		hits.set(0);
+		misses.set(0);
+	}
+
+	/**
+	 * Private children get their public key from the fixed-base table of {@link Secp256k1Utility},
+	 * public children are derived by bitcoinj.
+	 */
+	private static DeterministicKey derive(DeterministicKey parent, ChildNumber childNumber) {
+		if(!parent.hasPrivKey()) {
+			return HDKeyDerivation.deriveChildKey(parent, childNumber);
+		}
+
+		HDKeyDerivation.RawKeyBytes raw = HDKeyDerivation.deriveChildKeyBytesFromPrivate(parent, childNumber);
+		BigInteger privateKey = new BigInteger(1, raw.keyBytes);
+		byte [] publicKey = Secp256k1Utility.publicKey(privateKey, true);
+
+		return new DeterministicKey(
+				HDUtils.append(parent.getPath(), childNumber), 
+				raw.chainCode, 
+				new LazyECPoint(ECKey.CURVE.getCurve(), publicKey), 
+				privateKey, 
+				parent);
+	}
+
+	private static final class NodeKey {
+		private final byte [] parent;
+		private final int child;
+		private final int hash;
+
+		NodeKey(byte [] parent, int child) {
+			this.parent = parent;
+			this.child = child;
+			this.hash = 31 * Arrays.hashCode(parent) + child;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof NodeKey)) {
+				return false;
+			}
+
+			NodeKey other = (NodeKey) obj;
+			return child == other.child && Arrays.equals(parent, other.parent);
+		}
+	}
+}
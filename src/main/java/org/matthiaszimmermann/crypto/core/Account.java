@@ -36,13 +36,30 @@ public abstract class Account {
 	public Account(JSONObject node, String passPhrase, Protocol protocol) throws JSONException {
 		this(passPhrase, protocol);
 		
-		processAddress(node);
-		processSecret(node);
+		restore(node);
 	}
 
 	public abstract String deriveSecret(List<String> menmonicWords, String passPhrase);
 	
 	public abstract String deriveAddress(String secret, Network network);
+
+	/**
+	 * Restores and verifies address and secret from the provided json node.
+	 * Subclasses with additional state use {@link #Account(String, Protocol)} and call this method from their
+	 * constructor once their own fields are initialized.
+	 */
+	protected void restore(JSONObject node) throws JSONException {
+		processAddress(node);
+		processSecret(node);
+	}
+
+	/**
+	 * Returns the address for the provided secret when restoring the account from the provided json node.
+	 * Accounts that depend on more than the secret (e.g. an account index) read these attributes from the node.
+	 */
+	protected String deriveAddress(JSONObject node, String secret, Network network) {
+		return deriveAddress(secret, network);
+	}
 	
 	/**
 	 * Sets pass phrase member variable and converts a null value into an empty string.
@@ -100,7 +117,7 @@ public abstract class Account {
 			secret = node.getString(JSON_SECRET);
 		}
 		
-		String addressExpected = deriveAddress(secret, getNetwork());
+		String addressExpected = deriveAddress(node, secret, getNetwork());
 		if(!address.equals(addressExpected)) {
 			throw new IllegalArgumentException(
 					String.format("Address verification failure. Expected '%s' but found '%s'", addressExpected, address));
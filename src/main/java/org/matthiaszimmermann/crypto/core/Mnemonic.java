@@ -1,6 +1,7 @@
 package org.matthiaszimmermann.crypto.core;
 
 import java.io.IOException;
+import java.text.Normalizer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -8,10 +9,15 @@ import org.bitcoinj.crypto.MnemonicCode;
 import org.bitcoinj.crypto.MnemonicException.MnemonicChecksumException;
 import org.bitcoinj.crypto.MnemonicException.MnemonicLengthException;
 import org.bitcoinj.crypto.MnemonicException.MnemonicWordException;
+import org.matthiaszimmermann.crypto.utility.Pbkdf2Utility;
 
 /**
  */
 public class Mnemonic {
+
+	public static final String SEED_SALT_PREFIX = "mnemonic";
+	public static final int SEED_ROUNDS = 2048;
+	public static final int SEED_LENGTH = 64;
 	
 	/**
 	 * Converts entropy data to mnemonic word list.
@@ -19,8 +25,7 @@ public class Mnemonic {
 	 */
 	public static List<String> deriveWords(byte [] entropy) {
 		try {
-			MnemonicCode mc = new MnemonicCode();
-			List<String> words = mc.toMnemonic(entropy);
+			List<String> words = getMnemonicCode().toMnemonic(entropy);
 			return words;
 		} 
 		catch (Exception e) {
@@ -34,15 +39,24 @@ public class Mnemonic {
 	 */
 	public static byte [] deriveEntropy(List<String> mnemonicWords) throws IOException, MnemonicLengthException, MnemonicWordException, MnemonicChecksumException {
 		try {
-		MnemonicCode mc = new MnemonicCode();
-		byte [] entropy = mc.toEntropy(mnemonicWords);
-		return entropy;
+			return getMnemonicCode().toEntropy(mnemonicWords);
 		} 
 		catch (Exception e) {
 			throw new RuntimeException("Failed to derive entropy from mnemonic words", e);
 		}
 	}
 	
+	/**
+	 * Converts the mnemonic word list into the 64 byte BIP39 seed (PBKDF2-HMAC-SHA512, 2048 rounds).
+	 * Does not validate the words, see {@link #deriveEntropy(List)}.
+	 */
+	public static byte [] toSeed(List<String> mnemonicWords, String passPhrase) {
+		String password = Normalizer.normalize(convert(mnemonicWords), Normalizer.Form.NFKD);
+		String salt = Normalizer.normalize(SEED_SALT_PREFIX + (passPhrase == null ? "" : passPhrase), Normalizer.Form.NFKD);
+
+		return Pbkdf2Utility.deriveSha512(password, salt, SEED_ROUNDS, SEED_LENGTH);
+	}
+
 	/**
 	 * Concatenates words to a space separated string.
 	 */
@@ -50,6 +64,11 @@ public class Mnemonic {
 		return words == null ? "" : String.join(" ", words);
 	}
 	
+	// the word list is loaded and verified once by bitcoinj
+	private static MnemonicCode getMnemonicCode() throws IOException {
+		return MnemonicCode.INSTANCE != null ? MnemonicCode.INSTANCE : new MnemonicCode();
+	}
+
 	/**
 	 * Separates a sentence of space separated words into a list of its individual words.
 	 */
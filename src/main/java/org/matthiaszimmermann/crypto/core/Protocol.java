@@ -1,5 +1,6 @@
 package org.matthiaszimmermann.crypto.core;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.json.JSONObject;
@@ -16,11 +17,52 @@ public abstract class Protocol {
 	}
 
 	abstract public Wallet createWallet(List<String> mnemonicWords, String passPhase);
+	abstract public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount);
 	abstract public Wallet restoreWallet(JSONObject walletJson, String passPhrase);
 
+	/**
+	 * Creates a wallet whose BIP39 seed is taken from the provided context, e.g. to compute the seed only once for 
+	 * wallets of several technologies created from the same mnemonic. Protocols without a BIP39 seed ignore the context.
+	 */
+	public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount, SeedContext seeds) {
+		return createWallet(mnemonicWords, passPhase, accountCount);
+	}
+
 	abstract public Account createAccount(List<String> mnemonicWords, String passPhrase, Network network);
+
+	/**
+	 * Creates the accounts 0..count-1 of the provided mnemonic. The mnemonic KDF runs only once for all accounts.
+	 */
+	abstract public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count);
 	abstract public Account restoreAccount(JSONObject accountJson, String passPhrase);
 
+	/**
+	 * Creates the accounts 0..count-1 with the BIP39 seed of the provided context, see {@link #createWallet(List, String, int, SeedContext)}.
+	 */
+	public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count, SeedContext seeds) {
+		if(count == 1) {
+			return Collections.singletonList(createAccount(mnemonicWords, passPhrase, getNetwork()));
+		}
+
+		return createAccounts(mnemonicWords, passPhrase, count);
+	}
+
+	/**
+	 * Restores a further account of a multi account wallet whose first account is already restored. 
+	 * Protocols with a mnemonic KDF reuse the derivations of the first account.
+	 */
+	public Account restoreAccount(JSONObject accountJson, String passPhrase, Account first) {
+		return restoreAccount(accountJson, passPhrase);
+	}
+
+	/**
+	 * Returns the address of the first account of the provided mnemonic without creating the account, e.g. to check 
+	 * vanity search candidates. Protocols with account state (chains, key stores) derive the address directly.
+	 */
+	public String deriveAddress(List<String> mnemonicWords, String passPhrase) {
+		return createAccount(mnemonicWords, passPhrase, getNetwork()).getAddress();
+	}
+
 	abstract public void validateMnemonicWords(List<String> mnemonicWords);
 	
 	public List<String> generateMnemonicWords() {
@@ -28,6 +70,12 @@ public abstract class Protocol {
 		return Mnemonic.deriveWords(entropy);
 	}
 
+	protected void checkAccountCount(int count) {
+		if(count < 1) {
+			throw new IllegalArgumentException("Number of accounts must be positive but is " + count);
+		}
+	}
+
 	private void processNetwork(Network n) {
 		if(n == null) {
 			throw new IllegalArgumentException("Network must not be null");
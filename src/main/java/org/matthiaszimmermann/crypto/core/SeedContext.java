@@ -0,0 +1,67 @@
+package org.matthiaszimmermann.crypto.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The BIP39 seeds of a mnemonic, each seed is computed at most once per pass phrase.
+ * A context is passed to {@link Protocol#createWallet(List, String, int, SeedContext)} to let wallets of several
+ * technologies created concurrently from the same mnemonic share the 2048 rounds of PBKDF2. 
+ * Closing the context wipes the seeds.
+ * <pre>
+ * try(SeedContext seeds = new SeedContext(mnemonicWords)) {
+ *     // create wallets
+ * }
+ * </pre>
+ */
+public class SeedContext implements AutoCloseable {
+
+	private final List<String> mnemonicWords;
+	private final Map<String, byte []> seeds = new ConcurrentHashMap<>();
+	private final AtomicInteger computations = new AtomicInteger();
+
+	public SeedContext(List<String> mnemonicWords) {
+		if(mnemonicWords == null || mnemonicWords.isEmpty()) {
+			throw new IllegalArgumentException("Mnemonic words must not be null or empty");
+		}
+
+		this.mnemonicWords = mnemonicWords;
+	}
+
+	/**
+	 * Returns the BIP39 seed for the provided pass phrase. Concurrent callers for the same pass phrase wait for
+	 * a single computation.
+	 */
+	public byte [] getSeed(String passPhrase) {
+		String key = passPhrase == null ? "" : passPhrase;
+		byte [] seed = seeds.computeIfAbsent(key, p -> {
+			computations.incrementAndGet();
+			return Mnemonic.toSeed(mnemonicWords, p);
+		});
+
+		return seed.clone();
+	}
+
+	/**
+	 * Returns the number of seeds computed in this context.
+	 */
+	public int getSeedComputations() {
+		return computations.get();
+	}
+
+	public List<String> getMnemonicWords() {
+		return mnemonicWords;
+	}
+
+	@Override
+	public void close() {
+		for(byte [] seed : seeds.values()) {
+			Arrays.fill(seed, (byte) 0);
+		}
+
+		seeds.clear();
+	}
+}
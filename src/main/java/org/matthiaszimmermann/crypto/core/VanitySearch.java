@@ -0,0 +1,254 @@
+package org.matthiaszimmermann.crypto.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Parallel search for a wallet whose address starts with a given prefix (vanity address).
+ * Every candidate is a fresh random mnemonic whose first address is derived with
+ * {@link Protocol#deriveAddress(List, String)}, i.e. without building the account, so a match can be turned into a
+ * normal wallet with {@link Protocol#createWallet(List, String)} using the same pass phrase.
+ * Bitcoin patterns are case sensitive base58 and include the leading '1' of production addresses, Ethereum patterns
+ * are case insensitive hex with or without '0x' prefix.
+ */
+public class VanitySearch {
+
+	public static final String BASE58_ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+	public static final String HEX_ALPHABET = "0123456789abcdef";
+	public static final String ETHEREUM_PREFIX = "0x";
+
+	// hash160 (20 bytes) and checksum (4 bytes) of a Bitcoin address, the version byte is the leading '1'
+	public static final int BITCOIN_PAYLOAD_BYTES = 24;
+
+	public static final long PROGRESS_INTERVAL_MILLIS = 10000;
+
+	private final Protocol protocol;
+	private final String passPhrase;
+	private final String prefix;
+	private final int threads;
+
+	private final LongAdder candidates = new LongAdder();
+	private final AtomicReference<List<String>> match = new AtomicReference<>();
+	private volatile boolean cancelled = false;
+	private Consumer<VanitySearch> progressListener = null;
+	private long startNanos = 0;
+
+	public VanitySearch(Protocol protocol, String pattern, String passPhrase, int threads) {
+		if(protocol == null) {
+			throw new IllegalArgumentException("Protocol must not be null");
+		}
+
+		if(threads < 1) {
+			throw new IllegalArgumentException(String.format("Invalid number of threads %d", threads));
+		}
+
+		this.protocol = protocol;
+		this.passPhrase = passPhrase;
+		this.prefix = processPattern(protocol, pattern);
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets a listener that is called from the searching thread every {@link #PROGRESS_INTERVAL_MILLIS}.
+	 */
+	public void setProgressListener(Consumer<VanitySearch> listener) {
+		progressListener = listener;
+	}
+
+	/**
+	 * Searches until a matching address is found.
+	 * @return the mnemonic words of the matching wallet or null if the search has been cancelled
+	 */
+	public List<String> search() {
+		cancelled = false;
+		match.set(null);
+		candidates.reset();
+		startNanos = System.nanoTime();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> workers = new ArrayList<>();
+
+		try {
+			for(int i = 0; i < threads; i++) {
+				workers.add(executor.submit(this::searchCandidates));
+			}
+
+			executor.shutdown();
+
+			while(!executor.awaitTermination(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+				if(progressListener != null) {
+					progressListener.accept(this);
+				}
+			}
+
+			// surfaces exceptions of the workers
+			for(Future<?> worker : workers) {
+				worker.get();
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Vanity search interrupted", e);
+		}
+		catch(Exception e) {
+			throw new RuntimeException("Vanity search failed", e);
+		}
+		finally {
+			cancelled = true;
+			executor.shutdownNow();
+		}
+
+		return match.get();
+	}
+
+	private void searchCandidates() {
+		while(!cancelled && match.get() == null) {
+			List<String> mnemonicWords = protocol.generateMnemonicWords();
+			String address = protocol.deriveAddress(mnemonicWords, passPhrase);
+			candidates.increment();
+
+			if(matches(address)) {
+				match.compareAndSet(null, mnemonicWords);
+			}
+		}
+	}
+
+	/**
+	 * Returns true iff the provided address starts with the pattern of this search.
+	 */
+	public boolean matches(String address) {
+		if(protocol.getTechnology() == Technology.Ethereum) {
+			return address.toLowerCase().startsWith(prefix);
+		}
+
+		return address.startsWith(prefix);
+	}
+
+	/**
+	 * Stops a running search, {@link #search()} then returns null unless a match has already been found.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns the expected number of candidates to check for a match (1 / probability of a random address to match).
+	 * For Bitcoin the probability is computed from the 24 bytes (hash160 and checksum) after the version byte:
+	 * each leading '1' after the first one is a zero byte and the remaining characters are the base58 prefix of the
+	 * number that follows the zero bytes.
+	 */
+	public double getDifficulty() {
+		if(protocol.getTechnology() == Technology.Ethereum) {
+			return Math.pow(HEX_ALPHABET.length(), prefix.length() - ETHEREUM_PREFIX.length());
+		}
+
+		int zeroBytes = 0;
+
+		while(zeroBytes + 1 < prefix.length() && prefix.charAt(zeroBytes + 1) == '1') {
+			zeroBytes++;
+		}
+
+		String rest = prefix.substring(zeroBytes + 1);
+		double probability = Math.pow(256.0, -zeroBytes);
+
+		if(rest.isEmpty()) {
+			return 1.0 / probability;
+		}
+
+		// the byte after the zero bytes is not zero, the number that follows is in [lo, hi)
+		int bytes = BITCOIN_PAYLOAD_BYTES - zeroBytes;
+		double lo = Math.pow(2.0, 8 * (bytes - 1));
+		double hi = Math.pow(2.0, 8 * bytes);
+		double value = 0.0;
+
+		for(char c : rest.toCharArray()) {
+			value = value * BASE58_ALPHABET.length() + BASE58_ALPHABET.indexOf(c);
+		}
+
+		// numbers whose base58 form starts with rest, for every possible number of remaining characters
+		double matching = 0.0;
+
+		for(double scale = 1.0; value * scale < hi; scale *= BASE58_ALPHABET.length()) {
+			double start = Math.max(value * scale, lo);
+			double end = Math.min((value + 1.0) * scale, hi);
+			matching += Math.max(0.0, end - start);
+		}
+
+		probability *= (1.0 - 1.0 / 256.0) * matching / (hi - lo);
+
+		return probability > 0 ? 1.0 / probability : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the expected time in seconds to find a match at the current key rate.
+	 */
+	public double getEstimatedSeconds() {
+		double rate = getKeyRate();
+		return rate > 0 ? getDifficulty() / rate : Double.POSITIVE_INFINITY;
+	}
+
+	public long getCandidateCount() {
+		return candidates.sum();
+	}
+
+	/**
+	 * Returns the number of checked candidates (keys) per second of the current or last search.
+	 */
+	public double getKeyRate() {
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		return startNanos > 0 && seconds > 0 ? getCandidateCount() / seconds : 0.0;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	private static String processPattern(Protocol protocol, String pattern) {
+		if(pattern == null || pattern.isEmpty()) {
+			throw new IllegalArgumentException("Vanity pattern must not be null or empty");
+		}
+
+		switch(protocol.getTechnology()) {
+		case Bitcoin:
+			// test network addresses start with 'm' or 'n', the pattern and the difficulty assume version byte 0
+			if(protocol.getNetwork() != Network.Production) {
+				throw new IllegalArgumentException(String.format("Bitcoin vanity search is only supported for %s addresses", Network.Production));
+			}
+
+			if(pattern.charAt(0) != '1') {
+				throw new IllegalArgumentException("Bitcoin vanity pattern must start with '1': " + pattern);
+			}
+
+			checkAlphabet(pattern, BASE58_ALPHABET);
+			return pattern;
+
+		case Ethereum:
+			String hex = pattern.toLowerCase();
+
+			if(hex.startsWith(ETHEREUM_PREFIX)) {
+				hex = hex.substring(ETHEREUM_PREFIX.length());
+			}
+
+			checkAlphabet(hex, HEX_ALPHABET);
+			return ETHEREUM_PREFIX + hex;
+
+		default:
+			throw new IllegalArgumentException(String.format("Vanity search is not supported for %s", protocol.getTechnology()));
+		}
+	}
+
+	private static void checkAlphabet(String pattern, String alphabet) {
+		for(char c : pattern.toCharArray()) {
+			if(alphabet.indexOf(c) < 0) {
+				throw new IllegalArgumentException(String.format("Invalid character '%c' in vanity pattern %s", c, pattern));
+			}
+		}
+	}
+}
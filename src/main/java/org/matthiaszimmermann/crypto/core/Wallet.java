@@ -1,8 +1,12 @@
 package org.matthiaszimmermann.crypto.core;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -11,6 +15,7 @@ public abstract class Wallet {
 	public static final String JSON_VERSION = "version";
 	public static final String JSON_VERSION_VALUE = "1.0";
 	public static final String JSON_ACCOUNT = "account";
+	public static final String JSON_ACCOUNTS = "accounts";
 
 	public static final String JSON_TECHNOLOGY = "technology";
 	public static final String JSON_NETWORK = "network";
@@ -24,6 +29,7 @@ public abstract class Wallet {
 	private List<String> mnemonicWords = null;
 	private String passPhrase = null;
 	protected Account account = null;
+	protected List<Account> accounts = null;
 
 	protected Wallet(List<String> mnemonicWords, String passPhrase, Protocol protocol) {
 		processProtocol(protocol);
@@ -31,8 +37,58 @@ public abstract class Wallet {
 
 		this.passPhrase = passPhrase;
 		account = protocol.createAccount(mnemonicWords, passPhrase, protocol.getNetwork());
+		accounts = Collections.singletonList(account);
+	}
+
+	/**
+	 * Creates a wallet with the accounts 0..accountCount-1 of the provided mnemonic, see {@link Protocol#createAccounts(List, String, int)}.
+	 * A single account wallet is identical to a wallet created with {@link #Wallet(List, String, Protocol)}.
+	 */
+	protected Wallet(List<String> mnemonicWords, String passPhrase, Protocol protocol, int accountCount) {
+		processProtocol(protocol);
+		processMnemonicWords(mnemonicWords, protocol);
+
+		this.passPhrase = passPhrase;
+
+		if(accountCount == 1) {
+			account = protocol.createAccount(getMnemonicWords(), passPhrase, protocol.getNetwork());
+			accounts = Collections.singletonList(account);
+		}
+		else {
+			accounts = protocol.createAccounts(getMnemonicWords(), passPhrase, accountCount);
+			account = accounts.get(0);
+		}
 	}
 	
+	/**
+	 * Creates a wallet with the accounts 0..accountCount-1 of the provided mnemonic, the BIP39 seed is taken from the 
+	 * provided context, see {@link Protocol#createAccounts(List, String, int, SeedContext)}.
+	 */
+	protected Wallet(List<String> mnemonicWords, String passPhrase, Protocol protocol, int accountCount, SeedContext seeds) {
+		processProtocol(protocol);
+		processMnemonicWords(mnemonicWords, protocol);
+
+		this.passPhrase = passPhrase;
+		accounts = protocol.createAccounts(getMnemonicWords(), passPhrase, accountCount, seeds);
+		account = accounts.get(0);
+	}
+
+	/**
+	 * Creates a single account wallet for an already created or restored account, e.g. an imported key store.
+	 * Such a wallet has no mnemonic words.
+	 */
+	protected Wallet(Account account) {
+		if(account == null) {
+			throw new IllegalArgumentException("Account must not be null");
+		}
+
+		processProtocol(account.getProtocol());
+
+		this.passPhrase = account.getPassPhrase();
+		this.account = account;
+		accounts = Collections.singletonList(account);
+	}
+
 	public Wallet(JSONObject walletJson, String passPhrase) throws JSONException {
 		validateWalletJson(walletJson);
 		
@@ -41,6 +97,20 @@ public abstract class Wallet {
 
 		this.passPhrase = passPhrase;
 		account = protocol.restoreAccount(accountJson, passPhrase);
+		accounts = Collections.singletonList(account);
+
+		// the first entry of a multi account wallet is the account itself
+		if(walletJson.has(JSON_ACCOUNTS)) {
+			JSONArray accountsJson = walletJson.getJSONArray(JSON_ACCOUNTS);
+			Account [] restored = new Account[accountsJson.length()];
+			restored[0] = account;
+
+			IntStream.range(1, restored.length)
+			.parallel()
+			.forEach(i -> restored[i] = protocol.restoreAccount(accountsJson.optJSONObject(i), passPhrase, account));
+
+			accounts = Arrays.asList(restored);
+		}
 	}
 
 	// TODO remove/cleanup
@@ -94,6 +164,13 @@ public abstract class Wallet {
 		return account;
 	}
 
+	/**
+	 * Returns all accounts of this wallet, the first one is {@link #getAccount()}.
+	 */
+	public List<Account> getAccounts() {
+		return accounts;
+	}
+
 	public String getPathToDirectory() {
 		return pathToDirectory;
 	}
@@ -146,7 +223,21 @@ public abstract class Wallet {
 			}
 
 			boolean includeProtocolInfo = false;
-			obj.put(JSON_ACCOUNT, getAccount().toJson(includeProtocolInfo));
+
+			if(accounts == null || accounts.size() <= 1) {
+				obj.put(JSON_ACCOUNT, getAccount().toJson(includeProtocolInfo));
+			}
+			else {
+				// accounts (e.g. ethereum key stores) are converted in parallel
+				JSONObject [] accountsJson = new JSONObject[accounts.size()];
+
+				IntStream.range(0, accountsJson.length)
+				.parallel()
+				.forEach(i -> accountsJson[i] = accounts.get(i).toJson(includeProtocolInfo));
+
+				obj.put(JSON_ACCOUNT, accountsJson[0]);
+				obj.put(JSON_ACCOUNTS, new JSONArray(Arrays.asList(accountsJson)));
+			}
 
 			return obj;
 		}
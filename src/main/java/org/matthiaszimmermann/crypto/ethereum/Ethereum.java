@@ -1,19 +1,34 @@
 package org.matthiaszimmermann.crypto.ethereum;
 
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
+import org.bitcoinj.crypto.ChildNumber;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
+import org.bouncycastle.math.ec.ECPoint;
 import org.json.JSONObject;
+import org.matthiaszimmermann.crypto.bitcoin.DerivationCache;
 import org.matthiaszimmermann.crypto.core.Account;
+import org.matthiaszimmermann.crypto.core.Mnemonic;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.Protocol;
+import org.matthiaszimmermann.crypto.core.SeedContext;
 import org.matthiaszimmermann.crypto.core.Technology;
 import org.matthiaszimmermann.crypto.core.Wallet;
+import org.matthiaszimmermann.crypto.utility.Secp256k1Utility;
 
 public class Ethereum extends Protocol {
 
 	public static final int MNEMONIC_LENGTH_MIN = 12;
 	public static final int MNEMONIC_LENGTH_MAX = 24;
 
+	public static final int BIP44_PURPOSE = 44;
+	public static final int BIP44_COIN_TYPE = 60;
+	public static final String BIP44_PATH_FORMAT = "m/44'/60'/%d'/%d/%d";
+
 	public Ethereum(Network network) {
 		super(Technology.Ethereum, network);
 	}
@@ -56,6 +71,18 @@ public class Ethereum extends Protocol {
 		return new EthereumWallet(mnemonicWords, passPhase, getNetwork());
 	}
 
+	@Override
+	public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount) {
+		validateMnemonicWords(mnemonicWords);
+		return new EthereumWallet(mnemonicWords, passPhase, getNetwork(), accountCount);
+	}
+
+	@Override
+	public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount, SeedContext seeds) {
+		validateMnemonicWords(mnemonicWords);
+		return new EthereumWallet(mnemonicWords, passPhase, getNetwork(), accountCount, seeds);
+	}
+
 	@Override
 	public Wallet restoreWallet(JSONObject walletJson, String passPhrase) {
 		try {
@@ -72,6 +99,121 @@ public class Ethereum extends Protocol {
 		return new EthereumAccount(mnemonicWords, passPhrase, network);
 	}
 
+	/**
+	 * Creates the accounts 0..count-1 from the BIP39 seed (mnemonic and pass phrase).
+	 * Account 0 is the account of a single account wallet (sha256 hash of the seed), so the primary address and the
+	 * wallet file name do not depend on the number of accounts. The further accounts i are the BIP44 accounts
+	 * m/44'/60'/i'/0/0. The seed is derived once and the accounts are derived in parallel.
+	 */
+	@Override
+	public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count) {
+		validateMnemonicWords(mnemonicWords);
+		checkAccountCount(count);
+
+		return createAccounts(mnemonicWords, passPhrase, count, Mnemonic.toSeed(mnemonicWords, passPhrase));
+	}
+
+	/**
+	 * Creates the accounts 0..count-1 with the BIP39 seed of the provided context. Mnemonics and pass phrases that are
+	 * not normalized have no BIP39 seed for account 0 (web3j does not normalize), such accounts are created without the context.
+	 */
+	@Override
+	public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count, SeedContext seeds) {
+		validateMnemonicWords(mnemonicWords);
+		checkAccountCount(count);
+
+		if(!EthereumAccount.hasBip39Seed(mnemonicWords, passPhrase)) {
+			return super.createAccounts(mnemonicWords, passPhrase, count, seeds);
+		}
+
+		return createAccounts(mnemonicWords, passPhrase, count, seeds.getSeed(passPhrase));
+	}
+
+	private List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count, byte [] seed) {
+		DeterministicKey coinKey = count > 1 ? deriveCoinKey(seed) : null;
+		Account [] accounts = new Account[count];
+
+		accounts[0] = EthereumAccount.hasBip39Seed(mnemonicWords, passPhrase) 
+				? new EthereumAccount(EthereumAccount.toPrivateKey(seed), passPhrase, getNetwork())
+				: new EthereumAccount(mnemonicWords, passPhrase, getNetwork());
+
+		IntStream.range(1, count)
+		.parallel()
+		.forEach(i -> accounts[i] = new EthereumAccount(derivePrivateKey(coinKey, i, 0, 0), passPhrase, getNetwork()));
+
+		return Arrays.asList(accounts);
+	}
+
+	/**
+	 * Returns the BIP44 coin key m/44'/60' for the provided BIP39 seed.
+	 */
+	public static DeterministicKey deriveCoinKey(byte [] seed) {
+		DerivationCache cache = DerivationCache.getInstance();
+		DeterministicKey masterKey = HDKeyDerivation.createMasterPrivateKey(seed);
+		DeterministicKey purposeKey = cache.deriveChildKey(masterKey, BIP44_PURPOSE | ChildNumber.HARDENED_BIT);
+
+		return cache.deriveChildKey(purposeKey, BIP44_COIN_TYPE | ChildNumber.HARDENED_BIT);
+	}
+
+	/**
+	 * Returns the private key for m/44'/60'/account'/change/index below the provided coin key.
+	 */
+	public static BigInteger derivePrivateKey(DeterministicKey coinKey, int account, int change, int index) {
+		DerivationCache cache = DerivationCache.getInstance();
+		DeterministicKey accountKey = cache.deriveChildKey(coinKey, account | ChildNumber.HARDENED_BIT);
+		DeterministicKey changeKey = cache.deriveChildKey(accountKey, change);
+
+		return new BigInteger(1, cache.deriveChildKey(changeKey, index).getPrivKeyBytes());
+	}
+
+	/**
+	 * Derives the addresses of the standard path m/44'/60'/0'/0/i for i in [start, start + count) with a single
+	 * BIP39 seed computation, see {@link #deriveAddresses(DeterministicKey, int, int, int, boolean)}.
+	 * This is independent of the (legacy) key of single account wallets, see {@link EthereumAccount#deriveSecret(List, String)}.
+	 */
+	public static List<String> deriveAddresses(List<String> mnemonicWords, String passPhrase, int start, int count) {
+		return deriveAddresses(deriveCoinKey(Mnemonic.toSeed(mnemonicWords, passPhrase)), 0, start, count, false);
+	}
+
+	/**
+	 * Derives the addresses m/44'/60'/account'/0/i for i in [start, start + count) below the provided coin key.
+	 * The account and chain keys are derived once. Child keys and public keys (fixed-base table) are computed
+	 * in parallel, the public keys are normalized with a single shared inversion and hashed (Keccak-256) in parallel.
+	 * Leaf keys are derived directly from the raw key bytes, no intermediate {@link DeterministicKey} is created.
+	 * @param checksum returns mixed case (EIP-55) addresses iff true, lower case addresses otherwise
+	 * @return the addresses (hex with 0x prefix) ordered by index
+	 */
+	public static List<String> deriveAddresses(DeterministicKey coinKey, int account, int start, int count, boolean checksum) {
+		if(start < 0 || count < 0 || (long) start + count > ChildNumber.HARDENED_BIT) {
+			throw new IllegalArgumentException(String.format("Invalid address range start %d count %d", start, count));
+		}
+
+		DerivationCache cache = DerivationCache.getInstance();
+		DeterministicKey accountKey = cache.deriveChildKey(coinKey, account | ChildNumber.HARDENED_BIT);
+		DeterministicKey chainKey = cache.deriveChildKey(accountKey, 0);
+
+		ECPoint [] points = new ECPoint[count];
+
+		IntStream.range(0, count)
+		.parallel()
+		.forEach(i -> {
+			HDKeyDerivation.RawKeyBytes raw = HDKeyDerivation.deriveChildKeyBytesFromPrivate(chainKey, new ChildNumber(start + i, false));
+			points[i] = Secp256k1Utility.multiplyG(new BigInteger(1, raw.keyBytes));
+		});
+
+		ECPoint [] normalized = Secp256k1Utility.normalizeAll(points);
+		String [] addresses = new String[count];
+
+		IntStream.range(0, count)
+		.parallel()
+		.forEach(i -> {
+			byte [] publicKey = normalized[i].getEncoded(false);
+			addresses[i] = checksum ? EthereumAddress.fromPublicKeyChecksum(publicKey) : EthereumAddress.fromPublicKey(publicKey);
+		});
+
+		return Arrays.asList(addresses);
+	}
+
 	@Override
 	public Account restoreAccount(JSONObject accountJson, String passPhrase) {
 		return new EthereumAccount(accountJson, passPhrase, getNetwork());
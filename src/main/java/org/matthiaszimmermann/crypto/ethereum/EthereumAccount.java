@@ -1,13 +1,16 @@
 package org.matthiaszimmermann.crypto.ethereum;
 
 import java.math.BigInteger;
+import java.text.Normalizer;
 import java.util.List;
 
 import org.json.JSONObject;
 import org.matthiaszimmermann.crypto.core.Account;
+import org.matthiaszimmermann.crypto.core.Mnemonic;
 import org.matthiaszimmermann.crypto.core.Network;
+import org.matthiaszimmermann.crypto.utility.KdfScheduler;
+import org.matthiaszimmermann.crypto.utility.Secp256k1Utility;
 import org.web3j.crypto.CipherException;
-import org.web3j.crypto.Credentials;
 import org.web3j.crypto.ECKeyPair;
 import org.web3j.crypto.Hash;
 import org.web3j.crypto.MnemonicUtils;
@@ -30,26 +33,56 @@ public class EthereumAccount extends Account {
 		objectMapper.registerModule(new JsonOrgModule());	
 	}
 
+	// no initializers: the super constructors run before field initialization
+	private KeystoreProfile keystoreProfile;
+	private WalletFile keystore;
+
 	public EthereumAccount(List<String> mnemonicWords, String passPhrase, Network network) {
 		super(mnemonicWords, passPhrase, new Ethereum(network));
+		keystoreProfile = KeystoreProfile.getDefault();
 	}
 	
+	/**
+	 * Constructor for an account with the provided private key, e.g. a BIP44 account of a multi account wallet.
+	 */
+	public EthereumAccount(BigInteger privateKey, String passPhrase, Network network) {
+		super(passPhrase, new Ethereum(network));
+
+		// jaxx wallet does not like private key with prefix
+		setSecret(Numeric.toHexStringNoPrefix(privateKey));
+		setAddress(deriveAddress(getSecret(), network));
+		keystoreProfile = KeystoreProfile.getDefault();
+	}
+
 	public EthereumAccount(JSONObject accountJson, String passPhrase, Network network) {
 		super(passPhrase, new Ethereum(network));
 		
 		WalletFile walletFile = objectMapper.convertValue(accountJson, WalletFile.class);
 		
+		KdfScheduler scheduler = KdfScheduler.getInstance();
+		long memory = KeystoreProfile.getMemory(walletFile);
+
+		// key stores larger than the budget run alone, only those that can never fit into the heap are rejected
+		if(memory > Runtime.getRuntime().maxMemory()) {
+			throw new IllegalArgumentException(String.format("Key store needs %d MB for scrypt, the maximum heap is %d MB", 
+					memory / (1024 * 1024), Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+		}
+
 		try {
-			Credentials credentials = Credentials.create(Wallet.decrypt(passPhrase, walletFile));
-			ECKeyPair keyPair = credentials.getEcKeyPair();
+			KeystoreProfile profile = KeystoreProfile.of(walletFile);
+			ECKeyPair keyPair = scheduler.execute(memory, () -> Wallet.decrypt(passPhrase, walletFile));
 			BigInteger privateKey = keyPair.getPrivateKey();
 			
 			// jaxx wallet does not like private key with prefix
 			setSecret(Numeric.toHexStringNoPrefix(privateKey));
-		    setAddress(credentials.getAddress());
+		    setAddress(deriveAddress(getSecret(), network));
+
+		    // the decrypted key store is kept, serializing the restored account needs no new encryption
+		    keystore = walletFile;
+		    keystoreProfile = profile;
 		} 
 		catch (CipherException e) {
-			throw new RuntimeException("Failed to create credentials from provided wallet json");
+			throw new RuntimeException("Failed to create credentials from provided wallet json", e);
 		}		
 	}
 	
@@ -61,12 +94,32 @@ public class EthereumAccount extends Account {
 	@Override 
 	public String deriveSecret(List<String> mnemonicWords, String passPhrase) {
 		String mnemonic = String.join(" ", mnemonicWords);
-		byte [] seed = MnemonicUtils.generateSeed(mnemonic, passPhrase);
-		byte [] privateKeyBytes = Hash.sha256(seed);
-		ECKeyPair keyPair = ECKeyPair.create(privateKeyBytes);
+
+		// web3j does not normalize mnemonic and pass phrase, for normalized ones the (shared) BIP39 seed is identical
+		byte [] seed = hasBip39Seed(mnemonicWords, passPhrase) 
+				? Mnemonic.toSeed(mnemonicWords, passPhrase) 
+				: KdfScheduler.getInstance().execute(() -> MnemonicUtils.generateSeed(mnemonic, passPhrase));
 		
+		// only the private key is needed here, no public key computation
 		// jaxx wallet does not like private key with prefix
-		return Numeric.toHexStringNoPrefix(keyPair.getPrivateKey());
+		return Numeric.toHexStringNoPrefix(toPrivateKey(seed));
+	}
+
+	/**
+	 * Returns true iff the key of this account is hashed from the BIP39 seed of the provided mnemonic and pass phrase, 
+	 * i.e. web3j computes the same seed as {@link Mnemonic#toSeed(List, String)}.
+	 */
+	static boolean hasBip39Seed(List<String> mnemonicWords, String passPhrase) {
+		return passPhrase != null 
+				&& Normalizer.isNormalized(passPhrase, Normalizer.Form.NFKD) 
+				&& Normalizer.isNormalized(Mnemonic.convert(mnemonicWords), Normalizer.Form.NFKD);
+	}
+
+	/**
+	 * Returns the key of a (single account) wallet for the provided seed, the sha256 hash of the seed.
+	 */
+	static BigInteger toPrivateKey(byte [] seed) {
+		return Numeric.toBigInt(Hash.sha256(seed));
 	}
 	
 	/**
@@ -76,17 +129,51 @@ public class EthereumAccount extends Account {
 	 */
 	@Override
 	public String deriveAddress(String secret, Network network) {
-		Credentials credentials = Credentials.create(secret);
-		return credentials.getAddress();
+		// public key from the fixed-base table, keccak hash with reused per thread state
+		return EthereumAddress.fromPublicKey(Secp256k1Utility.publicKey(Numeric.toBigInt(secret), false));
+	}
+
+	/**
+	 * Returns the mixed case (EIP-55) form of the account address.
+	 */
+	public String getChecksumAddress() {
+		return EthereumAddress.toChecksumAddress(getAddress());
 	}
 	
+	/**
+	 * Returns the key pair for the provided private key (hex string with or without prefix).
+	 * The public key is computed with the fixed-base table of {@link Secp256k1Utility}.
+	 */
+	public static ECKeyPair createKeyPair(String secret) {
+		BigInteger privateKey = Numeric.toBigInt(secret);
+		return new ECKeyPair(privateKey, Secp256k1Utility.publicKeyValue(privateKey));
+	}
+	
+	/**
+	 * Returns the scrypt profile of the key store of this account, null for restored key stores that do not use scrypt.
+	 */
+	public KeystoreProfile getKeystoreProfile() {
+		return keystoreProfile;
+	}
+
+	/**
+	 * Returns the encrypted key store of this account. 
+	 * The key store is created (scrypt, admitted by the {@link KdfScheduler}) on first access only and then reused for all serializations.
+	 */
+	private synchronized WalletFile getKeystore() throws CipherException {
+		if(keystore == null) {
+			ECKeyPair keyPair = createKeyPair(getSecret());
+			keystore = KdfScheduler.getInstance().execute(keystoreProfile.getMemory(), () -> keystoreProfile.createKeystore(getPassPhrase(), keyPair));
+		}
+
+		return keystore;
+	}
+
 	@Override
 	public JSONObject toJson(boolean includeProtocolInfo) {
 		try {
-			Credentials credentials = Credentials.create(getSecret());
-			ECKeyPair keyPair = credentials.getEcKeyPair();
-			WalletFile wallet = Wallet.createStandard(getPassPhrase(), keyPair);
-			JSONObject json = objectMapper.convertValue(wallet, JSONObject.class);
+			// every call gets its own json object, the cached key store itself is never handed out
+			JSONObject json = objectMapper.convertValue(getKeystore(), JSONObject.class);
 			return json;
 		}
 		catch (Exception e) {
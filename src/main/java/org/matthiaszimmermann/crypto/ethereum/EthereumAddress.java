@@ -0,0 +1,136 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import org.matthiaszimmermann.crypto.utility.KeccakUtility;
+
+/**
+ * Ethereum address computation (last 20 bytes of the Keccak-256 hash of the public key) and EIP-55 checksums.
+ * Each thread reuses one Keccak instance and its buffers, apart from the resulting string nothing is allocated
+ * per address.
+ * https://github.com/ethereum/EIPs/blob/master/EIPS/eip-55.md
+ */
+public final class EthereumAddress {
+
+	public static final String PREFIX = "0x";
+	public static final int LENGTH = 20;
+	public static final int HEX_LENGTH = 2 * LENGTH;
+
+	private static final int PUBLIC_KEY_LENGTH = 64;
+	private static final char [] HEX = "0123456789abcdef".toCharArray();
+
+	private static final ThreadLocal<EthereumAddress> INSTANCE = ThreadLocal.withInitial(EthereumAddress::new);
+
+	private final KeccakUtility keccak = new KeccakUtility(KeccakUtility.KECCAK_256);
+	private final byte [] hash = new byte[32];
+	private final byte [] ascii = new byte[HEX_LENGTH];
+	private final char [] chars = new char[PREFIX.length() + HEX_LENGTH];
+
+	private EthereumAddress() {
+		chars[0] = PREFIX.charAt(0);
+		chars[1] = PREFIX.charAt(1);
+	}
+
+	/**
+	 * Returns the lower case address for the provided public key, either uncompressed with 0x04 prefix (65 bytes) or
+	 * the plain x and y coordinates (64 bytes).
+	 */
+	public static String fromPublicKey(byte [] publicKey) {
+		return INSTANCE.get().encode(publicKey, false);
+	}
+
+	/**
+	 * Returns the mixed case (EIP-55) address for the provided public key, see {@link #fromPublicKey(byte[])}.
+	 */
+	public static String fromPublicKeyChecksum(byte [] publicKey) {
+		return INSTANCE.get().encode(publicKey, true);
+	}
+
+	/**
+	 * Returns the mixed case (EIP-55) form of the provided address (with or without 0x prefix, any case).
+	 */
+	public static String toChecksumAddress(String address) {
+		EthereumAddress instance = INSTANCE.get();
+		instance.parse(address);
+		return instance.checksum();
+	}
+
+	/**
+	 * Returns true iff the provided address is a valid address whose mixed case matches its EIP-55 checksum.
+	 * All lower and all upper case addresses carry no checksum and are considered valid.
+	 */
+	public static boolean isValid(String address) {
+		if(address == null || !address.startsWith(PREFIX) || address.length() != PREFIX.length() + HEX_LENGTH) {
+			return false;
+		}
+
+		String hex = address.substring(PREFIX.length());
+
+		for(char c : hex.toCharArray()) {
+			if(Character.digit(c, 16) < 0) {
+				return false;
+			}
+		}
+
+		if(hex.equals(hex.toLowerCase()) || hex.equals(hex.toUpperCase())) {
+			return true;
+		}
+
+		return address.equals(toChecksumAddress(address));
+	}
+
+	private String encode(byte [] publicKey, boolean checksum) {
+		if(publicKey.length != PUBLIC_KEY_LENGTH && publicKey.length != PUBLIC_KEY_LENGTH + 1) {
+			throw new IllegalArgumentException("Invalid public key length " + publicKey.length);
+		}
+
+		keccak.update(publicKey, publicKey.length - PUBLIC_KEY_LENGTH, PUBLIC_KEY_LENGTH);
+		keccak.digest(hash, 0);
+
+		for(int i = 0; i < LENGTH; i++) {
+			int b = hash[hash.length - LENGTH + i] & 0xff;
+			ascii[2 * i] = (byte) HEX[b >>> 4];
+			ascii[2 * i + 1] = (byte) HEX[b & 0xf];
+		}
+
+		return checksum ? checksum() : lowerCase();
+	}
+
+	private void parse(String address) {
+		int offset = address != null && address.startsWith(PREFIX) ? PREFIX.length() : 0;
+
+		if(address == null || address.length() - offset != HEX_LENGTH) {
+			throw new IllegalArgumentException("Invalid Ethereum address " + address);
+		}
+
+		for(int i = 0; i < HEX_LENGTH; i++) {
+			int digit = Character.digit(address.charAt(offset + i), 16);
+
+			if(digit < 0) {
+				throw new IllegalArgumentException("Invalid Ethereum address " + address);
+			}
+
+			ascii[i] = (byte) HEX[digit];
+		}
+	}
+
+	private String lowerCase() {
+		for(int i = 0; i < HEX_LENGTH; i++) {
+			chars[PREFIX.length() + i] = (char) ascii[i];
+		}
+
+		return new String(chars);
+	}
+
+	// hex letters become upper case iff the corresponding nibble of keccak256(lower case hex address) is >= 8
+	private String checksum() {
+		keccak.update(ascii, 0, HEX_LENGTH);
+		keccak.digest(hash, 0);
+
+		for(int i = 0; i < HEX_LENGTH; i++) {
+			char c = (char) ascii[i];
+			int nibble = (i & 1) == 0 ? (hash[i >>> 1] & 0xff) >>> 4 : hash[i >>> 1] & 0xf;
+			chars[PREFIX.length() + i] = c >= 'a' && nibble >= 8 ? Character.toUpperCase(c) : c;
+		}
+
+		return new String(chars);
+	}
+}
@@ -0,0 +1,155 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.matthiaszimmermann.crypto.core.Network;
+import org.matthiaszimmermann.crypto.utility.FileUtility;
+
+/**
+ * Imports existing web3 key store files (geth, parity, MyEtherWallet) into wallets of this project.
+ *
+ * Each key store is decrypted once, the address derived from the decrypted key is checked against the address of the
+ * key store and the key store itself is kept for the wallet file, i.e. no new scrypt encryption is needed.
+ * Decryption is admitted by the {@link org.matthiaszimmermann.crypto.utility.KdfScheduler} with the memory of the key
+ * store's scrypt parameters, an importer may therefore be used by any number of threads.
+ * Addresses are imported only once, later key stores of an already imported address are reported as duplicates.
+ */
+public class EthereumKeystoreImporter {
+
+	public static final String JSON_SOURCE = "source";
+	public static final String JSON_ADDRESS = "address";
+	public static final String JSON_PROFILE = "profile";
+	public static final String JSON_VALID = "valid";
+	public static final String JSON_ERROR = "error";
+	public static final String JSON_MILLIS = "millis";
+
+	public static final String KEYSTORE_EXTENSION = ".json";
+	public static final String KEYSTORE_PREFIX = "UTC--";
+
+	private final String passPhrase;
+	private final Network network;
+	private final Map<String, String> imported = new ConcurrentHashMap<>();
+
+	public EthereumKeystoreImporter(String passPhrase, Network network) {
+		this.passPhrase = passPhrase;
+		this.network = network;
+	}
+
+	/**
+	 * Returns true for key store file names, i.e. json files and the extension-less files of geth key store directories.
+	 */
+	public static boolean isKeystoreFile(String name) {
+		return name.endsWith(KEYSTORE_EXTENSION) || name.startsWith(KEYSTORE_PREFIX);
+	}
+
+	/**
+	 * Returns the number of distinct addresses imported so far.
+	 */
+	public int getImportCount() {
+		return imported.size();
+	}
+
+	/**
+	 * Decrypts and verifies the provided key store file. Failures are reported in the result, never thrown.
+	 */
+	public Result importKeystore(File file) {
+		Result result = new Result(file.getName());
+		long start = System.nanoTime();
+
+		try {
+			JSONObject keystoreJson = FileUtility.readJsonFile(file);
+			String keystoreAddress = keystoreJson.optString(JSON_ADDRESS, "");
+			EthereumAccount account = new EthereumAccount(keystoreJson, passPhrase, network);
+
+			result.address = account.getChecksumAddress();
+			result.profile = account.getKeystoreProfile();
+
+			// the address of a key store is optional and not covered by its mac
+			if(!keystoreAddress.isEmpty() && !account.getAddress().equalsIgnoreCase(normalize(keystoreAddress))) {
+				result.error = String.format("Address mismatch, key store address %s", keystoreAddress);
+			}
+			else {
+				String previous = imported.putIfAbsent(account.getAddress(), result.source);
+
+				if(previous != null) {
+					result.error = String.format("Duplicate of %s", previous);
+				}
+				else {
+					result.wallet = new EthereumWallet(account);
+				}
+			}
+		}
+		catch(RuntimeException e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			result.error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+		}
+
+		result.millis = (System.nanoTime() - start) / 1000000;
+
+		return result;
+	}
+
+	private static String normalize(String address) {
+		return address.startsWith(EthereumAddress.PREFIX) ? address : EthereumAddress.PREFIX + address;
+	}
+
+	public static class Result {
+
+		private final String source;
+		private String address = null;
+		private KeystoreProfile profile = null;
+		private EthereumWallet wallet = null;
+		private String error = null;
+		private long millis = 0;
+
+		private Result(String source) {
+			this.source = source;
+		}
+
+		public boolean isValid() {
+			return error == null;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		/**
+		 * Returns the mixed case (EIP-55) address of the decrypted key, null if the key store could not be decrypted.
+		 */
+		public String getAddress() {
+			return address;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		/**
+		 * Returns the wallet of the imported key store, null for invalid results.
+		 */
+		public EthereumWallet getWallet() {
+			return wallet;
+		}
+
+		public JSONObject toJson() {
+			try {
+				JSONObject json = new JSONObject();
+				json.put(JSON_SOURCE, source);
+				json.put(JSON_ADDRESS, address == null ? JSONObject.NULL : address);
+				json.put(JSON_PROFILE, profile == null ? JSONObject.NULL : profile.toString());
+				json.put(JSON_VALID, isValid());
+				json.put(JSON_ERROR, error == null ? JSONObject.NULL : error);
+				json.put(JSON_MILLIS, millis);
+				return json;
+			}
+			catch(JSONException e) {
+				throw new RuntimeException("Failed to create import result json", e);
+			}
+		}
+	}
+}
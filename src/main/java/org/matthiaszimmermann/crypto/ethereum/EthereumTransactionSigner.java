@@ -0,0 +1,242 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECPoint;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.matthiaszimmermann.crypto.utility.KeccakUtility;
+import org.matthiaszimmermann.crypto.utility.Secp256k1Utility;
+import org.web3j.utils.Numeric;
+
+/**
+ * Offline signing of unsigned Ethereum transactions (EIP-155 replay protection) with the key of an account.
+ *
+ * Unsigned transactions are json objects with nonce, gasPrice, gasLimit (or gas), to, value, data and chainId.
+ * Numbers are decimal or 0x prefixed hex, either as json number or string, data is hex. An empty or missing 'to'
+ * creates a contract.
+ * The key is taken from the already restored (decrypted) account, i.e. the key store is decrypted once for any number
+ * of transactions. Transactions are signed in parallel, each thread reuses its RLP encoder and Keccak instance.
+ * Signatures are deterministic (RFC 6979) with low s (EIP-2), the nonce point is computed with the fixed-base table.
+ * https://github.com/ethereum/EIPs/blob/master/EIPS/eip-155.md
+ */
+public class EthereumTransactionSigner {
+
+	public static final String JSON_NONCE = "nonce";
+	public static final String JSON_GAS_PRICE = "gasPrice";
+	public static final String JSON_GAS_LIMIT = "gasLimit";
+	public static final String JSON_GAS = "gas";
+	public static final String JSON_TO = "to";
+	public static final String JSON_VALUE = "value";
+	public static final String JSON_DATA = "data";
+	public static final String JSON_CHAIN_ID = "chainId";
+
+	private static final BigInteger HALF_N = Secp256k1Utility.N.shiftRight(1);
+
+	private static final ThreadLocal<RlpEncoder> ENCODER = ThreadLocal.withInitial(RlpEncoder::new);
+	private static final ThreadLocal<KeccakUtility> KECCAK = ThreadLocal.withInitial(() -> new KeccakUtility(KeccakUtility.KECCAK_256));
+
+	private final BigInteger privateKey;
+	private final String address;
+
+	public EthereumTransactionSigner(EthereumAccount account) {
+		this(Numeric.toBigInt(account.getSecret()));
+	}
+
+	public EthereumTransactionSigner(BigInteger privateKey) {
+		if(privateKey.signum() <= 0 || privateKey.compareTo(Secp256k1Utility.N) >= 0) {
+			throw new IllegalArgumentException("Invalid private key");
+		}
+
+		this.privateKey = privateKey;
+		this.address = EthereumAddress.fromPublicKey(Secp256k1Utility.publicKey(privateKey, false));
+	}
+
+	/**
+	 * Returns the (lower case) address of the signing key, i.e. the sender of all signed transactions.
+	 */
+	public String getAddress() {
+		return address;
+	}
+
+	/**
+	 * Signs the provided unsigned transactions (one json object per line) in parallel.
+	 * Empty lines are skipped.
+	 * @return the raw signed transactions (0x prefixed hex) in the order of the provided lines
+	 */
+	public List<String> sign(List<String> lines) {
+		List<UnsignedTransaction> unsigned = new ArrayList<>();
+
+		// parsing is done upfront to report invalid transactions before any signature is computed
+		for(int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+
+			if(line.isEmpty()) {
+				continue;
+			}
+
+			try {
+				unsigned.add(new UnsignedTransaction(new JSONObject(line)));
+			}
+			catch(JSONException | IllegalArgumentException e) {
+				throw new IllegalArgumentException(String.format("Invalid transaction on line %d: %s", i + 1, e.getMessage()), e);
+			}
+		}
+
+		String [] raw = new String[unsigned.size()];
+
+		IntStream.range(0, unsigned.size())
+		.parallel()
+		.forEach(i -> raw[i] = Numeric.toHexString(sign(unsigned.get(i))));
+
+		List<String> result = new ArrayList<>();
+		for(String tx : raw) {
+			result.add(tx);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Signs a single unsigned transaction.
+	 * @return the raw signed transaction
+	 */
+	public byte [] sign(JSONObject transaction) throws JSONException {
+		return sign(new UnsignedTransaction(transaction));
+	}
+
+	private byte [] sign(UnsignedTransaction tx) {
+		RlpEncoder rlp = ENCODER.get();
+		KeccakUtility keccak = KECCAK.get();
+
+		// signing hash: rlp(nonce, gasPrice, gasLimit, to, value, data, chainId, 0, 0)
+		tx.encode(rlp.reset().beginList()).encode(tx.chainId).encode(0).encode(0).endList();
+
+		byte [] hash = new byte[keccak.getDigestLength()];
+		keccak.update(rlp.getBuffer(), 0, rlp.size());
+		keccak.digest(hash, 0);
+
+		BigInteger [] signature = signHash(hash);
+		BigInteger v = tx.chainId.shiftLeft(1).add(BigInteger.valueOf(35)).add(signature[2]);
+
+		return tx.encode(rlp.reset().beginList()).encode(v).encode(signature[0]).encode(signature[1]).endList().toByteArray();
+	}
+
+	/**
+	 * Returns r, s and the recovery id for the provided hash.
+	 */
+	private BigInteger [] signHash(byte [] hash) {
+		BigInteger n = Secp256k1Utility.N;
+		BigInteger e = new BigInteger(1, hash);
+
+		HMacDSAKCalculator kCalculator = new HMacDSAKCalculator(new SHA256Digest());
+		kCalculator.init(n, privateKey, hash);
+
+		while(true) {
+			BigInteger k = kCalculator.nextK();
+			ECPoint point = Secp256k1Utility.multiplyG(k).normalize();
+			BigInteger x = point.getAffineXCoord().toBigInteger();
+			BigInteger r = x.mod(n);
+
+			if(r.signum() == 0) {
+				continue;
+			}
+
+			BigInteger s = k.modInverse(n).multiply(e.add(r.multiply(privateKey))).mod(n);
+
+			if(s.signum() == 0) {
+				continue;
+			}
+
+			int recoveryId = (point.getAffineYCoord().testBitZero() ? 1 : 0) | (x.compareTo(n) >= 0 ? 2 : 0);
+
+			// low s (EIP-2), negating s flips the parity of the nonce point
+			if(s.compareTo(HALF_N) > 0) {
+				s = n.subtract(s);
+				recoveryId ^= 1;
+			}
+
+			return new BigInteger [] { r, s, BigInteger.valueOf(recoveryId) };
+		}
+	}
+
+	private static BigInteger toNumber(JSONObject json, String key, boolean required) throws JSONException {
+		if(!json.has(key)) {
+			if(required) {
+				throw new JSONException("Missing " + key);
+			}
+
+			return BigInteger.ZERO;
+		}
+
+		String value = json.get(key).toString().trim();
+		BigInteger number = value.startsWith("0x") || value.startsWith("0X")
+				? (value.length() == 2 ? BigInteger.ZERO : new BigInteger(value.substring(2), 16))
+				: new BigInteger(value);
+
+		if(number.signum() < 0) {
+			throw new IllegalArgumentException(String.format("%s must not be negative", key));
+		}
+
+		return number;
+	}
+
+	private static byte [] toBytes(JSONObject json, String key) throws JSONException {
+		String value = json.optString(key, "").trim();
+		String hex = value.startsWith("0x") || value.startsWith("0X") ? value.substring(2) : value;
+
+		// web3j does not validate, invalid digits would silently end up in the signed transaction
+		if(hex.length() % 2 != 0) {
+			throw new IllegalArgumentException(String.format("%s must have an even number of hex digits: %s", key, value));
+		}
+
+		for(int i = 0; i < hex.length(); i++) {
+			if(Character.digit(hex.charAt(i), 16) < 0) {
+				throw new IllegalArgumentException(String.format("%s is not a hex string: %s", key, value));
+			}
+		}
+
+		return hex.isEmpty() ? new byte [0] : Numeric.hexStringToByteArray(hex);
+	}
+
+	private static class UnsignedTransaction {
+
+		private final BigInteger nonce;
+		private final BigInteger gasPrice;
+		private final BigInteger gasLimit;
+		private final byte [] to;
+		private final BigInteger value;
+		private final byte [] data;
+		private final BigInteger chainId;
+
+		UnsignedTransaction(JSONObject json) throws JSONException {
+			nonce = toNumber(json, JSON_NONCE, true);
+			gasPrice = toNumber(json, JSON_GAS_PRICE, true);
+			gasLimit = toNumber(json, json.has(JSON_GAS_LIMIT) ? JSON_GAS_LIMIT : JSON_GAS, true);
+			value = toNumber(json, JSON_VALUE, false);
+			chainId = toNumber(json, JSON_CHAIN_ID, true);
+			data = toBytes(json, JSON_DATA);
+
+			String recipient = json.optString(JSON_TO, "").trim();
+
+			if(!recipient.isEmpty() && !EthereumAddress.isValid(recipient)) {
+				throw new IllegalArgumentException("Invalid recipient address " + recipient);
+			}
+
+			to = toBytes(json, JSON_TO);
+
+			if(chainId.signum() == 0) {
+				throw new IllegalArgumentException("Chain id must be positive");
+			}
+		}
+
+		RlpEncoder encode(RlpEncoder rlp) {
+			return rlp.encode(nonce).encode(gasPrice).encode(gasLimit).encode(to).encode(value).encode(data);
+		}
+	}
+}
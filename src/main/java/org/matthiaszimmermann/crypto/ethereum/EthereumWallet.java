@@ -5,6 +5,7 @@ import java.util.List;
 import org.json.JSONObject;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.ProtocolFactory;
+import org.matthiaszimmermann.crypto.core.SeedContext;
 import org.matthiaszimmermann.crypto.core.Technology;
 import org.matthiaszimmermann.crypto.core.Wallet;
 
@@ -20,6 +21,21 @@ public class EthereumWallet extends Wallet {
 		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Ethereum, network));
 	}
 
+	public EthereumWallet(List<String> mnemonicWords, String passPhrase, Network network, int accountCount) {
+		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Ethereum, network), accountCount);
+	}
+
+	public EthereumWallet(List<String> mnemonicWords, String passPhrase, Network network, int accountCount, SeedContext seeds) {
+		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Ethereum, network), accountCount, seeds);
+	}
+
+	/**
+	 * Wallet for an already restored account, e.g. an imported web3 key store.
+	 */
+	public EthereumWallet(EthereumAccount account) {
+		super(account);
+	}
+
 	@Override
 	public String getSecretLabel() {
 		return SECRET_LABEL;
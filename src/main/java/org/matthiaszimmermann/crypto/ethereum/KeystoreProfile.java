@@ -0,0 +1,189 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import org.matthiaszimmermann.crypto.utility.KdfScheduler;
+import org.web3j.crypto.CipherException;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Wallet;
+import org.web3j.crypto.WalletFile;
+
+/**
+ * Scrypt parameters of the encrypted Ethereum key store (web3j wallet file).
+ * Standard uses N = 262144 (about 256 MB and one second per key store), light uses N = 4096 (about 4 MB).
+ * Custom profiles are specified as "N,r,p". web3j always encrypts with r = 8, other values are rejected.
+ * The parameters end up in the kdfparams of the key store, so the profile of an existing key store can be
+ * recovered with {@link #of(WalletFile)}.
+ */
+public final class KeystoreProfile {
+
+	public static final String NAME_STANDARD = "standard";
+	public static final String NAME_LIGHT = "light";
+	public static final String NAME_CUSTOM = "custom";
+
+	public static final int R = 8;
+
+	public static final KeystoreProfile STANDARD = new KeystoreProfile(NAME_STANDARD, 1 << 18, 1);
+	public static final KeystoreProfile LIGHT = new KeystoreProfile(NAME_LIGHT, 1 << 12, 6);
+
+	private static volatile KeystoreProfile defaultProfile = STANDARD;
+
+	private final String name;
+	private final int n;
+	private final int p;
+
+	private KeystoreProfile(String name, int n, int p) {
+		if(n < 2 || (n & (n - 1)) != 0) {
+			throw new IllegalArgumentException("Scrypt parameter N must be a power of 2 larger than 1 but is " + n);
+		}
+
+		if(p < 1) {
+			throw new IllegalArgumentException("Scrypt parameter p must be positive but is " + p);
+		}
+
+		this.name = name;
+		this.n = n;
+		this.p = p;
+	}
+
+	/**
+	 * Returns the profile for "standard", "light" or custom scrypt parameters "N,r,p".
+	 */
+	public static KeystoreProfile get(String profile) {
+		if(profile == null || NAME_STANDARD.equalsIgnoreCase(profile.trim())) {
+			return STANDARD;
+		}
+
+		if(NAME_LIGHT.equalsIgnoreCase(profile.trim())) {
+			return LIGHT;
+		}
+
+		String [] params = profile.split(",");
+
+		if(params.length != 3) {
+			throw new IllegalArgumentException(String.format("Key store profile must be %s, %s or N,r,p but is %s", NAME_STANDARD, NAME_LIGHT, profile));
+		}
+
+		try {
+			int r = Integer.parseInt(params[1].trim());
+
+			if(r != R) {
+				throw new IllegalArgumentException(String.format("Scrypt parameter r must be %d but is %d", R, r));
+			}
+
+			return custom(Integer.parseInt(params[0].trim()), Integer.parseInt(params[2].trim()));
+		}
+		catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid key store profile " + profile, e);
+		}
+	}
+
+	/**
+	 * Returns the profile for the provided scrypt parameters (r = 8), standard and light parameters map to these profiles.
+	 */
+	public static KeystoreProfile custom(int n, int p) {
+		if(n == STANDARD.n && p == STANDARD.p) {
+			return STANDARD;
+		}
+
+		if(n == LIGHT.n && p == LIGHT.p) {
+			return LIGHT;
+		}
+
+		return new KeystoreProfile(NAME_CUSTOM, n, p);
+	}
+
+	/**
+	 * Returns the profile of the provided key store or null for key stores not encrypted with scrypt.
+	 */
+	public static KeystoreProfile of(WalletFile walletFile) {
+		if(walletFile == null || walletFile.getCrypto() == null || !(walletFile.getCrypto().getKdfparams() instanceof WalletFile.ScryptKdfParams)) {
+			return null;
+		}
+
+		WalletFile.ScryptKdfParams params = (WalletFile.ScryptKdfParams) walletFile.getCrypto().getKdfparams();
+		return params.getR() == R ? custom(params.getN(), params.getP()) : null;
+	}
+
+	/**
+	 * Returns the memory in bytes needed to decrypt the provided key store (128 * N * r for scrypt, any r),
+	 * the PBKDF2 memory for other key stores. Parameters too large to be represented result in Long.MAX_VALUE.
+	 */
+	public static long getMemory(WalletFile walletFile) {
+		if(walletFile == null || walletFile.getCrypto() == null || !(walletFile.getCrypto().getKdfparams() instanceof WalletFile.ScryptKdfParams)) {
+			return KdfScheduler.PBKDF2_MEMORY;
+		}
+
+		WalletFile.ScryptKdfParams params = (WalletFile.ScryptKdfParams) walletFile.getCrypto().getKdfparams();
+
+		try {
+			return Math.multiplyExact(128L * params.getN(), params.getR());
+		}
+		catch(ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Returns the profile used for new key stores.
+	 */
+	public static KeystoreProfile getDefault() {
+		return defaultProfile;
+	}
+
+	public static void setDefault(KeystoreProfile profile) {
+		if(profile == null) {
+			throw new IllegalArgumentException("Key store profile must not be null");
+		}
+
+		defaultProfile = profile;
+	}
+
+	/**
+	 * Encrypts the provided key pair into a new key store with the parameters of this profile.
+	 */
+	public WalletFile createKeystore(String passPhrase, ECKeyPair keyPair) throws CipherException {
+		return Wallet.create(passPhrase, keyPair, n, p);
+	}
+
+	/**
+	 * Returns the approximate memory in bytes needed to derive the key of a key store (128 * N * r).
+	 */
+	public long getMemory() {
+		return 128L * n * R;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getN() {
+		return n;
+	}
+
+	public int getR() {
+		return R;
+	}
+
+	public int getP() {
+		return p;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof KeystoreProfile)) {
+			return false;
+		}
+
+		KeystoreProfile other = (KeystoreProfile) obj;
+		return n == other.n && p == other.p;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * n + p;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (N=%d, r=%d, p=%d)", name, n, R, p);
+	}
+}
@@ -0,0 +1,187 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Recursive length prefix (RLP) encoder writing into a reusable, growing buffer.
+ * Lists are opened with {@link #beginList()} and closed with {@link #endList()}, the list header is inserted in front
+ * of the already encoded items when the list is closed. After {@link #reset()} the buffer is reused as is.
+ * Instances are not thread safe.
+ * https://github.com/ethereum/wiki/wiki/RLP
+ */
+public class RlpEncoder {
+
+	private static final int OFFSET_SHORT_STRING = 0x80;
+	private static final int OFFSET_LONG_STRING = 0xb7;
+	private static final int OFFSET_SHORT_LIST = 0xc0;
+	private static final int OFFSET_LONG_LIST = 0xf7;
+	private static final int SHORT_LENGTH_MAX = 55;
+	private static final int NESTING_MAX = 16;
+
+	private byte [] buffer;
+	private int size = 0;
+
+	private final int [] listStarts = new int[NESTING_MAX];
+	private int depth = 0;
+
+	public RlpEncoder() {
+		this(256);
+	}
+
+	public RlpEncoder(int capacity) {
+		buffer = new byte[Math.max(capacity, 16)];
+	}
+
+	public RlpEncoder reset() {
+		size = 0;
+		depth = 0;
+		return this;
+	}
+
+	/**
+	 * Encodes the provided bytes as string item.
+	 */
+	public RlpEncoder encode(byte [] data) {
+		return encode(data, 0, data.length);
+	}
+
+	public RlpEncoder encode(byte [] data, int offset, int length) {
+		if(length == 1 && (data[offset] & 0xff) < OFFSET_SHORT_STRING) {
+			ensureCapacity(1);
+			buffer[size++] = data[offset];
+			return this;
+		}
+
+		writeHeader(OFFSET_SHORT_STRING, OFFSET_LONG_STRING, length);
+		ensureCapacity(length);
+		System.arraycopy(data, offset, buffer, size, length);
+		size += length;
+
+		return this;
+	}
+
+	/**
+	 * Encodes the non negative value as scalar (big endian without leading zeros, 0 is the empty string).
+	 */
+	public RlpEncoder encode(long value) {
+		if(value < 0) {
+			throw new IllegalArgumentException("RLP scalars must not be negative but is " + value);
+		}
+
+		if(value > 0 && value < OFFSET_SHORT_STRING) {
+			ensureCapacity(1);
+			buffer[size++] = (byte) value;
+			return this;
+		}
+
+		int length = byteLength(value);
+		ensureCapacity(1 + length);
+		buffer[size++] = (byte)(OFFSET_SHORT_STRING + length);
+		writeBigEndian(value, length);
+
+		return this;
+	}
+
+	/**
+	 * Encodes the non negative value as scalar (big endian without leading zeros, 0 is the empty string).
+	 */
+	public RlpEncoder encode(BigInteger value) {
+		if(value.signum() < 0) {
+			throw new IllegalArgumentException("RLP scalars must not be negative but is " + value);
+		}
+
+		if(value.bitLength() < Long.SIZE) {
+			return encode(value.longValue());
+		}
+
+		byte [] bytes = value.toByteArray();
+		int offset = bytes[0] == 0 ? 1 : 0;
+
+		return encode(bytes, offset, bytes.length - offset);
+	}
+
+	public RlpEncoder beginList() {
+		if(depth == NESTING_MAX) {
+			throw new IllegalStateException("RLP lists nested too deeply");
+		}
+
+		listStarts[depth++] = size;
+		return this;
+	}
+
+	public RlpEncoder endList() {
+		if(depth == 0) {
+			throw new IllegalStateException("No open RLP list");
+		}
+
+		int start = listStarts[--depth];
+		int length = size - start;
+		int headerLength = length <= SHORT_LENGTH_MAX ? 1 : 1 + byteLength(length);
+
+		// move the items behind the header
+		ensureCapacity(headerLength);
+		System.arraycopy(buffer, start, buffer, start + headerLength, length);
+
+		int end = size + headerLength;
+		size = start;
+		writeHeader(OFFSET_SHORT_LIST, OFFSET_LONG_LIST, length);
+		size = end;
+
+		return this;
+	}
+
+	/**
+	 * Returns the number of encoded bytes.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a copy of the encoded bytes, all lists must be closed.
+	 */
+	public byte [] toByteArray() {
+		if(depth != 0) {
+			throw new IllegalStateException("RLP list not closed");
+		}
+
+		return Arrays.copyOf(buffer, size);
+	}
+
+	/**
+	 * Returns the internal buffer, only the first {@link #size()} bytes are valid.
+	 */
+	byte [] getBuffer() {
+		return buffer;
+	}
+
+	private void writeHeader(int shortOffset, int longOffset, int length) {
+		if(length <= SHORT_LENGTH_MAX) {
+			ensureCapacity(1);
+			buffer[size++] = (byte)(shortOffset + length);
+			return;
+		}
+
+		int lengthOfLength = byteLength(length);
+		ensureCapacity(1 + lengthOfLength);
+		buffer[size++] = (byte)(longOffset + lengthOfLength);
+		writeBigEndian(length, lengthOfLength);
+	}
+
+	private void writeBigEndian(long value, int length) {
+		for(int i = length - 1; i >= 0; i--) {
+			buffer[size++] = (byte)(value >>> (8 * i));
+		}
+	}
+
+	private void ensureCapacity(int additional) {
+		if(size + additional > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, size + additional));
+		}
+	}
+
+	private static int byteLength(long value) {
+		return (Long.SIZE - Long.numberOfLeadingZeros(value) + 7) / 8;
+	}
+}
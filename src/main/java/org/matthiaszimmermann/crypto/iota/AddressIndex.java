@@ -0,0 +1,319 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Persistent index that maps Iota addresses to the wallet file, key index and security level they were derived from.
+ *
+ * The file is memory mapped and consists of a header, a fixed size hash table of bucket heads and an append-only
+ * area of fixed size records. Each record links to the previous record of its bucket, so lookups touch a single
+ * bucket chain and appends never rewrite existing data. Addresses are stored without checksum.
+ * All methods are synchronized, one instance may be shared by several threads.
+ */
+public class AddressIndex implements Closeable {
+
+	public static final int BUCKETS_DEFAULT = 1 << 18;
+	public static final int WALLET_NAME_MAX = 127;
+
+	private static final int MAGIC = 0x49414458; // "IADX"
+	private static final int VERSION = 1;
+
+	// header: magic, version, buckets, size, end of data
+	private static final int HEADER_SIZE = 32;
+	private static final int OFFSET_MAGIC = 0;
+	private static final int OFFSET_VERSION = 4;
+	private static final int OFFSET_BUCKETS = 8;
+	private static final int OFFSET_SIZE = 12;
+	private static final int OFFSET_END = 16;
+
+	// record: address, security, key index, next record, wallet name (length + bytes)
+	private static final int RECORD_ADDRESS = 0;
+	private static final int RECORD_SECURITY = RECORD_ADDRESS + IotaSigning.ADDRESS_LENGTH;
+	private static final int RECORD_INDEX = RECORD_SECURITY + 1;
+	private static final int RECORD_NEXT = RECORD_INDEX + 4;
+	private static final int RECORD_WALLET = RECORD_NEXT + 8;
+	private static final int RECORD_SIZE = RECORD_WALLET + 1 + WALLET_NAME_MAX;
+
+	private static final int GROWTH_RECORDS = 4096;
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final int buckets;
+	private MappedByteBuffer buffer;
+
+	private AddressIndex(File file, int buckets) throws IOException {
+		this.file = file;
+		this.raf = new RandomAccessFile(file, "rw");
+		this.channel = raf.getChannel();
+
+		if(channel.size() == 0) {
+			this.buckets = buckets;
+			map(HEADER_SIZE + 8L * buckets + (long)GROWTH_RECORDS * RECORD_SIZE);
+			buffer.putInt(OFFSET_MAGIC, MAGIC);
+			buffer.putInt(OFFSET_VERSION, VERSION);
+			buffer.putInt(OFFSET_BUCKETS, buckets);
+			buffer.putInt(OFFSET_SIZE, 0);
+			buffer.putLong(OFFSET_END, dataStart());
+			buffer.force();
+		}
+		else {
+			map(channel.size());
+
+			if(buffer.getInt(OFFSET_MAGIC) != MAGIC || buffer.getInt(OFFSET_VERSION) != VERSION) {
+				raf.close();
+				throw new IOException("Not an address index file: " + file.getAbsolutePath());
+			}
+
+			this.buckets = buffer.getInt(OFFSET_BUCKETS);
+		}
+	}
+
+	/**
+	 * Opens the specified index file, an empty index file with the default number of buckets is created if the file does not exist.
+	 */
+	public static AddressIndex open(File file) {
+		return open(file, BUCKETS_DEFAULT);
+	}
+
+	/**
+	 * Opens the specified index file. The number of buckets (a power of two) is only used when a new file is created.
+	 */
+	public static AddressIndex open(File file, int buckets) {
+		if(buckets <= 0 || Integer.bitCount(buckets) != 1) {
+			throw new IllegalArgumentException("Number of buckets must be a power of two but is " + buckets);
+		}
+
+		try {
+			return new AddressIndex(file, buckets);
+		}
+		catch(IOException e) {
+			throw new RuntimeException("Failed to open address index " + file.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * Adds the provided address. Returns false if the address is already contained in the index.
+	 * @param address the address with or without checksum
+	 * @param walletName the name of the wallet file the address belongs to
+	 * @param index the key index of the address
+	 * @param security the security level of the address
+	 */
+	public synchronized boolean add(String address, String walletName, int index, int security) {
+		String key = toKey(address);
+		byte [] name = walletName.getBytes(StandardCharsets.UTF_8);
+
+		if(name.length > WALLET_NAME_MAX) {
+			throw new IllegalArgumentException("Wallet name exceeds " + WALLET_NAME_MAX + " bytes: " + walletName);
+		}
+
+		if(find(key) != 0) {
+			return false;
+		}
+
+		long end = buffer.getLong(OFFSET_END);
+		ensureCapacity(end + RECORD_SIZE);
+
+		long bucket = bucketOffset(key);
+		int record = (int)end;
+
+		for(int i = 0; i < IotaSigning.ADDRESS_LENGTH; i++) {
+			buffer.put(record + RECORD_ADDRESS + i, (byte)key.charAt(i));
+		}
+
+		buffer.put(record + RECORD_SECURITY, (byte)security);
+		buffer.putInt(record + RECORD_INDEX, index);
+		buffer.putLong(record + RECORD_NEXT, buffer.getLong((int)bucket));
+		buffer.put(record + RECORD_WALLET, (byte)name.length);
+
+		for(int i = 0; i < name.length; i++) {
+			buffer.put(record + RECORD_WALLET + 1 + i, name[i]);
+		}
+
+		// publish the record only after it has been written completely
+		buffer.putLong((int)bucket, end);
+		buffer.putLong(OFFSET_END, end + RECORD_SIZE);
+		buffer.putInt(OFFSET_SIZE, buffer.getInt(OFFSET_SIZE) + 1);
+
+		return true;
+	}
+
+	/**
+	 * Returns the entry for the provided address (with or without checksum) or null if the address is not indexed.
+	 */
+	public synchronized Entry lookup(String address) {
+		long record = find(toKey(address));
+
+		if(record == 0) {
+			return null;
+		}
+
+		return readEntry((int)record);
+	}
+
+	/**
+	 * Returns the number of indexed addresses.
+	 */
+	public synchronized int size() {
+		return buffer.getInt(OFFSET_SIZE);
+	}
+
+	/**
+	 * Writes all changes to the storage device.
+	 */
+	public synchronized void flush() {
+		buffer.force();
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			buffer.force();
+			raf.close();
+		}
+		catch(IOException e) {
+			throw new RuntimeException("Failed to close address index " + file.getAbsolutePath(), e);
+		}
+	}
+
+	private long find(String key) {
+		long record = buffer.getLong((int)bucketOffset(key));
+
+		while(record != 0) {
+			if(matches((int)record, key)) {
+				return record;
+			}
+
+			record = buffer.getLong((int)record + RECORD_NEXT);
+		}
+
+		return 0;
+	}
+
+	private boolean matches(int record, String key) {
+		for(int i = 0; i < IotaSigning.ADDRESS_LENGTH; i++) {
+			if(buffer.get(record + RECORD_ADDRESS + i) != key.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private Entry readEntry(int record) {
+		byte [] address = new byte[IotaSigning.ADDRESS_LENGTH];
+		for(int i = 0; i < address.length; i++) {
+			address[i] = buffer.get(record + RECORD_ADDRESS + i);
+		}
+
+		byte [] name = new byte[buffer.get(record + RECORD_WALLET)];
+		for(int i = 0; i < name.length; i++) {
+			name[i] = buffer.get(record + RECORD_WALLET + 1 + i);
+		}
+
+		return new Entry(
+				new String(address, StandardCharsets.US_ASCII), 
+				new String(name, StandardCharsets.UTF_8), 
+				buffer.getInt(record + RECORD_INDEX), 
+				buffer.get(record + RECORD_SECURITY));
+	}
+
+	private long bucketOffset(String key) {
+		// addresses are hashes, the first 13 trytes are evenly distributed
+		long hash = 0;
+		for(int i = 0; i < 13; i++) {
+			hash = hash * 27 + Iota.TRYTE_ALPHABET.indexOf(key.charAt(i));
+		}
+
+		return HEADER_SIZE + 8L * (hash & (buckets - 1));
+	}
+
+	private long dataStart() {
+		return HEADER_SIZE + 8L * buckets;
+	}
+
+	private void ensureCapacity(long required) {
+		if(required > buffer.capacity()) {
+			long size = Math.max(required, buffer.capacity() + (long)GROWTH_RECORDS * RECORD_SIZE);
+
+			try {
+				buffer.force();
+				map(Math.max(size, buffer.capacity() * 3L / 2));
+			}
+			catch(IOException e) {
+				throw new RuntimeException("Failed to grow address index " + file.getAbsolutePath(), e);
+			}
+		}
+	}
+
+	private void map(long size) throws IOException {
+		if(size > Integer.MAX_VALUE) {
+			throw new IOException("Address index exceeds maximum size: " + file.getAbsolutePath());
+		}
+
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	private static String toKey(String address) {
+		if(address == null) {
+			throw new IllegalArgumentException("Address must not be null");
+		}
+
+		String key = address.length() == IotaSigning.ADDRESS_LENGTH + IotaSigning.CHECKSUM_LENGTH ? address.substring(0, IotaSigning.ADDRESS_LENGTH) : address;
+
+		if(!Trytes.isTrytes(key, IotaSigning.ADDRESS_LENGTH)) {
+			throw new IllegalArgumentException("Invalid Iota address: " + address);
+		}
+
+		return key;
+	}
+
+	/**
+	 * Indexed address together with the wallet file and key index it belongs to.
+	 */
+	public static class Entry {
+
+		private final String address;
+		private final String walletName;
+		private final int index;
+		private final int security;
+
+		public Entry(String address, String walletName, int index, int security) {
+			this.address = address;
+			this.walletName = walletName;
+			this.index = index;
+			this.security = security;
+		}
+
+		public String getAddress() {
+			return address;
+		}
+
+		public String getWalletName() {
+			return walletName;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public int getSecurity() {
+			return security;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s wallet=%s index=%d security=%d", address, walletName, index, security);
+		}
+	}
+}
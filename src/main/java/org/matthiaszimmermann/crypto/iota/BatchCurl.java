@@ -0,0 +1,161 @@
+package org.matthiaszimmermann.crypto.iota;
+
+/**
+ * Curl-P sponge that hashes up to 64 independent inputs at once.
+ *
+ * The states are bitsliced: trit i of lane k is stored in bit k of low[i] and high[i]
+ * (-1 = (1, 0), 0 = (1, 1), 1 = (0, 1)), so a single pass of word operations transforms
+ * all lanes together. Lanes that are not used are simply ignored.
+ * Instances are not thread safe.
+ */
+public class BatchCurl {
+
+	public static final int LANES = 64;
+
+	private static final long ALL_ONES = 0xffffffffffffffffL;
+
+	private static final int [] INDEXES = new int[Curl.STATE_LENGTH + 1];
+
+	static {
+		for(int i = 0; i < INDEXES.length; i++) {
+			INDEXES[i] = (int)((364L * i) % Curl.STATE_LENGTH);
+		}
+	}
+
+	private final int rounds;
+	private long [] low = new long[Curl.STATE_LENGTH];
+	private long [] high = new long[Curl.STATE_LENGTH];
+	private long [] scratchLow = new long[Curl.STATE_LENGTH];
+	private long [] scratchHigh = new long[Curl.STATE_LENGTH];
+
+	public BatchCurl() {
+		this(Curl.ROUNDS_P81);
+	}
+
+	public BatchCurl(int rounds) {
+		if(rounds != Curl.ROUNDS_P27 && rounds != Curl.ROUNDS_P81) {
+			throw new IllegalArgumentException("Unsupported number of rounds " + rounds);
+		}
+
+		this.rounds = rounds;
+		reset();
+	}
+
+	/**
+	 * Resets all lanes to the all zero state.
+	 */
+	public void reset() {
+		for(int i = 0; i < Curl.STATE_LENGTH; i++) {
+			low[i] = ALL_ONES;
+			high[i] = ALL_ONES;
+		}
+	}
+
+	/**
+	 * Absorbs the specified range of trits[k] into lane k for every provided lane.
+	 */
+	public void absorb(int [][] trits, int offset, int length) {
+		checkLanes(trits);
+
+		do {
+			int chunk = Math.min(length, Sponge.HASH_LENGTH);
+
+			for(int i = 0; i < chunk; i++) {
+				long l = low[i];
+				long h = high[i];
+
+				for(int lane = 0; lane < trits.length; lane++) {
+					long bit = 1L << lane;
+					int trit = trits[lane][offset + i];
+
+					l = trit == 1 ? l & ~bit : l | bit;
+					h = trit == -1 ? h & ~bit : h | bit;
+				}
+
+				low[i] = l;
+				high[i] = h;
+			}
+
+			transform();
+			offset += Sponge.HASH_LENGTH;
+		} 
+		while((length -= Sponge.HASH_LENGTH) > 0);
+	}
+
+	/**
+	 * Squeezes the specified number of trits of lane k into trits[k] for every provided lane.
+	 */
+	public void squeeze(int [][] trits, int offset, int length) {
+		checkLanes(trits);
+
+		do {
+			int chunk = Math.min(length, Sponge.HASH_LENGTH);
+
+			for(int i = 0; i < chunk; i++) {
+				for(int lane = 0; lane < trits.length; lane++) {
+					trits[lane][offset + i] = trit(low[i], high[i], lane);
+				}
+			}
+
+			transform();
+			offset += Sponge.HASH_LENGTH;
+		} 
+		while((length -= Sponge.HASH_LENGTH) > 0);
+	}
+
+	/**
+	 * Replaces the state of all lanes with the provided bitsliced state.
+	 */
+	public void setState(long [] stateLow, long [] stateHigh) {
+		System.arraycopy(stateLow, 0, low, 0, Curl.STATE_LENGTH);
+		System.arraycopy(stateHigh, 0, high, 0, Curl.STATE_LENGTH);
+	}
+
+	/**
+	 * Copies the bitsliced state of all lanes into the provided arrays.
+	 */
+	public void getState(long [] stateLow, long [] stateHigh) {
+		System.arraycopy(low, 0, stateLow, 0, Curl.STATE_LENGTH);
+		System.arraycopy(high, 0, stateHigh, 0, Curl.STATE_LENGTH);
+	}
+
+	/**
+	 * Applies the Curl-P transformation to all lanes.
+	 */
+	public void transform() {
+		for(int round = 0; round < rounds; round++) {
+			long [] previousLow = low;
+			long [] previousHigh = high;
+			low = scratchLow;
+			high = scratchHigh;
+			scratchLow = previousLow;
+			scratchHigh = previousHigh;
+
+			for(int i = 0; i < Curl.STATE_LENGTH; i++) {
+				int a = INDEXES[i];
+				int b = INDEXES[i + 1];
+
+				long alpha = previousLow[a];
+				long beta = previousHigh[a];
+				long gamma = previousHigh[b];
+				long delta = (alpha | ~gamma) & (previousLow[b] ^ beta);
+
+				low[i] = ~delta;
+				high[i] = (alpha ^ gamma) | delta;
+			}
+		}
+	}
+
+	static int trit(long low, long high, int lane) {
+		int l = (int)(low >>> lane) & 1;
+		int h = (int)(high >>> lane) & 1;
+
+		return h - l;
+	}
+
+	private static void checkLanes(int [][] trits) {
+		if(trits.length == 0 || trits.length > LANES) {
+			throw new IllegalArgumentException(String.format("Number of lanes must be in the range 1-%d but is %d", LANES, trits.length));
+		}
+	}
+}
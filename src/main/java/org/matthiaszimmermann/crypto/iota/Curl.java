@@ -0,0 +1,95 @@
+package org.matthiaszimmermann.crypto.iota;
+
+/**
+ * Curl-P sponge with 27 or 81 rounds.
+ * The permutation index table is computed once per class and the two state buffers are swapped
+ * between rounds, so transforming the state neither copies nor allocates any memory.
+ * Instances are not thread safe.
+ */
+public class Curl implements Sponge {
+
+	public static final int ROUNDS_P27 = 27;
+	public static final int ROUNDS_P81 = 81;
+
+	public static final int STATE_LENGTH = 3 * HASH_LENGTH;
+
+	private static final int [] TRUTH_TABLE = {1, 0, -1, 2, 1, -1, 0, 2, -1, 1, 0};
+
+	// the i-th new trit depends on the old trits at INDEXES[i] and INDEXES[i + 1]
+	private static final int [] INDEXES = new int[STATE_LENGTH + 1];
+
+	static {
+		for(int i = 0; i < INDEXES.length; i++) {
+			INDEXES[i] = (int)((364L * i) % STATE_LENGTH);
+		}
+	}
+
+	private final int rounds;
+	private int [] state = new int[STATE_LENGTH];
+	private int [] scratchpad = new int[STATE_LENGTH];
+
+	public Curl() {
+		this(ROUNDS_P81);
+	}
+
+	public Curl(int rounds) {
+		if(rounds != ROUNDS_P27 && rounds != ROUNDS_P81) {
+			throw new IllegalArgumentException("Unsupported number of rounds " + rounds);
+		}
+
+		this.rounds = rounds;
+	}
+
+	@Override
+	public void reset() {
+		for(int i = 0; i < STATE_LENGTH; i++) {
+			state[i] = 0;
+		}
+	}
+
+	@Override
+	public void absorb(int [] trits, int offset, int length) {
+		do {
+			System.arraycopy(trits, offset, state, 0, Math.min(length, HASH_LENGTH));
+			transform();
+			offset += HASH_LENGTH;
+		} 
+		while((length -= HASH_LENGTH) > 0);
+	}
+
+	@Override
+	public void squeeze(int [] trits, int offset, int length) {
+		do {
+			System.arraycopy(state, 0, trits, offset, Math.min(length, HASH_LENGTH));
+			transform();
+			offset += HASH_LENGTH;
+		} 
+		while((length -= HASH_LENGTH) > 0);
+	}
+
+	/**
+	 * Returns a copy of the internal state.
+	 */
+	public int [] getState() {
+		return state.clone();
+	}
+
+	/**
+	 * Replaces the internal state with the provided state.
+	 */
+	public void setState(int [] trits) {
+		System.arraycopy(trits, 0, state, 0, STATE_LENGTH);
+	}
+
+	private void transform() {
+		for(int round = 0; round < rounds; round++) {
+			int [] previous = state;
+			state = scratchpad;
+			scratchpad = previous;
+
+			for(int i = 0; i < STATE_LENGTH; i++) {
+				state[i] = TRUTH_TABLE[previous[INDEXES[i]] + (previous[INDEXES[i + 1]] << 2) + 5];
+			}
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package org.matthiaszimmermann.crypto.iota;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -10,7 +12,7 @@ import org.matthiaszimmermann.crypto.core.Protocol;
 import org.matthiaszimmermann.crypto.core.Technology;
 import org.matthiaszimmermann.crypto.core.Wallet;
 
-// TODO transfer creation /w offline signing
+// offline transfer creation and signing: see IotaBundle
 // http://ogrelab.ikratko.com/sending-new-transfer-to-iota-node-using-java-aka-sendtransfer/
 public class Iota extends Protocol {
 	
@@ -35,6 +37,12 @@ public class Iota extends Protocol {
 		return new IotaWallet(mnemonicWords, passPhase, getNetwork());
 	}
 
+	@Override
+	public Wallet createWallet(List<String> mnemonicWords, String passPhase, int accountCount) {
+		validateMnemonicWords(mnemonicWords);
+		return new IotaWallet(mnemonicWords, passPhase, getNetwork(), accountCount);
+	}
+
 	@Override
 	public Wallet restoreWallet(JSONObject walletJson, String passPhrase) {
 		try {
@@ -51,6 +59,26 @@ public class Iota extends Protocol {
 		return new IotaAccount(mnemonicWords, passPhrase, network);
 	}	
 
+	/**
+	 * Creates the accounts for the key indexes 0..count-1 of the seed of the provided mnemonic.
+	 * The seed is derived once and the addresses are derived in parallel.
+	 */
+	@Override
+	public List<Account> createAccounts(List<String> mnemonicWords, String passPhrase, int count) {
+		validateMnemonicWords(mnemonicWords);
+		checkAccountCount(count);
+
+		IotaAccount first = new IotaAccount(mnemonicWords, passPhrase, getNetwork());
+		Account [] accounts = new Account[count];
+		accounts[0] = first;
+
+		IntStream.range(1, count)
+		.parallel()
+		.forEach(i -> accounts[i] = new IotaAccount(first.getSecret(), i, passPhrase, getNetwork()));
+
+		return Arrays.asList(accounts);
+	}
+
 	@Override
 	public Account restoreAccount(JSONObject accountJson, String passPhrase) {
 		try {
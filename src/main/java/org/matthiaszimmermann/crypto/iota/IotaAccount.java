@@ -1,18 +1,17 @@
 package org.matthiaszimmermann.crypto.iota;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.matthiaszimmermann.crypto.core.Account;
 import org.matthiaszimmermann.crypto.core.Network;
+import org.matthiaszimmermann.crypto.utility.Pbkdf2Utility;
 
-import jota.error.ArgumentException;
-import jota.pow.ICurl;
-import jota.pow.JCurl;
-import jota.pow.SpongeFactory;
-import jota.utils.IotaAPIUtils; 
 
 public class IotaAccount extends Account {
 
@@ -21,15 +20,46 @@ public class IotaAccount extends Account {
 	private static final int PBKDF2_ROUNDS = 2048;
 	private static final String SALT_PREFIX = "mnemonic";
 
+	public static final int SECURITY_LEVEL_MIN = 1;
+	public static final int SECURITY_LEVEL_MAX = 3;
 	public static final int SECURITY_LEVEL_DEFAULT = 2;
 	public static final boolean CHECKSUM_DEFAULT = true;
 
+	public static final String JSON_INDEX = "index";
+
+	// signing instances keep reusable sponges and buffers, one per (fork join) thread
+	private static final ThreadLocal<IotaSigning> SIGNING = ThreadLocal.withInitial(IotaSigning::new);
+
+	private final int index;
+
 	public IotaAccount(List<String> mnemonic, String passPhrase, Network network) {
-		super(mnemonic, passPhrase, new Iota(network));
+		super(passPhrase, new Iota(network));
+
+		index = 0;
+		setSecret(deriveSecret(mnemonic, getPassPhrase()));
+		setAddress(deriveAddress(getSecret(), network));
 	}
 
 	public IotaAccount(JSONObject accountJson, String passPhrase, Network network) throws JSONException {
-		super(accountJson, passPhrase, new Iota(network));
+		super(passPhrase, new Iota(network));
+
+		index = accountJson.optInt(JSON_INDEX, 0);
+		restore(accountJson);
+	}
+
+	/**
+	 * Constructor for the account with the provided key index of the seed, e.g. for multi account wallets.
+	 */
+	public IotaAccount(String seed, int index, String passPhrase, Network network) {
+		super(passPhrase, new Iota(network));
+
+		if(index < 0) {
+			throw new IllegalArgumentException("Key index must not be negative but is " + index);
+		}
+
+		this.index = index;
+		setSecret(seed);
+		setAddress(deriveAddress(seed, network));
 	}
 
 	//  https://www.reddit.com/r/Iota/comments/70srbt/an_easy_way_to_generate_a_seed_with_java_on/
@@ -40,7 +70,8 @@ public class IotaAccount extends Account {
 		String pass = String.join(" ", words);
 		String salt = SALT_PREFIX + passPhrase;
 
-		byte[] byteSeed = PBKDF2SHA512.derive(pass, salt, PBKDF2_ROUNDS, SEED_LENGTH * 8);
+		// the 11 output blocks are independent, let them run in parallel
+		byte[] byteSeed = Pbkdf2Utility.deriveSha512(pass, salt, PBKDF2_ROUNDS, SEED_LENGTH * 8, true);
 		StringBuffer seed = new StringBuffer();
 
 		for(int i = 0; i < SEED_LENGTH; i++) {
@@ -55,20 +86,95 @@ public class IotaAccount extends Account {
 	// https://github.com/modum-io/tokenapp-keys-iota/blob/master/src/main/java/io/modum/IotaAddressGenerator.java
 	@Override
 	public String deriveAddress(String secret, Network network) {
-		ICurl curl = new JCurl(SpongeFactory.Mode.CURLP81);
-		int index = 0;
-
-		try {			
-			return IotaAPIUtils.newAddress(
-					secret, 
-					IotaAccount.SECURITY_LEVEL_DEFAULT,
-					index, 
-					IotaAccount.CHECKSUM_DEFAULT,
-					curl);
-		} 
-		catch (ArgumentException e) {
-			throw new IllegalArgumentException(e);
+		return deriveAddresses(secret, SECURITY_LEVEL_DEFAULT, index, 1, CHECKSUM_DEFAULT).get(0);
+	}
+
+	/**
+	 * Returns the key index of the account address.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public JSONObject toJson(boolean includePrototolInfo) {
+		try {
+			JSONObject obj = super.toJson(includePrototolInfo);
+
+			if(index > 0) {
+				obj.put(JSON_INDEX, index);
+			}
+
+			return obj;
 		}
+		catch(JSONException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Derives the addresses for the key indexes [startIndex, startIndex + count) of the provided seed.
+	 * The seed is converted to trits only once and the sub seed of each index is obtained by a single
+	 * ternary addition instead of index many increments. Indexes are derived in parallel.
+	 * @param seed the 81 tryte seed
+	 * @param security the security level (1-3)
+	 * @param startIndex the first key index to derive
+	 * @param count the number of addresses to derive
+	 * @param checksum adds the 9 tryte checksum to each address iff true
+	 * @return the addresses ordered by key index
+	 */
+	public static List<String> deriveAddresses(String seed, int security, int startIndex, int count, boolean checksum) {
+		return deriveAddresses(Arrays.asList(seed), security, startIndex, count, checksum).get(0);
+	}
+
+	/**
+	 * Derives the addresses for the key indexes [startIndex, startIndex + count) of all provided seeds.
+	 * All (seed, index) pairs are derived as a single parallel batch, so many seeds with few indexes
+	 * keep all cores busy just like a single seed with many indexes does.
+	 * @param seeds the 81 tryte seeds
+	 * @param security the security level (1-3)
+	 * @param startIndex the first key index to derive
+	 * @param count the number of addresses to derive per seed
+	 * @param checksum adds the 9 tryte checksum to each address iff true
+	 * @return the addresses per seed (in the order of the provided seeds) ordered by key index
+	 */
+	public static List<List<String>> deriveAddresses(List<String> seeds, int security, int startIndex, int count, boolean checksum) {
+		if(security < SECURITY_LEVEL_MIN || security > SECURITY_LEVEL_MAX) {
+			throw new IllegalArgumentException(String.format("Security level must be in the range %d-%d but is %d", SECURITY_LEVEL_MIN, SECURITY_LEVEL_MAX, security));
+		}
+
+		if(startIndex < 0 || count < 0) {
+			throw new IllegalArgumentException("Start index and count must not be negative");
+		}
+
+		int [][] seedTrits = new int[seeds.size()][];
+		String [][] addresses = new String[seeds.size()][count];
+
+		for(int s = 0; s < seeds.size(); s++) {
+			if(!Trytes.isTrytes(seeds.get(s), SEED_LENGTH)) {
+				throw new IllegalArgumentException("Seed must consist of 81 trytes");
+			}
+
+			seedTrits[s] = Trytes.toTrits(seeds.get(s));
+		}
+
+		IntStream.range(0, Math.multiplyExact(seeds.size(), count))
+		.parallel()
+		.forEach(i -> addresses[i / count][i % count] = deriveAddress(seedTrits[i / count], security, startIndex + i % count, checksum));
+
+		List<List<String>> result = new ArrayList<>();
+		for(String [] seedAddresses : addresses) {
+			result.add(Arrays.asList(seedAddresses));
+		}
+
+		return result;
+	}
+
+	private static String deriveAddress(int [] seedTrits, int security, int index, boolean checksum) {
+		IotaSigning signing = SIGNING.get();
+		String address = signing.address(seedTrits, index, security);
+
+		return checksum ? signing.addChecksum(address) : address;
 	}
 
 	/**
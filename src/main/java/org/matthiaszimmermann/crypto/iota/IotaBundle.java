@@ -0,0 +1,337 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Offline creation and signing of Iota transfer bundles (compatible with jota's prepareTransfers).
+ *
+ * Outputs are placed first, followed by one transaction per security level for each input and an optional
+ * remainder output. As in jota, input and remainder transactions get the tag of the last output. The signatures
+ * of all inputs are computed in parallel. The signed transactions are returned as trytes in the order expected by
+ * attachToTangle (last transaction first). Trunk, branch, attachment timestamps and nonce are left empty for the
+ * online node.
+ */
+public class IotaBundle {
+
+	public static final int SIGNATURE_LENGTH = 2187;
+	public static final int TAG_LENGTH = 27;
+	public static final int TRANSACTION_LENGTH = 2673;
+
+	private static final int VALUE_LENGTH = 27;
+	private static final int TIMESTAMP_LENGTH = 9;
+	private static final int NONCE_LENGTH = 27;
+	private static final int ESSENCE_LENGTH = 162;
+
+	// signing instances keep reusable sponges and buffers, one per (fork join) thread
+	private static final ThreadLocal<IotaSigning> SIGNING = ThreadLocal.withInitial(IotaSigning::new);
+
+	private final String seed;
+	private final List<Transaction> outputs = new ArrayList<>();
+	private final List<Input> inputs = new ArrayList<>();
+	private String remainderAddress = null;
+	private long timestamp = System.currentTimeMillis() / 1000;
+
+	private List<Transaction> transactions = null;
+	private String bundleHash = null;
+
+	/**
+	 * Creates an empty bundle for inputs of the provided seed.
+	 */
+	public IotaBundle(String seed) {
+		if(!Trytes.isTrytes(seed, IotaAccount.SEED_LENGTH)) {
+			throw new IllegalArgumentException("Seed must consist of 81 trytes");
+		}
+
+		this.seed = seed;
+	}
+
+	/**
+	 * Adds an output transfer.
+	 * @param address the 81 or 90 (with checksum) tryte recipient address
+	 * @param value the positive value to transfer
+	 * @param tag the tag of up to 27 trytes (may be empty)
+	 */
+	public IotaBundle addOutput(String address, long value, String tag) {
+		if(value <= 0) {
+			throw new IllegalArgumentException("Output value must be positive but is " + value);
+		}
+
+		outputs.add(new Transaction(toAddress(address), value, toTag(tag)));
+		transactions = null;
+		return this;
+	}
+
+	/**
+	 * Adds an input of the seed.
+	 * @param index the key index of the input address
+	 * @param security the security level of the input address
+	 * @param balance the full balance of the input address
+	 */
+	public IotaBundle addInput(int index, int security, long balance) {
+		if(index < 0) {
+			throw new IllegalArgumentException("Key index must not be negative but is " + index);
+		}
+
+		if(balance <= 0) {
+			throw new IllegalArgumentException("Input balance must be positive but is " + balance);
+		}
+
+		inputs.add(new Input(index, security, balance));
+		transactions = null;
+		return this;
+	}
+
+	/**
+	 * Sets the address that receives the difference between the input balances and the output values.
+	 */
+	public IotaBundle setRemainderAddress(String address) {
+		remainderAddress = toAddress(address);
+		transactions = null;
+		return this;
+	}
+
+	/**
+	 * Sets the timestamp (seconds since epoch) of all transactions.
+	 */
+	public IotaBundle setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+		transactions = null;
+		return this;
+	}
+
+	/**
+	 * Builds, finalizes and signs the bundle.
+	 * @return the transaction trytes, last transaction first
+	 */
+	public List<String> sign() {
+		build();
+		finalizeBundle();
+
+		int [] normalizedBundle = IotaSigning.normalizedBundle(bundleHash);
+		int [] seedTrits = Trytes.toTrits(seed);
+		int [] firstTransaction = new int[inputs.size()];
+
+		for(int i = 0, position = outputs.size(); i < inputs.size(); i++) {
+			firstTransaction[i] = position;
+			position += inputs.get(i).security;
+		}
+
+		IntStream.range(0, inputs.size())
+		.parallel()
+		.forEach(i -> {
+			Input input = inputs.get(i);
+			int [][] signature = SIGNING.get().signatureFragments(seedTrits, input.index, input.security, normalizedBundle);
+
+			for(int s = 0; s < signature.length; s++) {
+				transactions.get(firstTransaction[i] + s).signature = Trytes.fromTrits(signature[s]);
+			}
+		});
+
+		List<String> trytes = new ArrayList<>();
+		for(Transaction transaction : transactions) {
+			trytes.add(transaction.toTrytes());
+		}
+
+		Collections.reverse(trytes);
+		return trytes;
+	}
+
+	/**
+	 * Returns the bundle hash, available after signing.
+	 */
+	public String getBundleHash() {
+		return bundleHash;
+	}
+
+	private void build() {
+		if(outputs.isEmpty() || inputs.isEmpty()) {
+			throw new IllegalArgumentException("Bundle needs at least one input and one output");
+		}
+
+		long outputValue = 0;
+		for(Transaction output : outputs) {
+			outputValue += output.value;
+		}
+
+		long inputValue = 0;
+		for(Input input : inputs) {
+			inputValue += input.balance;
+		}
+
+		if(inputValue < outputValue) {
+			throw new IllegalArgumentException(String.format("Input balance %d is not sufficient for output value %d", inputValue, outputValue));
+		}
+
+		if(inputValue > outputValue && remainderAddress == null) {
+			throw new IllegalArgumentException(String.format("Remainder address required for remainder %d", inputValue - outputValue));
+		}
+
+		transactions = new ArrayList<>(outputs);
+		String tag = outputs.isEmpty() ? Trytes.pad("", TAG_LENGTH) : outputs.get(outputs.size() - 1).tag;
+
+		// input addresses are derived in parallel, too
+		int [] seedTrits = Trytes.toTrits(seed);
+		String [] addresses = new String[inputs.size()];
+
+		IntStream.range(0, inputs.size())
+		.parallel()
+		.forEach(i -> addresses[i] = SIGNING.get().address(seedTrits, inputs.get(i).index, inputs.get(i).security));
+
+		for(int i = 0; i < inputs.size(); i++) {
+			Input input = inputs.get(i);
+			transactions.add(new Transaction(addresses[i], -input.balance, tag));
+
+			for(int s = 1; s < input.security; s++) {
+				transactions.add(new Transaction(addresses[i], 0, tag));
+			}
+		}
+
+		if(inputValue > outputValue) {
+			transactions.add(new Transaction(remainderAddress, inputValue - outputValue, tag));
+		}
+
+		for(int i = 0; i < transactions.size(); i++) {
+			Transaction transaction = transactions.get(i);
+			transaction.obsoleteTag = transaction.tag;
+			transaction.timestamp = timestamp;
+			transaction.currentIndex = i;
+			transaction.lastIndex = transactions.size() - 1;
+			transaction.signature = Trytes.pad("", SIGNATURE_LENGTH);
+		}
+	}
+
+	// computes the bundle hash, the obsolete tag of the first transaction is incremented until
+	// the normalized hash contains no 13 ('M') which would reveal an unhashed key chunk
+	private void finalizeBundle() {
+		Kerl kerl = new Kerl();
+		int [] essence = new int[ESSENCE_LENGTH * Trytes.TRITS_PER_TRYTE];
+		int [] hash = new int[Sponge.HASH_LENGTH];
+
+		while(true) {
+			kerl.reset();
+
+			for(Transaction transaction : transactions) {
+				Trytes.toTrits(transaction.essence(), essence, 0);
+				kerl.absorb(essence, 0, essence.length);
+			}
+
+			kerl.squeeze(hash, 0, hash.length);
+			String hashTrytes = Trytes.fromTrits(hash);
+
+			int increments = 0;
+			for(int value : IotaSigning.normalizedBundle(hashTrytes)) {
+				if(value == IotaSigning.MAX_TRYTE_VALUE) {
+					increments++;
+				}
+			}
+
+			if(increments == 0) {
+				bundleHash = hashTrytes;
+				break;
+			}
+
+			Transaction first = transactions.get(0);
+			int [] tagTrits = Trytes.toTrits(first.obsoleteTag);
+			for(int i = 0; i < increments; i++) {
+				tagTrits = IotaSigning.addIndex(tagTrits, 1);
+			}
+			first.obsoleteTag = Trytes.fromTrits(tagTrits);
+		}
+
+		for(Transaction transaction : transactions) {
+			transaction.bundle = bundleHash;
+		}
+	}
+
+	private static String toAddress(String address) {
+		if(address != null && address.length() == IotaSigning.ADDRESS_LENGTH + IotaSigning.CHECKSUM_LENGTH) {
+			String plain = address.substring(0, IotaSigning.ADDRESS_LENGTH);
+
+			if(!address.equals(SIGNING.get().addChecksum(plain))) {
+				throw new IllegalArgumentException("Invalid address checksum: " + address);
+			}
+
+			return plain;
+		}
+
+		if(!Trytes.isTrytes(address, IotaSigning.ADDRESS_LENGTH)) {
+			throw new IllegalArgumentException("Invalid Iota address: " + address);
+		}
+
+		return address;
+	}
+
+	private static String toTag(String tag) {
+		String padded = Trytes.pad(tag == null ? "" : tag, TAG_LENGTH);
+
+		if(!Trytes.isTrytes(padded, TAG_LENGTH)) {
+			throw new IllegalArgumentException("Invalid tag: " + tag);
+		}
+
+		return padded;
+	}
+
+	private static class Input {
+
+		private final int index;
+		private final int security;
+		private final long balance;
+
+		private Input(int index, int security, long balance) {
+			if(security < IotaAccount.SECURITY_LEVEL_MIN || security > IotaAccount.SECURITY_LEVEL_MAX) {
+				throw new IllegalArgumentException(String.format("Security level must be in the range %d-%d but is %d", IotaAccount.SECURITY_LEVEL_MIN, IotaAccount.SECURITY_LEVEL_MAX, security));
+			}
+
+			this.index = index;
+			this.security = security;
+			this.balance = balance;
+		}
+	}
+
+	private static class Transaction {
+
+		private final String address;
+		private final long value;
+		private final String tag;
+		private String obsoleteTag;
+		private long timestamp;
+		private int currentIndex;
+		private int lastIndex;
+		private String signature;
+		private String bundle;
+
+		private Transaction(String address, long value, String tag) {
+			this.address = address;
+			this.value = value;
+			this.tag = tag;
+		}
+
+		private String essence() {
+			return address
+					+ Trytes.fromLong(value, VALUE_LENGTH)
+					+ obsoleteTag
+					+ Trytes.fromLong(timestamp, TIMESTAMP_LENGTH)
+					+ Trytes.fromLong(currentIndex, TIMESTAMP_LENGTH)
+					+ Trytes.fromLong(lastIndex, TIMESTAMP_LENGTH);
+		}
+
+		private String toTrytes() {
+			String emptyHash = Trytes.pad("", IotaSigning.ADDRESS_LENGTH);
+			String emptyTimestamp = Trytes.pad("", TIMESTAMP_LENGTH);
+
+			return signature
+					+ essence()
+					+ bundle
+					+ emptyHash // trunk
+					+ emptyHash // branch
+					+ tag
+					+ emptyTimestamp // attachment timestamp
+					+ emptyTimestamp // lower bound
+					+ emptyTimestamp // upper bound
+					+ Trytes.pad("", NONCE_LENGTH);
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Validates signed Iota bundles: structure, bundle hash, input signatures and addresses.
+ * Instances keep a signing instance with reusable buffers and are not thread safe.
+ */
+public class IotaBundleValidator {
+
+	public static final String JSON_SOURCE = "source";
+	public static final String JSON_BUNDLE = "bundle";
+	public static final String JSON_TRANSACTIONS = "transactions";
+	public static final String JSON_VALID = "valid";
+	public static final String JSON_ERRORS = "errors";
+	public static final String JSON_ADDRESSES = "addresses";
+
+	private static final int OFFSET_ADDRESS = IotaBundle.SIGNATURE_LENGTH;
+	private static final int OFFSET_VALUE = OFFSET_ADDRESS + IotaSigning.ADDRESS_LENGTH;
+	private static final int OFFSET_CURRENT_INDEX = 2331;
+	private static final int OFFSET_LAST_INDEX = 2340;
+	private static final int OFFSET_BUNDLE = 2349;
+	private static final int ESSENCE_LENGTH = 162;
+
+	// values use the lowest 33 of the 81 value trits, larger values are invalid as in IRI
+	public static final int VALUE_TRITS = 33;
+	public static final long MAX_SUPPLY = 2779530283277761L;
+
+	private final IotaSigning signing = new IotaSigning();
+	private final Kerl kerl = new Kerl();
+
+	/**
+	 * Groups the provided transactions by bundle hash (in order of appearance).
+	 * Transactions that are not 2673 trytes long are collected under the empty key.
+	 */
+	public static Map<String, List<String>> groupByBundle(List<String> transactions) {
+		Map<String, List<String>> bundles = new LinkedHashMap<>();
+
+		for(String transaction : transactions) {
+			String bundle = Trytes.isTrytes(transaction, IotaBundle.TRANSACTION_LENGTH) ? transaction.substring(OFFSET_BUNDLE, OFFSET_BUNDLE + IotaSigning.ADDRESS_LENGTH) : "";
+			bundles.computeIfAbsent(bundle, key -> new ArrayList<>()).add(transaction);
+		}
+
+		return bundles;
+	}
+
+	/**
+	 * Validates the transactions of a single bundle (in any order).
+	 * @param source a label for the result, e.g. the file the bundle was read from
+	 */
+	public Result validate(String source, List<String> trytes) {
+		Result result = new Result(source, trytes.size());
+
+		for(String transaction : trytes) {
+			if(!Trytes.isTrytes(transaction, IotaBundle.TRANSACTION_LENGTH)) {
+				result.error("transaction is not a string of 2673 trytes");
+				return result;
+			}
+		}
+
+		List<String> transactions = new ArrayList<>(trytes);
+		transactions.sort(Comparator.comparingLong(transaction -> field(transaction, OFFSET_CURRENT_INDEX, 9)));
+
+		String bundleHash = transactions.get(0).substring(OFFSET_BUNDLE, OFFSET_BUNDLE + IotaSigning.ADDRESS_LENGTH);
+		result.bundle = bundleHash;
+
+		if(!validateStructure(transactions, bundleHash, result)) {
+			return result;
+		}
+
+		// bundle hash over the transaction essences
+		int [] essence = new int[ESSENCE_LENGTH * Trytes.TRITS_PER_TRYTE];
+		int [] hash = new int[Sponge.HASH_LENGTH];
+
+		kerl.reset();
+		for(String transaction : transactions) {
+			Trytes.toTrits(transaction.substring(OFFSET_ADDRESS, OFFSET_ADDRESS + ESSENCE_LENGTH), essence, 0);
+			kerl.absorb(essence, 0, essence.length);
+		}
+		kerl.squeeze(hash, 0, hash.length);
+
+		if(!Trytes.fromTrits(hash).equals(bundleHash)) {
+			result.error("bundle hash mismatch");
+			return result;
+		}
+
+		int [] normalizedBundle = IotaSigning.normalizedBundle(bundleHash);
+		for(int value : normalizedBundle) {
+			if(value == IotaSigning.MAX_TRYTE_VALUE) {
+				result.error("insecure bundle hash (normalized hash contains 'M')");
+				return result;
+			}
+		}
+
+		validateSignatures(transactions, normalizedBundle, result);
+
+		return result;
+	}
+
+	private boolean validateStructure(List<String> transactions, String bundleHash, Result result) {
+		long sum = 0;
+		int lastIndex = transactions.size() - 1;
+
+		for(int i = 0; i < transactions.size(); i++) {
+			String transaction = transactions.get(i);
+			String address = address(transaction);
+
+			if(!transaction.substring(OFFSET_BUNDLE, OFFSET_BUNDLE + IotaSigning.ADDRESS_LENGTH).equals(bundleHash)) {
+				result.error(String.format("transaction %d belongs to another bundle", i));
+			}
+
+			if(field(transaction, OFFSET_CURRENT_INDEX, 9) != i || field(transaction, OFFSET_LAST_INDEX, 9) != lastIndex) {
+				result.error(String.format("transaction %d has invalid current or last index", i));
+			}
+
+			int [] valueTrits = Trytes.toTrits(transaction.substring(OFFSET_VALUE, OFFSET_VALUE + 27));
+			long value = Trytes.toLong(valueTrits, 0, VALUE_TRITS);
+
+			if(!isZero(valueTrits, VALUE_TRITS) || Math.abs(value) > MAX_SUPPLY) {
+				result.error(String.format("transaction %d has invalid value", i));
+				continue;
+			}
+
+			// Kerl addresses of value transactions always end with a 0 trit
+			if(value != 0 && Trytes.toTrits(address.substring(IotaSigning.ADDRESS_LENGTH - 1))[2] != 0) {
+				result.error(String.format("transaction %d has invalid address %s", i, address));
+			}
+
+			// the supply bound keeps any sum of up to 3^9 values in range, overflows are reported nevertheless
+			try {
+				sum = Math.addExact(sum, value);
+			}
+			catch(ArithmeticException e) {
+				result.error(String.format("bundle value overflow at transaction %d", i));
+			}
+
+			result.addresses.add(signing.addChecksum(address));
+		}
+
+		if(sum != 0) {
+			result.error(String.format("bundle values do not sum up to 0 (%d)", sum));
+		}
+
+		return result.errors.isEmpty();
+	}
+
+	private void validateSignatures(List<String> transactions, int [] normalizedBundle, Result result) {
+		for(int i = 0; i < transactions.size(); i++) {
+			String transaction = transactions.get(i);
+
+			if(field(transaction, OFFSET_VALUE, 27) >= 0) {
+				continue;
+			}
+
+			// the signature continues in the following 0 value transactions of the same address
+			String address = address(transaction);
+			List<int []> digests = new ArrayList<>();
+
+			for(int j = i; j < transactions.size() && (j == i || isContinuation(transactions.get(j), address)); j++) {
+				int [] fragment = Trytes.toTrits(transactions.get(j).substring(0, IotaBundle.SIGNATURE_LENGTH));
+				digests.add(signing.signatureDigest(normalizedBundle, j - i, fragment));
+			}
+
+			int [] allDigests = new int[digests.size() * Sponge.HASH_LENGTH];
+			for(int d = 0; d < digests.size(); d++) {
+				System.arraycopy(digests.get(d), 0, allDigests, d * Sponge.HASH_LENGTH, Sponge.HASH_LENGTH);
+			}
+
+			if(!Trytes.fromTrits(signing.address(allDigests)).equals(address)) {
+				result.error(String.format("invalid signature for input %s (transaction %d)", address, i));
+			}
+		}
+	}
+
+	private static boolean isContinuation(String transaction, String address) {
+		return field(transaction, OFFSET_VALUE, 27) == 0 && address(transaction).equals(address);
+	}
+
+	private static boolean isZero(int [] trits, int offset) {
+		for(int i = offset; i < trits.length; i++) {
+			if(trits[i] != 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static String address(String transaction) {
+		return transaction.substring(OFFSET_ADDRESS, OFFSET_ADDRESS + IotaSigning.ADDRESS_LENGTH);
+	}
+
+	private static long field(String transaction, int offset, int length) {
+		return Trytes.toLong(transaction.substring(offset, offset + length));
+	}
+
+	/**
+	 * Validation result of a single bundle.
+	 */
+	public static class Result {
+
+		private final String source;
+		private final int transactions;
+		private final List<String> errors = new ArrayList<>();
+		private final Set<String> addresses = new LinkedHashSet<>();
+		private String bundle = null;
+
+		private Result(String source, int transactions) {
+			this.source = source;
+			this.transactions = transactions;
+		}
+
+		private void error(String message) {
+			errors.add(message);
+		}
+
+		public boolean isValid() {
+			return errors.isEmpty();
+		}
+
+		public String getBundle() {
+			return bundle;
+		}
+
+		public List<String> getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Returns the addresses (with checksum) used in the bundle.
+		 */
+		public List<String> getAddresses() {
+			return new ArrayList<>(addresses);
+		}
+
+		public JSONObject toJson() {
+			try {
+				JSONObject json = new JSONObject();
+				json.put(JSON_SOURCE, source);
+				json.put(JSON_BUNDLE, bundle == null ? JSONObject.NULL : bundle);
+				json.put(JSON_TRANSACTIONS, transactions);
+				json.put(JSON_VALID, isValid());
+				json.put(JSON_ERRORS, new JSONArray(errors));
+				json.put(JSON_ADDRESSES, new JSONArray(getAddresses()));
+				return json;
+			}
+			catch(JSONException e) {
+				throw new RuntimeException("Failed to create validation result json", e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return toJson().toString();
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local proof of work for Iota transactions (nonce search as done by attachToTangle).
+ *
+ * The first 32 chunks of the transaction are absorbed once. Each worker thread then searches its own part
+ * of the nonce space with a bitsliced Curl-P that tries 64 nonces per transformation: the lanes differ in the
+ * first 4 nonce trits, the workers in the next 10 trits and the remaining trits are a counter per worker.
+ * A nonce is valid if the last minWeightMagnitude trits of the transaction hash are 0.
+ */
+public class IotaProofOfWork {
+
+	public static final int MIN_WEIGHT_MAGNITUDE_DEFAULT = 14;
+	public static final int TRANSACTION_TRITS = IotaBundle.TRANSACTION_LENGTH * Trytes.TRITS_PER_TRYTE;
+	public static final int NONCE_TRITS = 81;
+
+	// (3^27 - 1) / 2, upper bound of the attachment timestamp
+	public static final long MAX_TIMESTAMP_VALUE = 3812798742493L;
+
+	// (3^10 - 1) / 2, largest worker id that fits into the worker trits of the nonce
+	public static final int MAX_THREADS = 29524;
+
+	private static final int NONCE_START = Sponge.HASH_LENGTH - NONCE_TRITS;
+	private static final int LANE_TRITS = 4;
+	private static final int WORKER_TRITS = 10;
+	private static final int COUNTER_START = NONCE_START + LANE_TRITS + WORKER_TRITS;
+
+	// workers count their transforms locally and publish them to the shared hash count in steps of this size
+	private static final int PUBLISH_TRANSFORMS = 1024;
+
+	private static final int OFFSET_TRUNK = 2430;
+	private static final int OFFSET_BRANCH = 2511;
+	private static final int OFFSET_ATTACHMENT_TIMESTAMP = 2619;
+	private static final int OFFSET_NONCE = 2646;
+
+	private final int threads;
+	private final LongAdder hashes = new LongAdder();
+	private volatile boolean cancelled = false;
+	private volatile long start = 0;
+	private volatile long end = 0;
+
+	public IotaProofOfWork() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public IotaProofOfWork(int threads) {
+		if(threads < 1 || threads > MAX_THREADS) {
+			throw new IllegalArgumentException("Invalid number of threads " + threads);
+		}
+
+		this.threads = threads;
+	}
+
+	/**
+	 * Searches a nonce for the provided transaction.
+	 * @param transaction the 2673 transaction trytes
+	 * @param minWeightMagnitude the number of trailing 0 trits the transaction hash must have
+	 * @return the transaction trytes with the nonce set or null if the search has been cancelled
+	 */
+	public String search(String transaction, int minWeightMagnitude) {
+		startStatistics();
+
+		try {
+			return searchNonce(transaction, minWeightMagnitude);
+		}
+		finally {
+			end = System.nanoTime();
+		}
+	}
+
+	private String searchNonce(String transaction, int minWeightMagnitude) {
+		if(!Trytes.isTrytes(transaction, IotaBundle.TRANSACTION_LENGTH)) {
+			throw new IllegalArgumentException("Transaction must consist of 2673 trytes");
+		}
+
+		if(minWeightMagnitude < 0 || minWeightMagnitude > Sponge.HASH_LENGTH) {
+			throw new IllegalArgumentException("Invalid min weight magnitude " + minWeightMagnitude);
+		}
+
+		int [] trits = Trytes.toTrits(transaction);
+
+		// absorb all but the last chunk which contains the nonce
+		Curl curl = new Curl();
+		curl.absorb(trits, 0, TRANSACTION_TRITS - Sponge.HASH_LENGTH);
+		int [] midState = curl.getState();
+		System.arraycopy(trits, TRANSACTION_TRITS - Sponge.HASH_LENGTH, midState, 0, Sponge.HASH_LENGTH);
+
+		AtomicReference<int []> nonce = new AtomicReference<>();
+		List<Thread> workers = new ArrayList<>();
+
+		for(int worker = 0; worker < threads; worker++) {
+			final int id = worker;
+			Thread thread = new Thread(() -> search(midState, id, minWeightMagnitude, nonce), "iota-pow-" + id);
+			thread.setDaemon(true);
+			workers.add(thread);
+			thread.start();
+		}
+
+		try {
+			for(Thread thread : workers) {
+				thread.join();
+			}
+		}
+		catch(InterruptedException e) {
+			cancel();
+			Thread.currentThread().interrupt();
+		}
+
+		if(nonce.get() == null) {
+			return null;
+		}
+
+		return transaction.substring(0, OFFSET_NONCE) + Trytes.fromTrits(nonce.get());
+	}
+
+	/**
+	 * Attaches the provided bundle to the given tips locally, i.e. sets trunk, branch and attachment
+	 * timestamps and searches the nonce of each transaction.
+	 * @param trytes the transaction trytes, last transaction first (as returned by IotaBundle)
+	 * @return the attached transaction trytes in the same order or null if the search has been cancelled
+	 */
+	public List<String> attach(List<String> trytes, String trunkTransaction, String branchTransaction, int minWeightMagnitude) {
+		if(!Trytes.isTrytes(trunkTransaction, IotaSigning.ADDRESS_LENGTH) || !Trytes.isTrytes(branchTransaction, IotaSigning.ADDRESS_LENGTH)) {
+			throw new IllegalArgumentException("Trunk and branch transaction must consist of 81 trytes");
+		}
+
+		startStatistics();
+
+		try {
+			return attachBundle(trytes, trunkTransaction, branchTransaction, minWeightMagnitude);
+		}
+		finally {
+			end = System.nanoTime();
+		}
+	}
+
+	private List<String> attachBundle(List<String> trytes, String trunkTransaction, String branchTransaction, int minWeightMagnitude) {
+		List<String> attached = new ArrayList<>();
+		String previous = null;
+
+		for(String transaction : trytes) {
+			String trunk = previous == null ? trunkTransaction : previous;
+			String branch = previous == null ? branchTransaction : trunkTransaction;
+			String timestamps = Trytes.fromLong(System.currentTimeMillis(), 9) + Trytes.fromLong(0, 9) + Trytes.fromLong(MAX_TIMESTAMP_VALUE, 9);
+
+			String prepared = transaction.substring(0, OFFSET_TRUNK) 
+					+ trunk 
+					+ branch 
+					+ transaction.substring(OFFSET_BRANCH + IotaSigning.ADDRESS_LENGTH, OFFSET_ATTACHMENT_TIMESTAMP) 
+					+ timestamps 
+					+ transaction.substring(OFFSET_NONCE);
+
+			String result = searchNonce(prepared, minWeightMagnitude);
+			if(result == null) {
+				return null;
+			}
+
+			attached.add(result);
+			previous = transactionHash(result);
+		}
+
+		return attached;
+	}
+
+	private void startStatistics() {
+		cancelled = false;
+		hashes.reset();
+		start = System.nanoTime();
+		end = 0;
+	}
+
+	/**
+	 * Stops a running search.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns the number of hashes computed by the current or last search (or attachment).
+	 */
+	public long getHashCount() {
+		return hashes.sum();
+	}
+
+	/**
+	 * Returns the hashes per second of the current or last search (or attachment).
+	 */
+	public double getHashRate() {
+		long stop = end != 0 ? end : System.nanoTime();
+		double seconds = (stop - start) / 1e9;
+		return seconds > 0 ? hashes.sum() / seconds : 0;
+	}
+
+	/**
+	 * Returns the Curl-P hash of the provided transaction trytes.
+	 */
+	public static String transactionHash(String transaction) {
+		int [] trits = Trytes.toTrits(transaction);
+		int [] hash = new int[Sponge.HASH_LENGTH];
+
+		Curl curl = new Curl();
+		curl.absorb(trits, 0, trits.length);
+		curl.squeeze(hash, 0, hash.length);
+
+		return Trytes.fromTrits(hash);
+	}
+
+	private void search(int [] midState, int worker, int minWeightMagnitude, AtomicReference<int []> nonce) {
+		long [] low = new long[Curl.STATE_LENGTH];
+		long [] high = new long[Curl.STATE_LENGTH];
+		long [] hashLow = new long[Curl.STATE_LENGTH];
+		long [] hashHigh = new long[Curl.STATE_LENGTH];
+
+		for(int i = 0; i < Curl.STATE_LENGTH; i++) {
+			setTrit(low, high, i, midState[i]);
+		}
+
+		// lanes: the first nonce trits hold the (centered) lane number
+		for(int t = 0; t < LANE_TRITS; t++) {
+			low[NONCE_START + t] = 0;
+			high[NONCE_START + t] = 0;
+		}
+
+		for(int lane = 0; lane < BatchCurl.LANES; lane++) {
+			int [] laneTrits = Trytes.toTrits(lane - BatchCurl.LANES / 2, LANE_TRITS);
+
+			for(int t = 0; t < LANE_TRITS; t++) {
+				low[NONCE_START + t] |= (laneTrits[t] == 1 ? 0L : 1L) << lane;
+				high[NONCE_START + t] |= (laneTrits[t] == -1 ? 0L : 1L) << lane;
+			}
+		}
+
+		int [] workerTrits = Trytes.toTrits(worker, WORKER_TRITS);
+		for(int t = 0; t < WORKER_TRITS; t++) {
+			setTrit(low, high, NONCE_START + LANE_TRITS + t, workerTrits[t]);
+		}
+
+		// the counter trits start at 0 and are incremented in place, the same value in all lanes
+		for(int t = COUNTER_START; t < Sponge.HASH_LENGTH; t++) {
+			setTrit(low, high, t, 0);
+		}
+
+		BatchCurl curl = new BatchCurl();
+		long transforms = 0;
+
+		try {
+			while(!cancelled && nonce.get() == null) {
+				curl.setState(low, high);
+				curl.transform();
+				curl.getState(hashLow, hashHigh);
+
+				if(++transforms == PUBLISH_TRANSFORMS) {
+					hashes.add(transforms * BatchCurl.LANES);
+					transforms = 0;
+				}
+
+				// a lane is valid iff all required hash trits are 0, i.e. both bits are set
+				long valid = -1L;
+				for(int i = Sponge.HASH_LENGTH - minWeightMagnitude; i < Sponge.HASH_LENGTH && valid != 0; i++) {
+					valid &= hashLow[i] & hashHigh[i];
+				}
+
+				if(valid != 0) {
+					int lane = Long.numberOfTrailingZeros(valid);
+					int [] found = new int[NONCE_TRITS];
+
+					for(int t = 0; t < NONCE_TRITS; t++) {
+						found[t] = BatchCurl.trit(low[NONCE_START + t], high[NONCE_START + t], lane);
+					}
+
+					nonce.compareAndSet(null, found);
+					return;
+				}
+
+				incrementCounter(low, high);
+			}
+		}
+		finally {
+			hashes.add(transforms * BatchCurl.LANES);
+		}
+	}
+
+	// adds 1 to the balanced ternary counter trits, only the trits up to the last carry are written
+	private static void incrementCounter(long [] low, long [] high) {
+		for(int i = COUNTER_START; i < Sponge.HASH_LENGTH; i++) {
+			if(low[i] == 0) {
+				// 1 + 1 = -1, carry 1
+				low[i] = -1L;
+				high[i] = 0;
+			}
+			else if(high[i] == 0) {
+				// -1 + 1 = 0
+				high[i] = -1L;
+				return;
+			}
+			else {
+				// 0 + 1 = 1
+				low[i] = 0;
+				return;
+			}
+		}
+	}
+
+	private static void setTrit(long [] low, long [] high, int index, int trit) {
+		low[index] = trit == 1 ? 0 : -1L;
+		high[index] = trit == -1 ? 0 : -1L;
+	}
+}
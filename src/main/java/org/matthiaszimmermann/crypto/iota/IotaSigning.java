@@ -0,0 +1,362 @@
+package org.matthiaszimmermann.crypto.iota;
+
+/**
+ * Key, digest, address and checksum computation for Iota seeds (compatible with jota's Signing/Checksum).
+ *
+ * With the default Kerl sponge the hash chains of address derivation are computed on the 48 byte
+ * representation of the trits, so trits are only converted once at the start (sub seed) and once
+ * at the end (address). Any other sponge is used through the plain trit interface.
+ * Instances keep reusable buffers and are not thread safe.
+ */
+public class IotaSigning {
+
+	public static final int FRAGMENT_CHUNKS = 27;
+	public static final int FRAGMENT_LENGTH = FRAGMENT_CHUNKS * Sponge.HASH_LENGTH;
+	public static final int HASH_ROUNDS = 26;
+	public static final int ADDRESS_LENGTH = 81;
+	public static final int CHECKSUM_LENGTH = 9;
+	public static final int MAX_TRYTE_VALUE = 13;
+
+	private static final int CHUNK_BYTES = Kerl.BYTE_LENGTH;
+
+	private final Sponge sponge;
+	private final Kerl kerl;
+	private final Kerl keyKerl = new Kerl();
+
+	private final int [] hash = new int[Sponge.HASH_LENGTH];
+	private final byte [] chunk = new byte[CHUNK_BYTES];
+	private final byte [] fragment = new byte[FRAGMENT_CHUNKS * CHUNK_BYTES];
+	private final byte [] digests = new byte[IotaAccount.SECURITY_LEVEL_MAX * CHUNK_BYTES];
+
+	public IotaSigning() {
+		this(new Kerl());
+	}
+
+	public IotaSigning(Sponge sponge) {
+		if(sponge == null) {
+			throw new IllegalArgumentException("Sponge must not be null");
+		}
+
+		this.sponge = sponge;
+		this.kerl = sponge instanceof Kerl ? (Kerl)sponge : null;
+	}
+
+	/**
+	 * Returns the 81 tryte address (without checksum) for the provided seed trits, key index and security level.
+	 */
+	public String address(int [] seedTrits, int index, int security) {
+		checkSecurity(security);
+
+		if(kerl == null) {
+			return Trytes.fromTrits(address(digests(key(seedTrits, index, security))));
+		}
+
+		// sub seed
+		int [] subseed = addIndex(seedTrits, index);
+		kerl.reset();
+		kerl.absorb(subseed, 0, subseed.length);
+		kerl.squeezeBytes(chunk, 0, CHUNK_BYTES);
+
+		// private key fragments are squeezed chunk by chunk and immediately hashed down to their digest
+		keyKerl.reset();
+		keyKerl.absorbBytes(chunk, 0, CHUNK_BYTES);
+
+		for(int s = 0; s < security; s++) {
+			keyKerl.squeezeBytes(fragment, 0, fragment.length);
+
+			for(int offset = 0; offset < fragment.length; offset += CHUNK_BYTES) {
+				for(int round = 0; round < HASH_ROUNDS; round++) {
+					kerl.reset();
+					kerl.absorbBytes(fragment, offset, CHUNK_BYTES);
+					kerl.squeezeBytes(fragment, offset, CHUNK_BYTES);
+				}
+			}
+
+			kerl.reset();
+			kerl.absorbBytes(fragment, 0, fragment.length);
+			kerl.squeezeBytes(digests, s * CHUNK_BYTES, CHUNK_BYTES);
+		}
+
+		kerl.reset();
+		kerl.absorbBytes(digests, 0, security * CHUNK_BYTES);
+		kerl.squeezeBytes(chunk, 0, CHUNK_BYTES);
+		kerl.bytesToTrits(chunk, 0, hash, 0);
+
+		return Trytes.fromTrits(hash);
+	}
+
+	/**
+	 * Returns the signature fragments (one 6561 trit fragment per security level) that sign the provided
+	 * normalized bundle hash with the key of the provided seed trits and key index.
+	 */
+	public int [][] signatureFragments(int [] seedTrits, int index, int security, int [] normalizedBundle) {
+		checkSecurity(security);
+
+		int [][] signature = new int[security][];
+
+		if(kerl == null) {
+			int [] key = key(seedTrits, index, security);
+
+			for(int s = 0; s < security; s++) {
+				int [] fragment = new int[FRAGMENT_LENGTH];
+				System.arraycopy(key, s * FRAGMENT_LENGTH, fragment, 0, FRAGMENT_LENGTH);
+
+				for(int c = 0; c < FRAGMENT_CHUNKS; c++) {
+					int offset = c * Sponge.HASH_LENGTH;
+
+					for(int round = MAX_TRYTE_VALUE - normalizedBundle[bundleChunk(s, c)]; round > 0; round--) {
+						sponge.reset();
+						sponge.absorb(fragment, offset, Sponge.HASH_LENGTH);
+						sponge.squeeze(fragment, offset, Sponge.HASH_LENGTH);
+					}
+				}
+
+				signature[s] = fragment;
+			}
+
+			return signature;
+		}
+
+		int [] subseed = addIndex(seedTrits, index);
+		kerl.reset();
+		kerl.absorb(subseed, 0, subseed.length);
+		kerl.squeezeBytes(chunk, 0, CHUNK_BYTES);
+
+		keyKerl.reset();
+		keyKerl.absorbBytes(chunk, 0, CHUNK_BYTES);
+
+		for(int s = 0; s < security; s++) {
+			keyKerl.squeezeBytes(fragment, 0, fragment.length);
+			signature[s] = new int[FRAGMENT_LENGTH];
+
+			for(int c = 0; c < FRAGMENT_CHUNKS; c++) {
+				int offset = c * CHUNK_BYTES;
+
+				for(int round = MAX_TRYTE_VALUE - normalizedBundle[bundleChunk(s, c)]; round > 0; round--) {
+					kerl.reset();
+					kerl.absorbBytes(fragment, offset, CHUNK_BYTES);
+					kerl.squeezeBytes(fragment, offset, CHUNK_BYTES);
+				}
+
+				kerl.bytesToTrits(fragment, offset, signature[s], c * Sponge.HASH_LENGTH);
+			}
+		}
+
+		return signature;
+	}
+
+	/**
+	 * Returns the digest of the provided signature fragment, i.e. the digest of the key fragment that created it.
+	 * @param normalizedBundle the normalized bundle hash the fragment signs
+	 * @param fragmentIndex the index of the fragment within its signature (0 for the first transaction of an input)
+	 * @param signatureFragment the 6561 signature fragment trits
+	 */
+	public int [] signatureDigest(int [] normalizedBundle, int fragmentIndex, int [] signatureFragment) {
+		int [] digest = new int[Sponge.HASH_LENGTH];
+
+		if(kerl != null) {
+			for(int c = 0; c < FRAGMENT_CHUNKS; c++) {
+				int offset = c * CHUNK_BYTES;
+				kerl.tritsToBytes(signatureFragment, c * Sponge.HASH_LENGTH, fragment, offset);
+
+				for(int round = MAX_TRYTE_VALUE + normalizedBundle[bundleChunk(fragmentIndex, c)]; round > 0; round--) {
+					kerl.reset();
+					kerl.absorbBytes(fragment, offset, CHUNK_BYTES);
+					kerl.squeezeBytes(fragment, offset, CHUNK_BYTES);
+				}
+			}
+
+			kerl.reset();
+			kerl.absorbBytes(fragment, 0, fragment.length);
+			kerl.squeezeBytes(chunk, 0, CHUNK_BYTES);
+			kerl.bytesToTrits(chunk, 0, digest, 0);
+
+			return digest;
+		}
+
+		int [] buffer = signatureFragment.clone();
+
+		for(int c = 0; c < FRAGMENT_CHUNKS; c++) {
+			int offset = c * Sponge.HASH_LENGTH;
+
+			for(int round = MAX_TRYTE_VALUE + normalizedBundle[bundleChunk(fragmentIndex, c)]; round > 0; round--) {
+				sponge.reset();
+				sponge.absorb(buffer, offset, Sponge.HASH_LENGTH);
+				sponge.squeeze(buffer, offset, Sponge.HASH_LENGTH);
+			}
+		}
+
+		sponge.reset();
+		sponge.absorb(buffer, 0, FRAGMENT_LENGTH);
+		sponge.squeeze(digest, 0, Sponge.HASH_LENGTH);
+
+		return digest;
+	}
+
+	/**
+	 * Returns the normalized bundle hash: 81 tryte values where each third sums up to 0.
+	 * Signing reveals 13 - value hashes of each key chunk, normalizing limits what a signature leaks.
+	 */
+	public static int [] normalizedBundle(String bundleHash) {
+		if(!Trytes.isTrytes(bundleHash, ADDRESS_LENGTH)) {
+			throw new IllegalArgumentException("Bundle hash must consist of 81 trytes: " + bundleHash);
+		}
+
+		int [] normalized = new int[ADDRESS_LENGTH];
+
+		for(int i = 0; i < 3; i++) {
+			long sum = 0;
+
+			for(int j = 0; j < FRAGMENT_CHUNKS; j++) {
+				int value = Iota.TRYTE_ALPHABET.indexOf(bundleHash.charAt(i * FRAGMENT_CHUNKS + j));
+				normalized[i * FRAGMENT_CHUNKS + j] = value > MAX_TRYTE_VALUE ? value - 27 : value;
+				sum += normalized[i * FRAGMENT_CHUNKS + j];
+			}
+
+			for(; sum > 0; sum--) {
+				for(int j = 0; j < FRAGMENT_CHUNKS; j++) {
+					if(normalized[i * FRAGMENT_CHUNKS + j] > -MAX_TRYTE_VALUE) {
+						normalized[i * FRAGMENT_CHUNKS + j]--;
+						break;
+					}
+				}
+			}
+
+			for(; sum < 0; sum++) {
+				for(int j = 0; j < FRAGMENT_CHUNKS; j++) {
+					if(normalized[i * FRAGMENT_CHUNKS + j] < MAX_TRYTE_VALUE) {
+						normalized[i * FRAGMENT_CHUNKS + j]++;
+						break;
+					}
+				}
+			}
+		}
+
+		return normalized;
+	}
+
+	/**
+	 * Returns the private key trits (security * 27 chunks of 243 trits) for the provided seed trits and key index.
+	 */
+	public int [] key(int [] seedTrits, int index, int security) {
+		checkSecurity(security);
+
+		int [] subseed = addIndex(seedTrits, index);
+		sponge.reset();
+		sponge.absorb(subseed, 0, subseed.length);
+		sponge.squeeze(subseed, 0, subseed.length);
+
+		sponge.reset();
+		sponge.absorb(subseed, 0, subseed.length);
+
+		int [] key = new int[security * FRAGMENT_LENGTH];
+		for(int offset = 0; offset < key.length; offset += Sponge.HASH_LENGTH) {
+			sponge.squeeze(key, offset, Sponge.HASH_LENGTH);
+		}
+
+		return key;
+	}
+
+	/**
+	 * Returns the digests (one 243 trit hash per key fragment) of the provided private key.
+	 */
+	public int [] digests(int [] key) {
+		int fragments = key.length / FRAGMENT_LENGTH;
+		int [] result = new int[fragments * Sponge.HASH_LENGTH];
+		int [] buffer = new int[FRAGMENT_LENGTH];
+
+		for(int f = 0; f < fragments; f++) {
+			System.arraycopy(key, f * FRAGMENT_LENGTH, buffer, 0, FRAGMENT_LENGTH);
+
+			for(int offset = 0; offset < FRAGMENT_LENGTH; offset += Sponge.HASH_LENGTH) {
+				for(int round = 0; round < HASH_ROUNDS; round++) {
+					sponge.reset();
+					sponge.absorb(buffer, offset, Sponge.HASH_LENGTH);
+					sponge.squeeze(buffer, offset, Sponge.HASH_LENGTH);
+				}
+			}
+
+			sponge.reset();
+			sponge.absorb(buffer, 0, FRAGMENT_LENGTH);
+			sponge.squeeze(result, f * Sponge.HASH_LENGTH, Sponge.HASH_LENGTH);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the address trits for the provided digests.
+	 */
+	public int [] address(int [] digests) {
+		int [] address = new int[Sponge.HASH_LENGTH];
+
+		sponge.reset();
+		sponge.absorb(digests, 0, digests.length);
+		sponge.squeeze(address, 0, Sponge.HASH_LENGTH);
+
+		return address;
+	}
+
+	/**
+	 * Returns the 9 tryte checksum of the provided 81 tryte address. The checksum is always based on Kerl.
+	 */
+	public String checksum(String address) {
+		if(!Trytes.isTrytes(address, ADDRESS_LENGTH)) {
+			throw new IllegalArgumentException("Address must consist of 81 trytes: " + address);
+		}
+
+		Trytes.toTrits(address, hash, 0);
+		keyKerl.reset();
+		keyKerl.absorb(hash, 0, Sponge.HASH_LENGTH);
+		keyKerl.squeeze(hash, 0, Sponge.HASH_LENGTH);
+
+		return Trytes.fromTrits(hash, (ADDRESS_LENGTH - CHECKSUM_LENGTH) * Trytes.TRITS_PER_TRYTE, CHECKSUM_LENGTH * Trytes.TRITS_PER_TRYTE);
+	}
+
+	/**
+	 * Returns the provided 81 tryte address with its 9 tryte checksum appended.
+	 */
+	public String addChecksum(String address) {
+		return address + checksum(address);
+	}
+
+	/**
+	 * Returns the sub seed trits for the provided index, i.e. seed + index in balanced ternary.
+	 * Overflow wraps around the same way as repeated increments of the seed do.
+	 */
+	public static int [] addIndex(int [] seedTrits, int index) {
+		int [] trits = seedTrits.clone();
+		int remaining = index;
+		int carry = 0;
+
+		for(int i = 0; i < trits.length && (remaining != 0 || carry != 0); i++) {
+			int sum = trits[i] + remaining % 3 + carry;
+			remaining /= 3;
+			carry = 0;
+
+			if(sum > 1) {
+				sum -= 3;
+				carry = 1;
+			}
+			else if(sum < -1) {
+				sum += 3;
+				carry = -1;
+			}
+
+			trits[i] = sum;
+		}
+
+		return trits;
+	}
+
+	// signature fragment s signs the third s mod 3 of the normalized bundle hash
+	private static int bundleChunk(int fragmentIndex, int chunk) {
+		return (fragmentIndex % 3) * FRAGMENT_CHUNKS + chunk;
+	}
+
+	private static void checkSecurity(int security) {
+		if(security < IotaAccount.SECURITY_LEVEL_MIN || security > IotaAccount.SECURITY_LEVEL_MAX) {
+			throw new IllegalArgumentException(String.format("Security level must be in the range %d-%d but is %d", IotaAccount.SECURITY_LEVEL_MIN, IotaAccount.SECURITY_LEVEL_MAX, security));
+		}
+	}
+}
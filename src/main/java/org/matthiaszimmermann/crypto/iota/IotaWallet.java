@@ -20,6 +20,10 @@ public class IotaWallet extends Wallet {
 		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Iota, network));
 	}
 
+	public IotaWallet(List<String> mnemonicWords, String passPhrase, Network network, int accountCount) {
+		super(mnemonicWords, passPhrase, ProtocolFactory.getInstance(Technology.Iota, network), accountCount);
+	}
+
 	@Override
 	public String getSecretLabel() {
 		return SECRET_LABEL;
@@ -0,0 +1,298 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import java.math.BigInteger;
+
+import org.matthiaszimmermann.crypto.utility.KeccakUtility;
+
+/**
+ * Kerl sponge (Keccak-384 over 243 trit chunks) as used for Iota addresses and signatures.
+ *
+ * Chunks of 243 trits are mapped to 48 byte big endian two's complement integers (the most
+ * significant trit is ignored). The conversions work on 32 bit limbs and process 19 trits per
+ * multiply/divide step, which avoids the BigInteger arithmetic of the reference implementation.
+ * Callers that only chain Kerl hashes can stay in the byte domain with {@link #absorbBytes} and
+ * {@link #squeezeBytes}. Instances are not thread safe.
+ */
+public class Kerl implements Sponge {
+
+	public static final int BYTE_LENGTH = 48;
+
+	private static final int LIMBS = BYTE_LENGTH / 4;
+	private static final int CHUNK_TRITS = 19;
+	private static final long CHUNK_RADIX = 1162261467L; // 3^19
+	private static final long MASK = 0xffffffffL;
+
+	// 3^242 and (3^242 - 1) / 2 as little endian limbs
+	private static final int [] POW_3_242;
+	private static final int [] HALF_3;
+
+	static {
+		BigInteger pow = BigInteger.valueOf(3).pow(HASH_LENGTH - 1);
+		POW_3_242 = toLimbs(pow);
+		HALF_3 = toLimbs(pow.subtract(BigInteger.ONE).shiftRight(1));
+	}
+
+	private final KeccakUtility keccak = new KeccakUtility(KeccakUtility.KECCAK_384);
+	private final byte [] bytes = new byte[BYTE_LENGTH];
+	private final int [] limbs = new int[LIMBS];
+	private final int [] scratch = new int[LIMBS];
+	private final int [] digits = new int[CHUNK_TRITS * 13];
+
+	@Override
+	public void reset() {
+		keccak.reset();
+	}
+
+	@Override
+	public void absorb(int [] trits, int offset, int length) {
+		checkLength(length, HASH_LENGTH);
+
+		for(int end = offset + length; offset < end; offset += HASH_LENGTH) {
+			tritsToBytes(trits, offset, bytes, 0);
+			keccak.update(bytes, 0, BYTE_LENGTH);
+		}
+	}
+
+	@Override
+	public void squeeze(int [] trits, int offset, int length) {
+		checkLength(length, HASH_LENGTH);
+
+		for(int end = offset + length; offset < end; offset += HASH_LENGTH) {
+			keccak.digest(bytes, 0);
+			bytesToTrits(bytes, 0, trits, offset);
+			absorbInverted();
+		}
+	}
+
+	/**
+	 * Absorbs chunks that are already in the 48 byte representation.
+	 * The bytes need to be normalized (see {@link #squeezeBytes}) to match {@link #absorb}.
+	 */
+	public void absorbBytes(byte [] data, int offset, int length) {
+		checkLength(length, BYTE_LENGTH);
+		keccak.update(data, offset, length);
+	}
+
+	/**
+	 * Squeezes chunks in the 48 byte representation. The output is normalized, i.e. it equals
+	 * the bytes of the trits returned by {@link #squeeze}.
+	 */
+	public void squeezeBytes(byte [] out, int offset, int length) {
+		checkLength(length, BYTE_LENGTH);
+
+		for(int end = offset + length; offset < end; offset += BYTE_LENGTH) {
+			keccak.digest(bytes, 0);
+			System.arraycopy(bytes, 0, out, offset, BYTE_LENGTH);
+			normalize(out, offset);
+			absorbInverted();
+		}
+	}
+
+	/**
+	 * Converts 243 trits into their 48 byte representation. The last trit is ignored.
+	 */
+	public void tritsToBytes(int [] trits, int offset, byte [] out, int outOffset) {
+		clear(limbs);
+
+		// horner scheme on the shifted (non-negative) digits, most significant chunk first
+		for(int i = HASH_LENGTH - 2; i >= 0; i -= CHUNK_TRITS) {
+			int n = Math.min(CHUNK_TRITS, i + 1);
+			long chunk = 0;
+			long radix = 1;
+
+			for(int k = 0; k < n; k++) {
+				chunk = chunk * 3 + trits[offset + i - k] + 1;
+				radix *= 3;
+			}
+
+			multiplyAdd(limbs, radix, chunk);
+		}
+
+		// remove the shift: value = sum - (3^242 - 1) / 2
+		if(compare(limbs, HALF_3) >= 0) {
+			subtract(limbs, HALF_3);
+		}
+		else {
+			System.arraycopy(HALF_3, 0, scratch, 0, LIMBS);
+			subtract(scratch, limbs);
+			System.arraycopy(scratch, 0, limbs, 0, LIMBS);
+			negate(limbs);
+		}
+
+		store(limbs, out, outOffset);
+	}
+
+	/**
+	 * Converts a 48 byte representation into 243 trits. The last trit is always set to 0.
+	 */
+	public void bytesToTrits(byte [] in, int inOffset, int [] trits, int offset) {
+		load(in, inOffset, limbs);
+
+		boolean negative = limbs[LIMBS - 1] < 0;
+		if(negative) {
+			negate(limbs);
+		}
+
+		for(int chunk = 0; chunk * CHUNK_TRITS < HASH_LENGTH - 1; chunk++) {
+			long remainder = divide(limbs, CHUNK_RADIX);
+
+			for(int k = 0; k < CHUNK_TRITS; k++) {
+				digits[chunk * CHUNK_TRITS + k] = (int)(remainder % 3);
+				remainder /= 3;
+			}
+		}
+
+		int carry = 0;
+		for(int i = 0; i < HASH_LENGTH - 1; i++) {
+			int digit = digits[i] + carry;
+
+			if(digit >= 2) {
+				digit -= 3;
+				carry = 1;
+			}
+			else {
+				carry = 0;
+			}
+
+			trits[offset + i] = negative ? -digit : digit;
+		}
+
+		trits[offset + HASH_LENGTH - 1] = 0;
+	}
+
+	/**
+	 * Maps the 48 byte value in place to the value of its trits (with the last trit set to 0).
+	 * Converting to trits and back amounts to reducing the value into the range [-h, h]
+	 * with h = (3^242 - 1) / 2.
+	 */
+	public void normalize(byte [] data, int offset) {
+		load(data, offset, limbs);
+
+		if(limbs[LIMBS - 1] >= 0) {
+			if(compare(limbs, HALF_3) > 0) {
+				subtract(limbs, POW_3_242);
+				store(limbs, data, offset);
+			}
+		}
+		else {
+			System.arraycopy(limbs, 0, scratch, 0, LIMBS);
+			negate(scratch);
+
+			if(compare(scratch, HALF_3) > 0) {
+				add(limbs, POW_3_242);
+				store(limbs, data, offset);
+			}
+		}
+	}
+
+	private void absorbInverted() {
+		for(int i = 0; i < BYTE_LENGTH; i++) {
+			bytes[i] = (byte)~bytes[i];
+		}
+
+		keccak.update(bytes, 0, BYTE_LENGTH);
+	}
+
+	private static void checkLength(int length, int chunk) {
+		if(length <= 0 || length % chunk != 0) {
+			throw new IllegalArgumentException(String.format("Length must be a positive multiple of %d but is %d", chunk, length));
+		}
+	}
+
+	private static void clear(int [] a) {
+		for(int i = 0; i < a.length; i++) {
+			a[i] = 0;
+		}
+	}
+
+	private static void multiplyAdd(int [] a, long factor, long summand) {
+		long carry = summand;
+
+		for(int i = 0; i < LIMBS; i++) {
+			long v = (a[i] & MASK) * factor + carry;
+			a[i] = (int)v;
+			carry = v >>> 32;
+		}
+	}
+
+	// divides the unsigned value in place and returns the remainder
+	private static long divide(int [] a, long divisor) {
+		long remainder = 0;
+
+		for(int i = LIMBS - 1; i >= 0; i--) {
+			long v = (remainder << 32) | (a[i] & MASK);
+			a[i] = (int)(v / divisor);
+			remainder = v % divisor;
+		}
+
+		return remainder;
+	}
+
+	private static int compare(int [] a, int [] b) {
+		for(int i = LIMBS - 1; i >= 0; i--) {
+			if(a[i] != b[i]) {
+				return Integer.compareUnsigned(a[i], b[i]);
+			}
+		}
+
+		return 0;
+	}
+
+	private static void add(int [] a, int [] b) {
+		long carry = 0;
+
+		for(int i = 0; i < LIMBS; i++) {
+			long v = (a[i] & MASK) + (b[i] & MASK) + carry;
+			a[i] = (int)v;
+			carry = v >>> 32;
+		}
+	}
+
+	private static void subtract(int [] a, int [] b) {
+		long borrow = 0;
+
+		for(int i = 0; i < LIMBS; i++) {
+			long v = (a[i] & MASK) - (b[i] & MASK) - borrow;
+			a[i] = (int)v;
+			borrow = v >>> 63;
+		}
+	}
+
+	private static void negate(int [] a) {
+		long carry = 1;
+
+		for(int i = 0; i < LIMBS; i++) {
+			long v = (~a[i] & MASK) + carry;
+			a[i] = (int)v;
+			carry = v >>> 32;
+		}
+	}
+
+	private static void load(byte [] in, int offset, int [] a) {
+		for(int i = 0; i < LIMBS; i++) {
+			int j = offset + BYTE_LENGTH - 4 * (i + 1);
+			a[i] = (in[j] << 24) | ((in[j + 1] & 0xff) << 16) | ((in[j + 2] & 0xff) << 8) | (in[j + 3] & 0xff);
+		}
+	}
+
+	private static void store(int [] a, byte [] out, int offset) {
+		for(int i = 0; i < LIMBS; i++) {
+			int j = offset + BYTE_LENGTH - 4 * (i + 1);
+			out[j] = (byte)(a[i] >>> 24);
+			out[j + 1] = (byte)(a[i] >>> 16);
+			out[j + 2] = (byte)(a[i] >>> 8);
+			out[j + 3] = (byte)a[i];
+		}
+	}
+
+	private static int [] toLimbs(BigInteger value) {
+		byte [] raw = value.toByteArray();
+		byte [] padded = new byte[BYTE_LENGTH];
+		int length = Math.min(raw.length, BYTE_LENGTH);
+		System.arraycopy(raw, raw.length - length, padded, BYTE_LENGTH - length, length);
+
+		int [] a = new int[LIMBS];
+		load(padded, 0, a);
+		return a;
+	}
+}
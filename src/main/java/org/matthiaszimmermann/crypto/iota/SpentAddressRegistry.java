@@ -0,0 +1,446 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Persistent registry of spent key indexes per Iota seed. Addresses must never be reused once they have been spent from.
+ *
+ * Seeds are identified by a fingerprint (truncated SHA-256), the seeds themselves are never stored. The memory mapped
+ * file consists of a header, an open addressing table of seed slots and an append-only area of bitset segments.
+ * Each segment covers 1024 consecutive key indexes and the segments of a seed form a list ordered by index.
+ * Once the table is 3/4 full a table with twice the slots is rehashed into the append-only area and replaces the
+ * current one, the space of the replaced table is not reused.
+ * New segments and tables are written and forced to disk before they are linked, so a crash never leaves a dangling link.
+ * All methods are synchronized, one instance may be shared by several threads.
+ */
+public class SpentAddressRegistry implements Closeable {
+
+	public static final int SEEDS_DEFAULT = 1 << 16;
+	public static final int SEGMENT_INDEXES = 1024;
+	public static final int FINGERPRINT_LENGTH = 16;
+
+	private static final int MAGIC = 0x49535052; // "ISPR"
+	private static final int VERSION = 1;
+
+	// header: magic, version, slots, seeds, end of data, grown table (0 for the initial table after the header)
+	private static final int HEADER_SIZE = 32;
+	private static final int OFFSET_MAGIC = 0;
+	private static final int OFFSET_VERSION = 4;
+	private static final int OFFSET_SLOTS = 8;
+	private static final int OFFSET_SEEDS = 12;
+	private static final int OFFSET_END = 16;
+	private static final int OFFSET_TABLE = 24;
+
+	// grown table: number of slots, slots
+	private static final int TABLE_SLOTS = 0;
+	private static final int TABLE_HEADER = 8;
+
+	// slot: fingerprint, first segment
+	private static final int SLOT_HEAD = FINGERPRINT_LENGTH;
+	private static final int SLOT_SIZE = SLOT_HEAD + 8;
+
+	// segment: next segment, first index, bitset
+	private static final int SEGMENT_NEXT = 0;
+	private static final int SEGMENT_BASE = 8;
+	private static final int SEGMENT_BITS = 16;
+	private static final int SEGMENT_WORDS = SEGMENT_INDEXES / 64;
+	private static final int SEGMENT_SIZE = SEGMENT_BITS + 8 * SEGMENT_WORDS;
+
+	private static final int GROWTH_SEGMENTS = 4096;
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private int slots;
+	private int table;
+	private MappedByteBuffer buffer;
+
+	private SpentAddressRegistry(File file, int slots) throws IOException {
+		this.file = file;
+		this.raf = new RandomAccessFile(file, "rw");
+		this.channel = raf.getChannel();
+
+		if(channel.size() == 0) {
+			this.slots = slots;
+			this.table = HEADER_SIZE;
+			map(dataStart() + (long)GROWTH_SEGMENTS * SEGMENT_SIZE);
+			buffer.putInt(OFFSET_MAGIC, MAGIC);
+			buffer.putInt(OFFSET_VERSION, VERSION);
+			buffer.putInt(OFFSET_SLOTS, slots);
+			buffer.putInt(OFFSET_SEEDS, 0);
+			buffer.putLong(OFFSET_END, dataStart());
+			buffer.putLong(OFFSET_TABLE, 0);
+			buffer.force();
+		}
+		else {
+			map(channel.size());
+
+			if(buffer.getInt(OFFSET_MAGIC) != MAGIC || buffer.getInt(OFFSET_VERSION) != VERSION) {
+				raf.close();
+				throw new IOException("Not a spent address registry file: " + file.getAbsolutePath());
+			}
+
+			long grown = buffer.getLong(OFFSET_TABLE);
+
+			if(grown == 0) {
+				this.slots = buffer.getInt(OFFSET_SLOTS);
+				this.table = HEADER_SIZE;
+			}
+			else {
+				this.slots = buffer.getInt((int)grown + TABLE_SLOTS);
+				this.table = (int)grown + TABLE_HEADER;
+			}
+		}
+	}
+
+	/**
+	 * Opens the specified registry file, an empty registry with the default number of seed slots is created if the file does not exist.
+	 */
+	public static SpentAddressRegistry open(File file) {
+		return open(file, SEEDS_DEFAULT);
+	}
+
+	/**
+	 * Opens the specified registry file. The initial number of seed slots (a power of two) is only used when a new file is created.
+	 */
+	public static SpentAddressRegistry open(File file, int seedSlots) {
+		if(seedSlots <= 0 || Integer.bitCount(seedSlots) != 1) {
+			throw new IllegalArgumentException("Number of seed slots must be a power of two but is " + seedSlots);
+		}
+
+		try {
+			return new SpentAddressRegistry(file, seedSlots);
+		}
+		catch(IOException e) {
+			throw new RuntimeException("Failed to open spent address registry " + file.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * Returns the fingerprint (truncated SHA-256 of the trytes) that identifies the provided seed in the registry.
+	 */
+	public static byte [] fingerprint(String seed) {
+		if(!Trytes.isTrytes(seed, IotaAccount.SEED_LENGTH)) {
+			throw new IllegalArgumentException("Seed must consist of 81 trytes");
+		}
+
+		try {
+			byte [] hash = MessageDigest.getInstance("SHA-256").digest(seed.getBytes(StandardCharsets.US_ASCII));
+			return Arrays.copyOf(hash, FINGERPRINT_LENGTH);
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new RuntimeException("Failed to compute seed fingerprint", e);
+		}
+	}
+
+	/**
+	 * Returns true iff the provided key index of the seed has been marked as spent.
+	 */
+	public synchronized boolean isSpent(String seed, int index) {
+		checkIndex(index);
+
+		int slot = findSlot(fingerprint(seed), false);
+		if(slot < 0) {
+			return false;
+		}
+
+		long segment = findSegment(slot, segmentBase(index));
+		return segment != 0 && (buffer.getLong(wordOffset(segment, index)) & (1L << index)) != 0;
+	}
+
+	/**
+	 * Marks the provided key indexes of the seed as spent. The changes are on disk when the method returns.
+	 */
+	public synchronized void markSpent(String seed, int... indexes) {
+		for(int index : indexes) {
+			checkIndex(index);
+		}
+
+		int slot = findSlot(fingerprint(seed), true);
+
+		for(int index : indexes) {
+			long segment = getOrCreateSegment(slot, segmentBase(index));
+			int word = wordOffset(segment, index);
+			buffer.putLong(word, buffer.getLong(word) | (1L << index));
+		}
+
+		buffer.force();
+	}
+
+	/**
+	 * Returns the smallest key index greater or equal to fromIndex that has not been spent.
+	 */
+	public synchronized int nextUnspent(String seed, int fromIndex) {
+		checkIndex(fromIndex);
+
+		int slot = findSlot(fingerprint(seed), false);
+		if(slot < 0) {
+			return fromIndex;
+		}
+
+		int index = fromIndex;
+		long segment = buffer.getLong(slot + SLOT_HEAD);
+
+		while(segment != 0) {
+			int base = buffer.getInt((int)segment + SEGMENT_BASE);
+
+			if(base > index) {
+				// gap between segments
+				return index;
+			}
+
+			if(index < base + SEGMENT_INDEXES) {
+				for(int w = (index - base) / 64; w < SEGMENT_WORDS; w++) {
+					long free = ~buffer.getLong((int)segment + SEGMENT_BITS + 8 * w);
+
+					if(w == (index - base) / 64) {
+						free &= -1L << (index & 63);
+					}
+
+					if(free != 0) {
+						return base + 64 * w + Long.numberOfTrailingZeros(free);
+					}
+				}
+
+				index = base + SEGMENT_INDEXES;
+			}
+
+			segment = buffer.getLong((int)segment + SEGMENT_NEXT);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Returns the number of seeds with at least one spent key index.
+	 */
+	public synchronized int size() {
+		return buffer.getInt(OFFSET_SEEDS);
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			buffer.force();
+			raf.close();
+		}
+		catch(IOException e) {
+			throw new RuntimeException("Failed to close spent address registry " + file.getAbsolutePath(), e);
+		}
+	}
+
+	// returns the offset of the slot for the fingerprint, -1 if not found and create is false
+	private int findSlot(byte [] fingerprint, boolean create) {
+		int slot = probe(fingerprint);
+		boolean found = slot >= 0 && buffer.getLong(slot + SLOT_HEAD) != 0;
+
+		if(found || !create) {
+			return found ? slot : -1;
+		}
+
+		// the new seed is only counted once its first segment is linked
+		if(slot < 0 || 4L * (size() + 1) > 3L * slots) {
+			grow();
+			slot = probe(fingerprint);
+		}
+
+		for(int i = 0; i < FINGERPRINT_LENGTH; i++) {
+			buffer.put(slot + i, fingerprint[i]);
+		}
+
+		return slot;
+	}
+
+	// returns the offset of the slot that holds the fingerprint or of the first free slot, -1 if the table is full
+	private int probe(byte [] fingerprint) {
+		int mask = slots - 1;
+		int start = (fingerprint[0] & 0xff) | (fingerprint[1] & 0xff) << 8 | (fingerprint[2] & 0xff) << 16 | (fingerprint[3] & 0xff) << 24;
+
+		for(int probe = 0; probe < slots; probe++) {
+			int slot = table + SLOT_SIZE * ((start + probe) & mask);
+
+			// a slot is only in use once its first segment has been linked
+			if(buffer.getLong(slot + SLOT_HEAD) == 0 || matches(slot, fingerprint)) {
+				return slot;
+			}
+		}
+
+		return -1;
+	}
+
+	// rehashes the slots in use into a table with twice the slots at the end of the data area and switches to it
+	private void grow() {
+		int grownSlots = 2 * slots;
+		long size = TABLE_HEADER + (long)SLOT_SIZE * grownSlots;
+		long end = buffer.getLong(OFFSET_END);
+		ensureCapacity(end + size);
+
+		// the area after the end of data may hold an unlinked segment of a crashed write
+		for(long offset = end; offset < end + size; offset += 8) {
+			buffer.putLong((int)offset, 0);
+		}
+
+		int grown = (int)end;
+		int previousTable = table;
+		int previousSlots = slots;
+		byte [] fingerprint = new byte[FINGERPRINT_LENGTH];
+
+		buffer.putInt(grown + TABLE_SLOTS, grownSlots);
+		table = grown + TABLE_HEADER;
+		slots = grownSlots;
+
+		for(int i = 0; i < previousSlots; i++) {
+			int previous = previousTable + SLOT_SIZE * i;
+			long head = buffer.getLong(previous + SLOT_HEAD);
+
+			if(head != 0) {
+				for(int j = 0; j < FINGERPRINT_LENGTH; j++) {
+					fingerprint[j] = buffer.get(previous + j);
+				}
+
+				int slot = probe(fingerprint);
+				for(int j = 0; j < FINGERPRINT_LENGTH; j++) {
+					buffer.put(slot + j, fingerprint[j]);
+				}
+
+				buffer.putLong(slot + SLOT_HEAD, head);
+			}
+		}
+
+		buffer.putLong(OFFSET_END, end + size);
+		buffer.force();
+
+		// a single write switches to the grown table
+		buffer.putLong(OFFSET_TABLE, end);
+		buffer.putInt(OFFSET_SLOTS, grownSlots);
+		buffer.force();
+	}
+
+	private boolean matches(int slot, byte [] fingerprint) {
+		for(int i = 0; i < FINGERPRINT_LENGTH; i++) {
+			if(buffer.get(slot + i) != fingerprint[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private long findSegment(int slot, int base) {
+		long segment = buffer.getLong(slot + SLOT_HEAD);
+
+		while(segment != 0) {
+			int segmentBase = buffer.getInt((int)segment + SEGMENT_BASE);
+
+			if(segmentBase == base) {
+				return segment;
+			}
+
+			if(segmentBase > base) {
+				return 0;
+			}
+
+			segment = buffer.getLong((int)segment + SEGMENT_NEXT);
+		}
+
+		return 0;
+	}
+
+	private long getOrCreateSegment(int slot, int base) {
+		// find the link after which the segment belongs
+		int link = slot + SLOT_HEAD;
+		long segment = buffer.getLong(link);
+
+		while(segment != 0) {
+			int segmentBase = buffer.getInt((int)segment + SEGMENT_BASE);
+
+			if(segmentBase == base) {
+				return segment;
+			}
+
+			if(segmentBase > base) {
+				break;
+			}
+
+			link = (int)segment + SEGMENT_NEXT;
+			segment = buffer.getLong(link);
+		}
+
+		boolean newSeed = buffer.getLong(slot + SLOT_HEAD) == 0;
+
+		// append, make durable, then link
+		long end = buffer.getLong(OFFSET_END);
+		ensureCapacity(end + SEGMENT_SIZE);
+
+		int created = (int)end;
+		buffer.putLong(created + SEGMENT_NEXT, segment);
+		buffer.putInt(created + SEGMENT_BASE, base);
+		for(int w = 0; w < SEGMENT_WORDS; w++) {
+			buffer.putLong(created + SEGMENT_BITS + 8 * w, 0);
+		}
+
+		buffer.putLong(OFFSET_END, end + SEGMENT_SIZE);
+		buffer.force();
+
+		buffer.putLong(link, end);
+
+		if(newSeed) {
+			buffer.putInt(OFFSET_SEEDS, buffer.getInt(OFFSET_SEEDS) + 1);
+		}
+
+		return end;
+	}
+
+	private static int segmentBase(int index) {
+		return index - index % SEGMENT_INDEXES;
+	}
+
+	private static int wordOffset(long segment, int index) {
+		return (int)segment + SEGMENT_BITS + 8 * ((index % SEGMENT_INDEXES) / 64);
+	}
+
+	private static void checkIndex(int index) {
+		if(index < 0) {
+			throw new IllegalArgumentException("Key index must not be negative but is " + index);
+		}
+	}
+
+	private long dataStart() {
+		return HEADER_SIZE + (long)SLOT_SIZE * slots;
+	}
+
+	private void ensureCapacity(long required) {
+		if(required > buffer.capacity()) {
+			long size = Math.max(required, buffer.capacity() + (long)GROWTH_SEGMENTS * SEGMENT_SIZE);
+
+			try {
+				buffer.force();
+				map(Math.max(size, buffer.capacity() * 3L / 2));
+			}
+			catch(IOException e) {
+				throw new RuntimeException("Failed to grow spent address registry " + file.getAbsolutePath(), e);
+			}
+		}
+	}
+
+	private void map(long size) throws IOException {
+		if(size > Integer.MAX_VALUE) {
+			throw new IOException("Spent address registry exceeds maximum size: " + file.getAbsolutePath());
+		}
+
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+}
@@ -0,0 +1,25 @@
+package org.matthiaszimmermann.crypto.iota;
+
+/**
+ * Ternary sponge function as used by the Iota protocol (Curl-P and Kerl).
+ * Trits are represented as int values -1, 0 and 1.
+ */
+public interface Sponge {
+
+	public static final int HASH_LENGTH = 243;
+
+	/**
+	 * Resets the sponge to its initial state.
+	 */
+	void reset();
+
+	/**
+	 * Absorbs the specified range of trits.
+	 */
+	void absorb(int [] trits, int offset, int length);
+
+	/**
+	 * Squeezes the specified number of trits into the provided array.
+	 */
+	void squeeze(int [] trits, int offset, int length);
+}
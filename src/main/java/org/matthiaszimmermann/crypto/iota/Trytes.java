@@ -0,0 +1,163 @@
+package org.matthiaszimmermann.crypto.iota;
+
+/**
+ * Conversion between tryte strings and (balanced) trits.
+ * Each tryte corresponds to three trits in little endian order.
+ */
+public class Trytes {
+
+	public static final int TRITS_PER_TRYTE = 3;
+
+	private static final int [][] TRYTE_TRITS = new int[27][];
+
+	static {
+		for(int value = 0; value < 27; value++) {
+			int v = value > 13 ? value - 27 : value;
+			int [] trits = new int[TRITS_PER_TRYTE];
+
+			for(int i = 0; i < TRITS_PER_TRYTE; i++) {
+				int trit = ((v % 3) + 3) % 3;
+				trits[i] = trit == 2 ? -1 : trit;
+				v = (v - trits[i]) / 3;
+			}
+
+			TRYTE_TRITS[value] = trits;
+		}
+	}
+
+	/**
+	 * Converts the provided trytes into an array of trits.
+	 */
+	public static int [] toTrits(String trytes) {
+		int [] trits = new int[trytes.length() * TRITS_PER_TRYTE];
+		toTrits(trytes, trits, 0);
+		return trits;
+	}
+
+	/**
+	 * Writes the trits of the provided trytes into the array starting at the specified offset.
+	 */
+	public static void toTrits(String trytes, int [] trits, int offset) {
+		for(int i = 0; i < trytes.length(); i++) {
+			int value = Iota.TRYTE_ALPHABET.indexOf(trytes.charAt(i));
+
+			if(value < 0) {
+				throw new IllegalArgumentException(String.format("Invalid tryte '%c' at position %d", trytes.charAt(i), i));
+			}
+
+			System.arraycopy(TRYTE_TRITS[value], 0, trits, offset + i * TRITS_PER_TRYTE, TRITS_PER_TRYTE);
+		}
+	}
+
+	/**
+	 * Converts the specified range of trits into trytes. The length needs to be a multiple of 3.
+	 */
+	public static String fromTrits(int [] trits, int offset, int length) {
+		if(length % TRITS_PER_TRYTE != 0) {
+			throw new IllegalArgumentException("Number of trits must be a multiple of 3 but is " + length);
+		}
+
+		char [] trytes = new char[length / TRITS_PER_TRYTE];
+
+		for(int i = 0; i < trytes.length; i++) {
+			int j = offset + i * TRITS_PER_TRYTE;
+			int value = trits[j] + 3 * trits[j + 1] + 9 * trits[j + 2];
+			trytes[i] = Iota.TRYTE_ALPHABET.charAt(value < 0 ? value + 27 : value);
+		}
+
+		return new String(trytes);
+	}
+
+	public static String fromTrits(int [] trits) {
+		return fromTrits(trits, 0, trits.length);
+	}
+
+	/**
+	 * Converts the provided value into the specified number of balanced trits (little endian).
+	 */
+	public static int [] toTrits(long value, int length) {
+		int [] trits = new int[length];
+		long remaining = value;
+
+		for(int i = 0; i < length && remaining != 0; i++) {
+			int trit = (int)(remaining % 3);
+
+			if(trit > 1) {
+				trit -= 3;
+			}
+			else if(trit < -1) {
+				trit += 3;
+			}
+
+			trits[i] = trit;
+			remaining = (remaining - trit) / 3;
+		}
+
+		if(remaining != 0) {
+			throw new IllegalArgumentException(String.format("Value %d does not fit into %d trits", value, length));
+		}
+
+		return trits;
+	}
+
+	/**
+	 * Converts the specified range of balanced trits (little endian) into a value.
+	 */
+	public static long toLong(int [] trits, int offset, int length) {
+		long value = 0;
+
+		for(int i = length - 1; i >= 0; i--) {
+			value = value * 3 + trits[offset + i];
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns the trytes of the provided value padded to the specified number of trytes.
+	 */
+	public static String fromLong(long value, int trytes) {
+		return fromTrits(toTrits(value, trytes * TRITS_PER_TRYTE));
+	}
+
+	/**
+	 * Returns the provided value of the tryte string.
+	 */
+	public static long toLong(String trytes) {
+		int [] trits = toTrits(trytes);
+		return toLong(trits, 0, trits.length);
+	}
+
+	/**
+	 * Returns the provided trytes right padded with '9' to the specified length.
+	 */
+	public static String pad(String trytes, int length) {
+		if(trytes.length() > length) {
+			throw new IllegalArgumentException(String.format("Trytes exceed the maximum length of %d", length));
+		}
+
+		StringBuilder padded = new StringBuilder(length).append(trytes);
+		while(padded.length() < length) {
+			padded.append('9');
+		}
+
+		return padded.toString();
+	}
+
+	/**
+	 * Returns true iff the provided string consists of the specified number of trytes.
+	 */
+	public static boolean isTrytes(String value, int length) {
+		if(value == null || value.length() != length) {
+			return false;
+		}
+
+		for(int i = 0; i < value.length(); i++) {
+			if(Iota.TRYTE_ALPHABET.indexOf(value.charAt(i)) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -52,7 +52,7 @@ public class AesUtility {
 	public AesUtility(String passPhrase, byte [] salt, int iterationCount, int keyStrength) throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidParameterSpecException {
 		SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
 		KeySpec spec = new PBEKeySpec(passPhrase.toCharArray(), salt, iterationCount, keyStrength);
-		SecretKey secret = factory.generateSecret(spec);
+		SecretKey secret = KdfScheduler.getInstance().execute(() -> factory.generateSecret(spec));
 		key = new SecretKeySpec(secret.getEncoded(), "AES");
 		dcipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
 	}
@@ -72,6 +72,27 @@ public class FileUtility {
 		return sb.toString();
 	}
 
+	public static List<String> readLines(File file) {
+		if(!file.exists()) {
+			throw new RuntimeException("File to read does not exist " + file.getAbsolutePath());
+		}
+
+		List<String> lines = new ArrayList<>();
+
+		try(BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF8"))) {
+			String line = null;
+
+			while((line = in.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Failed to read lines from file " + file.getAbsolutePath(), e);
+		}
+
+		return lines;
+	}
+
 	public static void saveToFile(String buf, String fileName) {
 		boolean overwrite = false;
 		saveToFile(buf, fileName, overwrite);
@@ -0,0 +1,207 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for key derivation functions (scrypt, PBKDF2).
+ * Every job declares its memory cost and is admitted once the memory is available within the heap budget and a
+ * CPU slot (one per core) is free. Jobs that are larger than the whole budget run alone.
+ * Admission is fair (first come, first served) so large scrypt jobs are not starved by a stream of small PBKDF2 jobs.
+ * Jobs started from within a running job (nested KDF calls) are executed directly on the already admitted permits.
+ */
+public class KdfScheduler {
+
+	public static final int MEMORY_UNIT = 1024; // memory is accounted in KB
+	public static final long PBKDF2_MEMORY = 64 * 1024;
+
+	private static volatile KdfScheduler instance = new KdfScheduler(defaultMemoryBudget(), Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * A key derivation, may throw the checked exception of the underlying library.
+	 */
+	public interface Job<T, E extends Exception> {
+		T run() throws E;
+	}
+
+	private static final ThreadLocal<Boolean> IN_JOB = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	private final long memoryBudget;
+	private final int cpuSlots;
+	private final Semaphore memory;
+	private final Semaphore cpu;
+
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger maxQueued = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final LongAdder jobs = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	public KdfScheduler(long memoryBudget, int cpuSlots) {
+		if(memoryBudget < MEMORY_UNIT) {
+			throw new IllegalArgumentException("Memory budget must be at least 1 KB but is " + memoryBudget);
+		}
+
+		if(cpuSlots < 1) {
+			throw new IllegalArgumentException("Number of CPU slots must be positive but is " + cpuSlots);
+		}
+
+		this.memoryBudget = memoryBudget;
+		this.cpuSlots = cpuSlots;
+		this.memory = new Semaphore(toUnits(memoryBudget), true);
+		this.cpu = new Semaphore(cpuSlots, true);
+	}
+
+	/**
+	 * Returns the scheduler shared by all KDF call sites.
+	 */
+	public static KdfScheduler getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Replaces the shared scheduler, jobs already admitted by the previous scheduler complete there.
+	 */
+	public static void configure(long memoryBudget, int cpuSlots) {
+		instance = new KdfScheduler(memoryBudget, cpuSlots);
+	}
+
+	/**
+	 * Returns true iff the calling thread runs an admitted job.
+	 */
+	public static boolean isAdmitted() {
+		return IN_JOB.get();
+	}
+
+	/**
+	 * Returns the default memory budget, half of the maximum heap size.
+	 */
+	public static long defaultMemoryBudget() {
+		return Runtime.getRuntime().maxMemory() / 2;
+	}
+
+	/**
+	 * Runs the provided job once its memory (in bytes) and a CPU slot are available.
+	 */
+	public <T, E extends Exception> T execute(long memoryCost, Job<T, E> job) throws E {
+		if(memoryCost < 0) {
+			throw new IllegalArgumentException("Memory cost must not be negative but is " + memoryCost);
+		}
+
+		if(IN_JOB.get()) {
+			return job.run();
+		}
+
+		int units = toUnits(Math.min(memoryCost, memoryBudget));
+		boolean memoryAcquired = false;
+		boolean cpuAcquired = false;
+
+		int depth = queued.incrementAndGet();
+		maxQueued.accumulateAndGet(depth, Math::max);
+		long start = System.nanoTime();
+
+		try {
+			memory.acquire(units);
+			memoryAcquired = true;
+			cpu.acquire();
+			cpuAcquired = true;
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for key derivation", e);
+		}
+		finally {
+			queued.decrementAndGet();
+
+			if(!cpuAcquired && memoryAcquired) {
+				memory.release(units);
+			}
+		}
+
+		long waited = System.nanoTime() - start;
+		waitNanos.add(waited);
+		maxWaitNanos.accumulateAndGet(waited, Math::max);
+		jobs.increment();
+		running.incrementAndGet();
+		IN_JOB.set(Boolean.TRUE);
+
+		try {
+			return job.run();
+		}
+		finally {
+			IN_JOB.set(Boolean.FALSE);
+			running.decrementAndGet();
+			cpu.release();
+			memory.release(units);
+		}
+	}
+
+	/**
+	 * Runs the provided job with the memory cost of a PBKDF2 derivation.
+	 */
+	public <T, E extends Exception> T execute(Job<T, E> job) throws E {
+		return execute(PBKDF2_MEMORY, job);
+	}
+
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	public int getCpuSlots() {
+		return cpuSlots;
+	}
+
+	/**
+	 * Returns the memory (in bytes) of the currently running jobs.
+	 */
+	public long getMemoryInUse() {
+		return (long) (toUnits(memoryBudget) - memory.availablePermits()) * MEMORY_UNIT;
+	}
+
+	/**
+	 * Returns the number of jobs waiting for admission.
+	 */
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueued.get();
+	}
+
+	public int getRunningJobs() {
+		return running.get();
+	}
+
+	/**
+	 * Returns the number of admitted jobs.
+	 */
+	public long getJobCount() {
+		return jobs.sum();
+	}
+
+	/**
+	 * Returns the average time in milliseconds admitted jobs waited in the queue.
+	 */
+	public double getAverageWaitMillis() {
+		long count = getJobCount();
+		return count > 0 ? waitNanos.sum() / 1e6 / count : 0.0;
+	}
+
+	public double getMaxWaitMillis() {
+		return maxWaitNanos.get() / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d kdf jobs, max queue depth %d, average wait %.1f ms, max wait %.1f ms (budget %d MB, %d cpu slots)",
+				getJobCount(), getMaxQueueDepth(), getAverageWaitMillis(), getMaxWaitMillis(), memoryBudget / (1024 * 1024), cpuSlots);
+	}
+
+	private static int toUnits(long bytes) {
+		return (int) Math.min(Integer.MAX_VALUE, (bytes + MEMORY_UNIT - 1) / MEMORY_UNIT);
+	}
+}
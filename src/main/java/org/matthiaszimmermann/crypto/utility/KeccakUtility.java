@@ -0,0 +1,163 @@
+package org.matthiaszimmermann.crypto.utility;
+
+/**
+ * Keccak sponge (original Keccak padding as used by Ethereum and Iota's Kerl, not SHA-3).
+ * An instance keeps its 1600 bit state in 25 long lanes and can be reused for any number
+ * of hashes; apart from the caller provided output no memory is allocated per hash.
+ * Instances are not thread safe.
+ */
+public class KeccakUtility {
+
+	public static final int KECCAK_256 = 256;
+	public static final int KECCAK_384 = 384;
+
+	private static final int STATE_BYTES = 200;
+	private static final int ROUNDS = 24;
+
+	private static final long [] ROUND_CONSTANTS = {
+			0x0000000000000001L, 0x0000000000008082L, 0x800000000000808aL, 0x8000000080008000L,
+			0x000000000000808bL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+			0x000000000000008aL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000aL,
+			0x000000008000808bL, 0x800000000000008bL, 0x8000000000008089L, 0x8000000000008003L,
+			0x8000000000008002L, 0x8000000000000080L, 0x000000000000800aL, 0x800000008000000aL,
+			0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+	};
+
+	// rotation offsets for lane x + 5y
+	private static final int [] ROTATIONS = {
+			0, 1, 62, 28, 27,
+			36, 44, 6, 55, 20,
+			3, 10, 43, 25, 39,
+			41, 45, 15, 21, 8,
+			18, 2, 61, 56, 14
+	};
+
+	// target lane of the pi step for lane x + 5y
+	private static final int [] PI = new int[25];
+
+	static {
+		for(int x = 0; x < 5; x++) {
+			for(int y = 0; y < 5; y++) {
+				PI[x + 5 * y] = y + 5 * ((2 * x + 3 * y) % 5);
+			}
+		}
+	}
+
+	private final long [] lanes = new long[25];
+	private final long [] b = new long[25];
+
+	private final int digestLength;
+	private final int rate;
+	private int position = 0;
+
+	/**
+	 * Creates a Keccak instance for the specified digest size in bits (e.g. 256 or 384).
+	 */
+	public KeccakUtility(int digestBits) {
+		if(digestBits <= 0 || digestBits % 64 != 0 || digestBits > 512) {
+			throw new IllegalArgumentException("Unsupported digest size " + digestBits);
+		}
+
+		digestLength = digestBits / 8;
+		rate = STATE_BYTES - 2 * digestLength;
+	}
+
+	/**
+	 * Returns the Keccak-256 hash of the provided data.
+	 */
+	public static byte [] keccak256(byte [] data) {
+		KeccakUtility keccak = new KeccakUtility(KECCAK_256);
+		byte [] digest = new byte[keccak.getDigestLength()];
+
+		keccak.update(data, 0, data.length);
+		keccak.digest(digest, 0);
+
+		return digest;
+	}
+
+	public int getDigestLength() {
+		return digestLength;
+	}
+
+	public void reset() {
+		for(int i = 0; i < lanes.length; i++) {
+			lanes[i] = 0;
+		}
+
+		position = 0;
+	}
+
+	/**
+	 * Absorbs the specified range of the provided bytes.
+	 */
+	public void update(byte [] data, int offset, int length) {
+		for(int i = 0; i < length; i++) {
+			lanes[position >>> 3] ^= (data[offset + i] & 0xffL) << ((position & 7) << 3);
+
+			if(++position == rate) {
+				permute();
+				position = 0;
+			}
+		}
+	}
+
+	/**
+	 * Pads the absorbed data, writes the digest to the provided buffer and resets this instance.
+	 */
+	public void digest(byte [] out, int offset) {
+		lanes[position >>> 3] ^= 0x01L << ((position & 7) << 3);
+		lanes[(rate - 1) >>> 3] ^= 0x80L << (((rate - 1) & 7) << 3);
+		permute();
+
+		for(int i = 0; i < digestLength; i++) {
+			out[offset + i] = (byte)(lanes[i >>> 3] >>> ((i & 7) << 3));
+		}
+
+		reset();
+	}
+
+	private void permute() {
+		long [] a = lanes;
+
+		for(int round = 0; round < ROUNDS; round++) {
+			// theta
+			long c0 = a[0] ^ a[5] ^ a[10] ^ a[15] ^ a[20];
+			long c1 = a[1] ^ a[6] ^ a[11] ^ a[16] ^ a[21];
+			long c2 = a[2] ^ a[7] ^ a[12] ^ a[17] ^ a[22];
+			long c3 = a[3] ^ a[8] ^ a[13] ^ a[18] ^ a[23];
+			long c4 = a[4] ^ a[9] ^ a[14] ^ a[19] ^ a[24];
+
+			long d0 = c4 ^ Long.rotateLeft(c1, 1);
+			long d1 = c0 ^ Long.rotateLeft(c2, 1);
+			long d2 = c1 ^ Long.rotateLeft(c3, 1);
+			long d3 = c2 ^ Long.rotateLeft(c4, 1);
+			long d4 = c3 ^ Long.rotateLeft(c0, 1);
+
+			for(int y = 0; y < 25; y += 5) {
+				a[y] ^= d0;
+				a[y + 1] ^= d1;
+				a[y + 2] ^= d2;
+				a[y + 3] ^= d3;
+				a[y + 4] ^= d4;
+			}
+
+			// rho and pi
+			for(int i = 0; i < 25; i++) {
+				b[PI[i]] = Long.rotateLeft(a[i], ROTATIONS[i]);
+			}
+
+			// chi
+			for(int y = 0; y < 25; y += 5) {
+				long b0 = b[y], b1 = b[y + 1], b2 = b[y + 2], b3 = b[y + 3], b4 = b[y + 4];
+				a[y] = b0 ^ (~b1 & b2);
+				a[y + 1] = b1 ^ (~b2 & b3);
+				a[y + 2] = b2 ^ (~b3 & b4);
+				a[y + 3] = b3 ^ (~b4 & b0);
+				a[y + 4] = b4 ^ (~b0 & b1);
+			}
+
+			// iota
+			a[0] ^= ROUND_CONSTANTS[round];
+		}
+	}
+}
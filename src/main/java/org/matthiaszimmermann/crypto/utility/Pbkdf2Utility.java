@@ -0,0 +1,302 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+/**
+ * PBKDF2 with HMAC-SHA512 as the pseudo random function (RFC 2898, section 5.2).
+ * The HMAC inner and outer pad states are computed once per password and every
+ * iteration then costs exactly two SHA-512 compressions without any allocation.
+ * Output blocks are independent of each other and may be computed in parallel.
+ */
+public class Pbkdf2Utility {
+
+	public static final int HASH_LENGTH = 64;
+
+	private static final int BLOCK_LENGTH = 128;
+	private static final int WORDS = 8;
+
+	private static final byte IPAD = 0x36;
+	private static final byte OPAD = 0x5c;
+
+	// bit length of the inner/outer message: one block of pad plus a 64 byte hash
+	private static final long HMAC_MESSAGE_BITS = (BLOCK_LENGTH + HASH_LENGTH) * 8;
+
+	private static final long [] IV = {
+			0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+			0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+	};
+
+	private static final long [] K = {
+			0x428a2f98d728ae22L, 0x7137449123ef65cdL, 0xb5c0fbcfec4d3b2fL, 0xe9b5dba58189dbbcL, 0x3956c25bf348b538L,
+			0x59f111f1b605d019L, 0x923f82a4af194f9bL, 0xab1c5ed5da6d8118L, 0xd807aa98a3030242L, 0x12835b0145706fbeL,
+			0x243185be4ee4b28cL, 0x550c7dc3d5ffb4e2L, 0x72be5d74f27b896fL, 0x80deb1fe3b1696b1L, 0x9bdc06a725c71235L,
+			0xc19bf174cf692694L, 0xe49b69c19ef14ad2L, 0xefbe4786384f25e3L, 0x0fc19dc68b8cd5b5L, 0x240ca1cc77ac9c65L,
+			0x2de92c6f592b0275L, 0x4a7484aa6ea6e483L, 0x5cb0a9dcbd41fbd4L, 0x76f988da831153b5L, 0x983e5152ee66dfabL,
+			0xa831c66d2db43210L, 0xb00327c898fb213fL, 0xbf597fc7beef0ee4L, 0xc6e00bf33da88fc2L, 0xd5a79147930aa725L,
+			0x06ca6351e003826fL, 0x142929670a0e6e70L, 0x27b70a8546d22ffcL, 0x2e1b21385c26c926L, 0x4d2c6dfc5ac42aedL,
+			0x53380d139d95b3dfL, 0x650a73548baf63deL, 0x766a0abb3c77b2a8L, 0x81c2c92e47edaee6L, 0x92722c851482353bL,
+			0xa2bfe8a14cf10364L, 0xa81a664bbc423001L, 0xc24b8b70d0f89791L, 0xc76c51a30654be30L, 0xd192e819d6ef5218L,
+			0xd69906245565a910L, 0xf40e35855771202aL, 0x106aa07032bbd1b8L, 0x19a4c116b8d2d0c8L, 0x1e376c085141ab53L,
+			0x2748774cdf8eeb99L, 0x34b0bcb5e19b48a8L, 0x391c0cb3c5c95a63L, 0x4ed8aa4ae3418acbL, 0x5b9cca4f7763e373L,
+			0x682e6ff3d6b2b8a3L, 0x748f82ee5defb2fcL, 0x78a5636f43172f60L, 0x84c87814a1f0ab72L, 0x8cc702081a6439ecL,
+			0x90befffa23631e28L, 0xa4506cebde82bde9L, 0xbef9a3f7b2c67915L, 0xc67178f2e372532bL, 0xca273eceea26619cL,
+			0xd186b8c721c0c207L, 0xeada7dd6cde0eb1eL, 0xf57d4f7fee6ed178L, 0x06f067aa72176fbaL, 0x0a637dc5a2c898a6L,
+			0x113f9804bef90daeL, 0x1b710b35131c471bL, 0x28db77f523047d84L, 0x32caab7b40c72493L, 0x3c9ebe0a15c9bebcL,
+			0x431d67c49c100d4cL, 0x4cc5d4becb3e42b6L, 0x597f299cfc657e2aL, 0x5fcb6fab3ad6faecL, 0x6c44198c4a475817L
+	};
+
+	/**
+	 * Derives a key of the specified length (in bytes) from the UTF-8 encoded password and salt.
+	 * Blocks are computed sequentially on the calling thread.
+	 */
+	public static byte [] deriveSha512(String password, String salt, int rounds, int keyLength) {
+		return deriveSha512(password, salt, rounds, keyLength, false);
+	}
+
+	/**
+	 * Derives a key of the specified length (in bytes) from the UTF-8 encoded password and salt.
+	 * @param parallel computes the individual output blocks in parallel iff true
+	 */
+	public static byte [] deriveSha512(String password, String salt, int rounds, int keyLength, boolean parallel) {
+		if(password == null || salt == null) {
+			throw new IllegalArgumentException("Password and salt must not be null");
+		}
+
+		byte [] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
+		byte [] saltBytes = salt.getBytes(StandardCharsets.UTF_8);
+
+		return deriveSha512(passwordBytes, saltBytes, rounds, keyLength, parallel);
+	}
+
+	/**
+	 * Derives a key of the specified length (in bytes) from the provided password and salt.
+	 * Only the ceil(keyLength / 64) blocks required for the key are computed.
+	 * The derivation is admitted by the {@link KdfScheduler}. Parallel blocks are admitted one by one, each block
+	 * takes its own CPU slot. Within an already admitted job blocks are computed sequentially.
+	 * @param parallel computes the individual output blocks in parallel iff true
+	 */
+	public static byte [] deriveSha512(byte [] password, byte [] salt, int rounds, int keyLength, boolean parallel) {
+		if(rounds < 1) {
+			throw new IllegalArgumentException("Number of rounds must be positive but is " + rounds);
+		}
+
+		if(keyLength < 1) {
+			throw new IllegalArgumentException("Key length must be positive but is " + keyLength);
+		}
+
+		long [] innerState = new long[WORDS];
+		long [] outerState = new long[WORDS];
+		initPadStates(password, innerState, outerState);
+
+		byte [] key = new byte[keyLength];
+		int blocks = (keyLength + HASH_LENGTH - 1) / HASH_LENGTH;
+
+		KdfScheduler scheduler = KdfScheduler.getInstance();
+
+		if(!parallel || blocks == 1 || KdfScheduler.isAdmitted()) {
+			return scheduler.execute(() -> {
+				IntStream.rangeClosed(1, blocks).forEach(block -> deriveBlock(innerState, outerState, salt, rounds, block, key));
+				return key;
+			});
+		}
+
+		IntStream.rangeClosed(1, blocks)
+		.parallel()
+		.forEach(block -> scheduler.execute(() -> {
+			deriveBlock(innerState, outerState, salt, rounds, block, key);
+			return null;
+		}));
+
+		return key;
+	}
+
+	/**
+	 * Computes the SHA-512 states after absorbing the key xor'ed with the inner and outer pad.
+	 */
+	private static void initPadStates(byte [] password, long [] innerState, long [] outerState) {
+		byte [] keyBlock = new byte[BLOCK_LENGTH];
+
+		if(password.length > BLOCK_LENGTH) {
+			long [] digest = new long[WORDS];
+			hash(IV, 0, password, digest);
+			wordsToBytes(digest, keyBlock, 0, HASH_LENGTH);
+		}
+		else {
+			System.arraycopy(password, 0, keyBlock, 0, password.length);
+		}
+
+		long [] w = new long[80];
+		byte [] padBlock = new byte[BLOCK_LENGTH];
+
+		for(int i = 0; i < BLOCK_LENGTH; i++) {
+			padBlock[i] = (byte)(keyBlock[i] ^ IPAD);
+		}
+
+		System.arraycopy(IV, 0, innerState, 0, WORDS);
+		compress(innerState, bytesToWords(padBlock, 0, w));
+
+		for(int i = 0; i < BLOCK_LENGTH; i++) {
+			padBlock[i] = (byte)(keyBlock[i] ^ OPAD);
+		}
+
+		System.arraycopy(IV, 0, outerState, 0, WORDS);
+		compress(outerState, bytesToWords(padBlock, 0, w));
+	}
+
+	/**
+	 * Computes output block T_i = U_1 ^ U_2 ^ ... ^ U_c and writes it to its position in the key.
+	 */
+	private static void deriveBlock(long [] innerState, long [] outerState, byte [] salt, int rounds, int block, byte [] key) {
+		long [] u = new long[WORDS];
+		long [] t = new long[WORDS];
+		long [] state = new long[WORDS];
+		long [] w = new long[80];
+
+		// U_1 = PRF(P, S || INT(i))
+		byte [] message = new byte[salt.length + 4];
+		System.arraycopy(salt, 0, message, 0, salt.length);
+		message[salt.length] = (byte)(block >>> 24);
+		message[salt.length + 1] = (byte)(block >>> 16);
+		message[salt.length + 2] = (byte)(block >>> 8);
+		message[salt.length + 3] = (byte)block;
+
+		hash(innerState, BLOCK_LENGTH, message, u);
+		hashPadded(outerState, u, state, w);
+		System.arraycopy(u, 0, t, 0, WORDS);
+
+		// U_j = PRF(P, U_{j-1})
+		for(int j = 1; j < rounds; j++) {
+			hashPadded(innerState, u, state, w);
+			hashPadded(outerState, u, state, w);
+
+			for(int k = 0; k < WORDS; k++) {
+				t[k] ^= u[k];
+			}
+		}
+
+		int offset = (block - 1) * HASH_LENGTH;
+		wordsToBytes(t, key, offset, Math.min(HASH_LENGTH, key.length - offset));
+	}
+
+	/**
+	 * Replaces u with H(K ^ pad || u) using the precomputed inner or outer pad state.
+	 */
+	private static void hashPadded(long [] padState, long [] u, long [] state, long [] w) {
+		System.arraycopy(padState, 0, state, 0, WORDS);
+		compressHash(state, u, w);
+		System.arraycopy(state, 0, u, 0, WORDS);
+	}
+
+	/**
+	 * Compresses the final block of a message that consists of one pad block followed by a 64 byte hash.
+	 */
+	private static void compressHash(long [] state, long [] hash, long [] w) {
+		System.arraycopy(hash, 0, w, 0, WORDS);
+		w[8] = 0x8000000000000000L;
+		w[9] = 0;
+		w[10] = 0;
+		w[11] = 0;
+		w[12] = 0;
+		w[13] = 0;
+		w[14] = 0;
+		w[15] = HMAC_MESSAGE_BITS;
+		compress(state, w);
+	}
+
+	/**
+	 * General SHA-512 for messages of arbitrary length, starting from the provided state that has already
+	 * absorbed the specified number of bytes (a multiple of the block length).
+	 */
+	private static void hash(long [] initialState, int absorbed, byte [] message, long [] digest) {
+		long [] w = new long[80];
+		System.arraycopy(initialState, 0, digest, 0, WORDS);
+
+		int offset = 0;
+		for(; offset + BLOCK_LENGTH <= message.length; offset += BLOCK_LENGTH) {
+			compress(digest, bytesToWords(message, offset, w));
+		}
+
+		// padding: 0x80, zeros, 128 bit message length in bits
+		int remaining = message.length - offset;
+		byte [] last = new byte[remaining < BLOCK_LENGTH - 16 ? BLOCK_LENGTH : 2 * BLOCK_LENGTH];
+		System.arraycopy(message, offset, last, 0, remaining);
+		last[remaining] = (byte)0x80;
+
+		long bits = ((long)absorbed + message.length) * 8;
+		for(int i = 0; i < 8; i++) {
+			last[last.length - 1 - i] = (byte)(bits >>> (8 * i));
+		}
+
+		for(int i = 0; i < last.length; i += BLOCK_LENGTH) {
+			compress(digest, bytesToWords(last, i, w));
+		}
+	}
+
+	private static long [] bytesToWords(byte [] bytes, int offset, long [] w) {
+		for(int i = 0; i < 16; i++) {
+			long word = 0;
+			for(int j = 0; j < 8; j++) {
+				word = (word << 8) | (bytes[offset + 8 * i + j] & 0xff);
+			}
+			w[i] = word;
+		}
+
+		return w;
+	}
+
+	private static void wordsToBytes(long [] words, byte [] bytes, int offset, int length) {
+		for(int i = 0; i < length; i++) {
+			bytes[offset + i] = (byte)(words[i >>> 3] >>> (56 - 8 * (i & 7)));
+		}
+	}
+
+	/**
+	 * SHA-512 compression function, the first 16 words of w hold the message block.
+	 */
+	private static void compress(long [] state, long [] w) {
+		for(int i = 16; i < 80; i++) {
+			long w15 = w[i - 15];
+			long w2 = w[i - 2];
+			long s0 = Long.rotateRight(w15, 1) ^ Long.rotateRight(w15, 8) ^ (w15 >>> 7);
+			long s1 = Long.rotateRight(w2, 19) ^ Long.rotateRight(w2, 61) ^ (w2 >>> 6);
+			w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+		}
+
+		long a = state[0];
+		long b = state[1];
+		long c = state[2];
+		long d = state[3];
+		long e = state[4];
+		long f = state[5];
+		long g = state[6];
+		long h = state[7];
+
+		for(int i = 0; i < 80; i++) {
+			long s1 = Long.rotateRight(e, 14) ^ Long.rotateRight(e, 18) ^ Long.rotateRight(e, 41);
+			long ch = (e & f) ^ (~e & g);
+			long t1 = h + s1 + ch + K[i] + w[i];
+			long s0 = Long.rotateRight(a, 28) ^ Long.rotateRight(a, 34) ^ Long.rotateRight(a, 39);
+			long maj = (a & b) ^ (a & c) ^ (b & c);
+			long t2 = s0 + maj;
+
+			h = g;
+			g = f;
+			f = e;
+			e = d + t1;
+			d = c;
+			c = b;
+			b = a;
+			a = t1 + t2;
+		}
+
+		state[0] += a;
+		state[1] += b;
+		state[2] += c;
+		state[3] += d;
+		state[4] += e;
+		state[5] += f;
+		state[6] += g;
+		state[7] += h;
+	}
+}
@@ -0,0 +1,184 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECFieldElement;
+import org.bouncycastle.math.ec.ECPoint;
+
+/**
+ * Public key computation on secp256k1 using a fixed-base window table for the generator G.
+ * The table holds d * 256^j * G (d = 1..255) for all 32 byte windows j of a 256 bit scalar (about 1 MB), it is
+ * built once per JVM on first use. A public key then needs 32 point additions and no doublings, compared to the
+ * 256 doublings and additions of a generic scalar multiplication.
+ * For bulk derivation the resulting points can be converted to affine coordinates with a single shared
+ * field inversion, see {@link #normalizeAll(ECPoint[])}.
+ */
+public class Secp256k1Utility {
+
+	public static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+	public static final ECCurve CURVE = CURVE_PARAMS.getCurve();
+	public static final BigInteger N = CURVE_PARAMS.getN();
+
+	public static final int PUBLIC_KEY_LENGTH = 64;
+
+	private static final int WINDOW_BITS = 8;
+	private static final int WINDOW_SIZE = 1 << WINDOW_BITS;
+	private static final int WINDOWS = 256 / WINDOW_BITS;
+
+	// lazy holder, the table is built on first use
+	private static final class Table {
+		static final ECPoint [][] POINTS = buildTable();
+	}
+
+	/**
+	 * Returns k * G (not normalized). The scalar must be in the range [1, n-1].
+	 */
+	public static ECPoint multiplyG(BigInteger k) {
+		if(k == null || k.signum() <= 0 || k.compareTo(N) >= 0) {
+			throw new IllegalArgumentException("Private key must be in the range [1, n-1]");
+		}
+
+		ECPoint [][] table = Table.POINTS;
+		ECPoint result = CURVE.getInfinity();
+
+		// big endian bytes, may carry a leading sign byte or be shorter than 32 bytes
+		byte [] bytes = k.toByteArray();
+
+		for(int window = 0; window < WINDOWS && window < bytes.length; window++) {
+			int digit = bytes[bytes.length - 1 - window] & 0xff;
+
+			if(digit != 0) {
+				result = result.add(table[window][digit]);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the encoded public key (33 bytes compressed or 65 bytes uncompressed) for the provided private key.
+	 */
+	public static byte [] publicKey(BigInteger privateKey, boolean compressed) {
+		return multiplyG(privateKey).normalize().getEncoded(compressed);
+	}
+
+	/**
+	 * Returns the public key as used by web3j (uncompressed x and y coordinates without the 0x04 prefix, as positive integer).
+	 */
+	public static BigInteger publicKeyValue(BigInteger privateKey) {
+		return toPublicKeyValue(multiplyG(privateKey).normalize());
+	}
+
+	/**
+	 * Returns the encoded public keys for all provided private keys, the points are normalized with a single shared inversion.
+	 */
+	public static List<byte []> publicKeys(List<BigInteger> privateKeys, boolean compressed) {
+		ECPoint [] points = new ECPoint[privateKeys.size()];
+
+		for(int i = 0; i < points.length; i++) {
+			points[i] = multiplyG(privateKeys.get(i));
+		}
+
+		List<byte []> publicKeys = new ArrayList<>();
+		for(ECPoint point : normalizeAll(points)) {
+			publicKeys.add(point.getEncoded(compressed));
+		}
+
+		return publicKeys;
+	}
+
+	/**
+	 * Converts the provided points to affine coordinates (Montgomery's trick): the z coordinates of all
+	 * points are multiplied up, inverted once and the individual inverses are recovered by multiplication.
+	 * Points at infinity and already normalized points are returned as is.
+	 */
+	public static ECPoint [] normalizeAll(ECPoint [] points) {
+		ECPoint [] result = points.clone();
+
+		if(CURVE.getCoordinateSystem() != ECCurve.COORD_JACOBIAN) {
+			CURVE.normalizeAll(result);
+			return result;
+		}
+
+		int [] indexes = new int[points.length];
+		ECFieldElement [] products = new ECFieldElement[points.length];
+		int count = 0;
+
+		for(int i = 0; i < points.length; i++) {
+			if(points[i].isInfinity() || points[i].isNormalized()) {
+				continue;
+			}
+
+			ECFieldElement z = points[i].getZCoord(0);
+			products[count] = count == 0 ? z : products[count - 1].multiply(z);
+			indexes[count++] = i;
+		}
+
+		if(count == 0) {
+			return result;
+		}
+
+		ECFieldElement inverse = products[count - 1].invert();
+
+		for(int j = count - 1; j >= 0; j--) {
+			ECPoint point = points[indexes[j]];
+			ECFieldElement z = point.getZCoord(0);
+			ECFieldElement zInverse = j == 0 ? inverse : inverse.multiply(products[j - 1]);
+			inverse = inverse.multiply(z);
+
+			// jacobian coordinates: x = X / Z^2, y = Y / Z^3
+			ECFieldElement zInverse2 = zInverse.square();
+			ECFieldElement x = point.getRawXCoord().multiply(zInverse2);
+			ECFieldElement y = point.getRawYCoord().multiply(zInverse2.multiply(zInverse));
+
+			result[indexes[j]] = CURVE.createPoint(x.toBigInteger(), y.toBigInteger());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Converts a normalized point into the web3j public key representation.
+	 */
+	public static BigInteger toPublicKeyValue(ECPoint point) {
+		byte [] encoded = point.getEncoded(false);
+		byte [] publicKey = new byte[PUBLIC_KEY_LENGTH];
+		System.arraycopy(encoded, 1, publicKey, 0, PUBLIC_KEY_LENGTH);
+
+		return new BigInteger(1, publicKey);
+	}
+
+	private static ECPoint [][] buildTable() {
+		ECPoint [] points = new ECPoint[WINDOWS * (WINDOW_SIZE - 1)];
+		ECPoint base = CURVE_PARAMS.getG();
+
+		for(int window = 0; window < WINDOWS; window++) {
+			ECPoint point = base;
+
+			for(int digit = 1; digit < WINDOW_SIZE; digit++) {
+				points[window * (WINDOW_SIZE - 1) + digit - 1] = point;
+				point = point.add(base);
+			}
+
+			// point is now 256 * base, the base of the next window
+			base = point.normalize();
+		}
+
+		// affine table entries allow cheaper mixed additions
+		points = normalizeAll(points);
+
+		ECPoint [][] table = new ECPoint[WINDOWS][WINDOW_SIZE];
+		for(int window = 0; window < WINDOWS; window++) {
+			for(int digit = 1; digit < WINDOW_SIZE; digit++) {
+				table[window][digit] = points[window * (WINDOW_SIZE - 1) + digit - 1];
+			}
+		}
+
+		return table;
+	}
+}
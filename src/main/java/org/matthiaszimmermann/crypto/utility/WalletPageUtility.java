@@ -3,7 +3,10 @@ package org.matthiaszimmermann.crypto.utility;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 
+import org.matthiaszimmermann.crypto.bitcoin.BitcoinAccount;
 import org.matthiaszimmermann.crypto.core.Mnemonic;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.Protocol;
@@ -19,6 +22,7 @@ public class WalletPageUtility extends HtmlUtility {
 	public static final String REPOSITORY = "https://github.com/matthiaszimmermann/TODO";
 
 	public static final String TITLE = "%s Paper Wallet (%s)";
+	public static final String SET_TITLE = "Paper Wallets";
 	public static final String LOGO = "/%s_logo.png"; 
 
 	public static final String CSS_CLEARFIX = "clearfix";
@@ -62,6 +66,45 @@ public class WalletPageUtility extends HtmlUtility {
 	};
 
 	public static String createHtml(Wallet wallet) {
+		return createHtml(Arrays.asList(wallet), getTitle(wallet.getProtocol()));
+	}
+
+	/**
+	 * Creates a single page with one section per provided wallet, e.g. for wallets of different technologies 
+	 * derived from the same mnemonic.
+	 */
+	public static String createHtml(List<Wallet> wallets) {
+		return createHtml(wallets, SET_TITLE);
+	}
+
+	private static String createHtml(List<Wallet> wallets, String title) {
+		StringBuffer html = new StringBuffer();
+
+		// header
+		HtmlUtility.addOpenElements(html, HtmlUtility.HTML, HtmlUtility.HEAD);
+		HtmlUtility.addTitle(html, title);
+		HtmlUtility.addStyles(html, CSS_STYLES);
+		HtmlUtility.addCloseElements(html, HtmlUtility.HEAD);
+
+		// body
+		HtmlUtility.addOpenElements(html, HtmlUtility.BODY);
+
+		for(Wallet wallet : wallets) {
+			addWallet(html, wallet);
+		}
+
+		// add footer content
+		String footer = String.format("Page created with Paper Wallet Generator [%s] V %s", REPOSITORY, VERSION);
+		HtmlUtility.addOpenFooter(html, CSS_FOOTER);
+		HtmlUtility.addContent(html, footer);
+		HtmlUtility.addCloseFooter(html);
+
+		HtmlUtility.addCloseElements(html, HtmlUtility.BODY, HtmlUtility.HTML);
+
+		return html.toString();
+	}
+
+	private static void addWallet(StringBuffer html, Wallet wallet) {
 		Protocol protocol = wallet.getProtocol();
 		Technology technology = protocol.getTechnology();
 		String address = wallet.getAccount().getAddress();
@@ -75,16 +118,6 @@ public class WalletPageUtility extends HtmlUtility {
 		byte [] secretQrCode = QrCodeUtility.contentToPngBytes(secret, 256);
 		byte [] walletQrCode = QrCodeUtility.contentToPngBytes(walletFileContent, 400);
 
-		StringBuffer html = new StringBuffer();
-
-		// header
-		HtmlUtility.addOpenElements(html, HtmlUtility.HTML, HtmlUtility.HEAD);
-		HtmlUtility.addTitle(html, getTitle(protocol));
-		HtmlUtility.addStyles(html, CSS_STYLES);
-		HtmlUtility.addCloseElements(html, HtmlUtility.HEAD);
-
-		// body
-		HtmlUtility.addOpenElements(html, HtmlUtility.BODY);
 		HtmlUtility.addHeader2(html, getTitle(protocol));
 
 		// add 1st row
@@ -127,6 +160,14 @@ public class WalletPageUtility extends HtmlUtility {
 		HtmlUtility.addContent(html, address);
 		HtmlUtility.addCloseDiv(html);
 
+		// account xpub for watch-only address derivation
+		if(wallet.getAccount() instanceof BitcoinAccount) {
+			HtmlUtility.addParagraph(html, "Account Extended Public Key (xpub)", CSS_CAPTION);
+			HtmlUtility.addOpenDiv(html, CSS_CONTENT);
+			HtmlUtility.addContent(html, ((BitcoinAccount) wallet.getAccount()).getXpub());
+			HtmlUtility.addCloseDiv(html);
+		}
+
 		// secret
 		HtmlUtility.addParagraph(html, secretLabel, CSS_CAPTION);
 		HtmlUtility.addOpenDiv(html, CSS_CONTENT);
@@ -181,16 +222,6 @@ public class WalletPageUtility extends HtmlUtility {
 
 		HtmlUtility.addCloseDiv(html);		
 		HtmlUtility.addCloseDiv(html);		
-
-		// add footer content
-		String footer = String.format("Page created with Paper Wallet Generator [%s] V %s", REPOSITORY, VERSION);
-		HtmlUtility.addOpenFooter(html, CSS_FOOTER);
-		HtmlUtility.addContent(html, footer);
-		HtmlUtility.addCloseFooter(html);
-
-		HtmlUtility.addCloseElements(html, HtmlUtility.BODY, HtmlUtility.HTML);
-
-		return html.toString();
 	}
 
 	private static String getCurrentDateTimeUTC() {
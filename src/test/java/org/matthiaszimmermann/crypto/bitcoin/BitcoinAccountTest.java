@@ -1,7 +1,10 @@
 package org.matthiaszimmermann.crypto.bitcoin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.List;
@@ -45,6 +48,65 @@ public class BitcoinAccountTest extends BaseTest {
 		assertEquals(address, account.getAddress());
 	}
 	
+	@Test
+	public void testPublicAddressDerivation() {
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_FIXED);
+		BitcoinAccount account = new BitcoinAccount(mnemonicWords, PASS_PHRASE, Network.Production);
+
+		for(Chain chain : account.getKeyContext().getChains()) {
+			List<String> addresses = chain.getAddressStrings(0, 25);
+
+			assertEquals(25, addresses.size());
+
+			for(int i = 0; i < addresses.size(); i += 8) {
+				assertEquals(chain.getAddressAt(i).getAddressString(), addresses.get(i));
+			}
+		}
+
+		assertEquals(ADDRESS_FIXED, account.getKeyContext().getReceiveChain().getAddressStrings(0, 1).get(0));
+	}
+
+	@Test
+	public void testWatchOnly() {
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_FIXED);
+		BitcoinAccount account = new BitcoinAccount(mnemonicWords, PASS_PHRASE, Network.Production);
+		BitcoinWatchOnly watchOnly = new BitcoinWatchOnly(account.getXpub(), Network.Production);
+
+		assertTrue(account.getXpub().startsWith("xpub"));
+		assertEquals(account.getXpub(), watchOnly.getXpub());
+		assertEquals(ADDRESS_FIXED, watchOnly.getReceiveChain().getAddressStringAt(0));
+		assertEquals(account.getKeyContext().getChangeChain().getAddressStrings(0, 5), watchOnly.getChangeChain().getAddressStrings(0, 5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWatchOnlyRejectsXprv() {
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_FIXED);
+		BitcoinAccount account = new BitcoinAccount(mnemonicWords, PASS_PHRASE, Network.Production);
+		String xprv = account.getKeyContext().getAccountKey().serializePrivB58(Bitcoin.getNetworkParameters(Network.Production));
+
+		new BitcoinWatchOnly(xprv, Network.Production);
+	}
+
+	@Test
+	public void testCreateAccounts() throws JSONException {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Bitcoin, Network.Production);
+		List<Account> accounts = protocol.createAccounts(Mnemonic.convert(MNEMONIC_WORDS_FIXED), PASS_PHRASE, 3);
+
+		assertEquals(3, accounts.size());
+		assertEquals(ADDRESS_FIXED, accounts.get(0).getAddress());
+		assertEquals(SECRET_FIXED, accounts.get(2).getSecret());
+		assertNotEquals(accounts.get(1).getAddress(), accounts.get(2).getAddress());
+
+		// the account index is part of the json, restoring reproduces the account
+		Account restored = protocol.restoreAccount(accounts.get(2).toJson(false), PASS_PHRASE);
+		assertEquals(accounts.get(2), restored);
+
+		// restoring with the first account shares its seed and root key
+		BitcoinAccount shared = (BitcoinAccount) protocol.restoreAccount(accounts.get(2).toJson(false), PASS_PHRASE, accounts.get(0));
+		assertEquals(accounts.get(2), shared);
+		assertSame(((BitcoinAccount) accounts.get(0)).getKeyContext().getRootKey(), shared.getKeyContext().getRootKey());
+	}
+
 	@Test
 	public void testCreateAndRestore() throws IOException, JSONException {
 		Network network = Network.Production;
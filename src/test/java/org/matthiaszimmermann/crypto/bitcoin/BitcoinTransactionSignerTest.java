@@ -0,0 +1,86 @@
+package org.matthiaszimmermann.crypto.bitcoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.List;
+
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.Utils;
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+import org.matthiaszimmermann.crypto.core.Mnemonic;
+import org.matthiaszimmermann.crypto.core.Network;
+
+public class BitcoinTransactionSignerTest extends BaseTest {
+
+	@Test
+	public void testSignTransactions() throws JSONException {
+		BitcoinAccount account = createAccount();
+		String recipient = account.getKeyContext().getReceiveChain().getAddressStringAt(5);
+
+		JSONArray transactions = new JSONArray();
+		for(int i = 0; i < 3; i++) {
+			transactions.put(createTransaction(i, recipient));
+		}
+
+		BitcoinTransactionSigner signer = new BitcoinTransactionSigner(account);
+		List<String> raw = signer.sign(new JSONObject().put(BitcoinTransactionSigner.JSON_TRANSACTIONS, transactions));
+
+		assertEquals(3, raw.size());
+		// receive 0 and change 1 are shared by all transactions
+		assertEquals(2, signer.getKeyCount());
+		assertNotEquals(raw.get(0), raw.get(1));
+
+		// every input signature spends the output script of its key, correctlySpends throws otherwise
+		NetworkParameters params = Bitcoin.getNetworkParameters(Network.Production);
+		Script receive0 = ScriptBuilder.createOutputScript(account.getKeyContext().getReceiveChain().getAddressAt(0).getAddress());
+		Script change1 = ScriptBuilder.createOutputScript(account.getKeyContext().getChangeChain().getAddressAt(1).getAddress());
+
+		for(String hex : raw) {
+			Transaction tx = new Transaction(params, Utils.HEX.decode(hex));
+
+			assertEquals(2, tx.getInputs().size());
+			tx.getInput(0).getScriptSig().correctlySpends(tx, 0, receive0);
+			tx.getInput(1).getScriptSig().correctlySpends(tx, 1, change1);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInsufficientInputs() throws JSONException {
+		JSONObject tx = createTransaction(0, BitcoinAccountTest.ADDRESS_FIXED);
+		tx.getJSONArray(BitcoinTransactionSigner.JSON_OUTPUTS).getJSONObject(0).put(BitcoinTransactionSigner.JSON_VALUE, 100000000L);
+
+		new BitcoinTransactionSigner(createAccount()).sign(new JSONObject().put(BitcoinTransactionSigner.JSON_TRANSACTIONS, new JSONArray().put(tx)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFeeAboveMaximum() throws JSONException {
+		// inputs of 80000 and an output of 70000 leave a fee of 10000
+		JSONObject tx = createTransaction(0, BitcoinAccountTest.ADDRESS_FIXED);
+
+		new BitcoinTransactionSigner(createAccount(), 5000).sign(new JSONObject().put(BitcoinTransactionSigner.JSON_TRANSACTIONS, new JSONArray().put(tx)));
+	}
+
+	private BitcoinAccount createAccount() {
+		List<String> mnemonicWords = Mnemonic.convert(BitcoinAccountTest.MNEMONIC_WORDS_FIXED);
+		return new BitcoinAccount(mnemonicWords, BitcoinAccountTest.PASS_PHRASE, Network.Production);
+	}
+
+	private JSONObject createTransaction(int n, String recipient) throws JSONException {
+		String txid = String.format("%064x", n + 1);
+		JSONArray inputs = new JSONArray()
+				.put(new JSONObject().put(BitcoinTransactionSigner.JSON_TXID, txid).put(BitcoinTransactionSigner.JSON_VOUT, 0).put(BitcoinTransactionSigner.JSON_VALUE, 50000).put(BitcoinTransactionSigner.JSON_CHAIN, 0).put(BitcoinTransactionSigner.JSON_INDEX, 0))
+				.put(new JSONObject().put(BitcoinTransactionSigner.JSON_TXID, txid).put(BitcoinTransactionSigner.JSON_VOUT, 1).put(BitcoinTransactionSigner.JSON_VALUE, 30000).put(BitcoinTransactionSigner.JSON_PATH, "m/44'/0'/0'/1/1"));
+		JSONArray outputs = new JSONArray()
+				.put(new JSONObject().put(BitcoinTransactionSigner.JSON_ADDRESS, recipient).put(BitcoinTransactionSigner.JSON_VALUE, 70000));
+
+		return new JSONObject().put(BitcoinTransactionSigner.JSON_INPUTS, inputs).put(BitcoinTransactionSigner.JSON_OUTPUTS, outputs);
+	}
+}
@@ -0,0 +1,66 @@
+package org.matthiaszimmermann.crypto.bitcoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.bitcoinj.crypto.ChildNumber;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class DerivationCacheTest extends BaseTest {
+
+	public static final byte [] SEED = new byte[32];
+
+	@Test
+	public void testHitsAndMisses() {
+		DerivationCache cache = new DerivationCache(10);
+		DeterministicKey master = HDKeyDerivation.createMasterPrivateKey(SEED);
+		DeterministicKey publicMaster = master.dropPrivateBytes().dropParent();
+
+		DeterministicKey child = cache.deriveChildKey(publicMaster, 0);
+
+		assertEquals(HDKeyDerivation.deriveChildKey(master, 0).getPubKeyPoint(), child.getPubKeyPoint());
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		assertSame(child, cache.deriveChildKey(publicMaster, 0));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testPrivateNodesNotCached() {
+		DerivationCache cache = new DerivationCache(10);
+		DeterministicKey master = HDKeyDerivation.createMasterPrivateKey(SEED);
+
+		DeterministicKey child = cache.deriveChildKey(master, 44 | ChildNumber.HARDENED_BIT);
+
+		assertEquals(HDKeyDerivation.deriveChildKey(master, 44 | ChildNumber.HARDENED_BIT), child);
+		assertEquals(child, cache.deriveChildKey(master, 44 | ChildNumber.HARDENED_BIT));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void testEviction() {
+		DerivationCache cache = new DerivationCache(2);
+		DeterministicKey master = HDKeyDerivation.createMasterPrivateKey(SEED).dropPrivateBytes().dropParent();
+
+		cache.deriveChildKey(master, 0);
+		cache.deriveChildKey(master, 1);
+		cache.deriveChildKey(master, 0); // 0 is now the most recently used node
+		cache.deriveChildKey(master, 2); // evicts 1
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getHits());
+
+		cache.deriveChildKey(master, 0);
+		cache.deriveChildKey(master, 1);
+
+		assertEquals(2, cache.getHits());
+		assertEquals(4, cache.getMisses());
+	}
+}
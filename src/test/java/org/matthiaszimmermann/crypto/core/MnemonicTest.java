@@ -60,6 +60,19 @@ public class MnemonicTest extends BaseTest {
 		log("--- start testBip39Vectors() ---");
 	}
 	
+	@Test
+	public void testBip39Seeds() throws Exception {
+		Bip39TestVectors vectors = new Bip39TestVectors();
+
+		// the reference vectors use the pass phrase 'TREZOR'
+		for(int i = 0; i < vectors.length(); i++) {
+			List<String> mnemonicWords = Mnemonic.convert(vectors.getMnemonic(i));
+			byte [] seed = Mnemonic.toSeed(mnemonicWords, "TREZOR");
+
+			assertEquals("seed mismatch for bip 39 vector " + i, vectors.getSeed(i), bytesToHex(seed).toLowerCase());
+		}
+	}
+
 	@Test
 	public void testMnemonicFixed16() throws Exception {
 		List<String> mnemonicWords = Mnemonic.deriveWords(ENTROPY_BYTES_16);
@@ -92,6 +105,17 @@ public class MnemonicTest extends BaseTest {
 		log("--- end testMnemonicRandom() ---");
 	}
 
+	private String bytesToHex(byte [] bytes) {
+		char [] hex = new char[bytes.length * 2];
+
+		for(int i = 0; i < bytes.length; i++) {
+			hex[2 * i] = HEX_ARRAY[(bytes[i] & 0xff) >>> 4];
+			hex[2 * i + 1] = HEX_ARRAY[bytes[i] & 0x0f];
+		}
+
+		return new String(hex);
+	}
+
 	private String entropyToString(byte [] entropy) {
 		if(entropy == null || entropy.length == 0) {
 			return "{}";
@@ -0,0 +1,53 @@
+package org.matthiaszimmermann.crypto.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class SeedContextTest extends BaseTest {
+
+	public static final String MNEMONIC_WORDS_FIXED = "history suit seat regular toe valid circle public issue degree river vendor";
+
+	@Test
+	public void testSeedComputedOnce() {
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_FIXED);
+		byte [] expected = Mnemonic.toSeed(mnemonicWords, "");
+		byte [] expectedWithPassPhrase = Mnemonic.toSeed(mnemonicWords, "test_pass_phrase");
+
+		try(SeedContext seeds = new SeedContext(mnemonicWords)) {
+			IntStream.range(0, 8).parallel().forEach(i -> assertArrayEquals(expected, seeds.getSeed("")));
+			assertArrayEquals(expected, seeds.getSeed(null));
+			assertArrayEquals(expectedWithPassPhrase, seeds.getSeed("test_pass_phrase"));
+
+			assertEquals(2, seeds.getSeedComputations());
+		}
+	}
+
+	@Test
+	public void testWalletFromSeedContext() {
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_FIXED);
+
+		for(Technology technology : Technology.values()) {
+			Protocol protocol = ProtocolFactory.getInstance(technology, Network.Production);
+			Wallet expected = protocol.createWallet(mnemonicWords, "test_pass_phrase", 2);
+
+			try(SeedContext seeds = new SeedContext(mnemonicWords)) {
+				Wallet wallet = protocol.createWallet(mnemonicWords, "test_pass_phrase", 2, seeds);
+
+				assertEquals(expected.getAccount().getAddress(), wallet.getAccount().getAddress());
+				assertEquals(expected.getAccounts().get(1).getAddress(), wallet.getAccounts().get(1).getAddress());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyMnemonic() {
+		new SeedContext(Collections.emptyList());
+	}
+}
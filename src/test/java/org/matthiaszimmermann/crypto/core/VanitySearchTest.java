@@ -0,0 +1,79 @@
+package org.matthiaszimmermann.crypto.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class VanitySearchTest extends BaseTest {
+
+	public static final String PASS_PHRASE = "test_pass_phrase";
+
+	@Test
+	public void testPatterns() {
+		VanitySearch bitcoin = new VanitySearch(ProtocolFactory.getInstance(Technology.Bitcoin, Network.Production), "1Ab", PASS_PHRASE, 1);
+		VanitySearch ethereum = new VanitySearch(ProtocolFactory.getInstance(Technology.Ethereum, Network.Production), "0xBEEF", PASS_PHRASE, 1);
+
+		assertEquals(1330.66, bitcoin.getDifficulty(), 0.01);
+		assertTrue(bitcoin.matches("1AbQx4bTzNvYcUosuCnqxTW3H4XJbqLrsR"));
+		assertFalse(bitcoin.matches("1ABQx4bTzNvYcUosuCnqxTW3H4XJbqLrsR"));
+
+		assertEquals("0xbeef", ethereum.getPrefix());
+		assertEquals(65536.0, ethereum.getDifficulty(), 0.0);
+		assertTrue(ethereum.matches("0xbeef7a1c7ab30f4f01e33d1c1d4e0d3b8a2c0e5d"));
+	}
+
+	@Test
+	public void testBitcoinDifficulty() {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Bitcoin, Network.Production);
+
+		assertEquals(1.0, new VanitySearch(protocol, "1", PASS_PHRASE, 1).getDifficulty(), 0.0);
+
+		// every further leading '1' is a zero byte
+		assertEquals(256.0, new VanitySearch(protocol, "11", PASS_PHRASE, 1).getDifficulty(), 0.0);
+		assertEquals(256.0 * 256.0, new VanitySearch(protocol, "111", PASS_PHRASE, 1).getDifficulty(), 0.0);
+
+		// the first character after the '1's is not uniform, '2' is more likely than 'z'
+		assertEquals(23.34, new VanitySearch(protocol, "12", PASS_PHRASE, 1).getDifficulty(), 0.01);
+		assertEquals(1353.60, new VanitySearch(protocol, "1z", PASS_PHRASE, 1).getDifficulty(), 0.01);
+	}
+
+	@Test
+	public void testCandidateAddress() {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Bitcoin, Network.Production);
+		List<String> mnemonicWords = protocol.generateMnemonicWords();
+
+		assertEquals(protocol.createAccount(mnemonicWords, PASS_PHRASE, Network.Production).getAddress(), 
+				protocol.deriveAddress(mnemonicWords, PASS_PHRASE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBitcoinPattern() {
+		// '0' is not part of the base58 alphabet
+		new VanitySearch(ProtocolFactory.getInstance(Technology.Bitcoin, Network.Production), "10", PASS_PHRASE, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBitcoinTestNetwork() {
+		// test network addresses start with 'm' or 'n', a search for '1...' would never end
+		new VanitySearch(ProtocolFactory.getInstance(Technology.Bitcoin, Network.Test), "1Ab", PASS_PHRASE, 1);
+	}
+
+	@Test
+	public void testSearch() {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Ethereum, Network.Production);
+		VanitySearch search = new VanitySearch(protocol, "0", PASS_PHRASE, 2);
+		List<String> mnemonicWords = search.search();
+
+		assertNotNull(mnemonicWords);
+		assertTrue(search.getCandidateCount() > 0);
+
+		Wallet wallet = protocol.createWallet(mnemonicWords, PASS_PHRASE);
+		assertTrue(wallet.getAccount().getAddress().startsWith("0x0"));
+	}
+}
@@ -2,10 +2,14 @@ package org.matthiaszimmermann.crypto.ethereum;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.util.List;
 
+import org.bitcoinj.crypto.DeterministicKey;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
@@ -15,7 +19,9 @@ import org.matthiaszimmermann.crypto.core.Mnemonic;
 import org.matthiaszimmermann.crypto.core.Network;
 import org.matthiaszimmermann.crypto.core.Protocol;
 import org.matthiaszimmermann.crypto.core.ProtocolFactory;
+import org.matthiaszimmermann.crypto.core.SeedContext;
 import org.matthiaszimmermann.crypto.core.Technology;
+import org.web3j.crypto.MnemonicUtils;
 
 public class EthereumAccountTest extends BaseTest {
 	
@@ -35,6 +41,104 @@ public class EthereumAccountTest extends BaseTest {
 		log("" + account);
 	}
 	
+	// bip 44 account 0 (m/44'/60'/0'/0/0) of the bip 39 reference mnemonic without pass phrase
+	public static final String MNEMONIC_WORDS_BIP39 = "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+	public static final String ADDRESS_BIP44_0 = "0x9858effd232b4033e47d90003d41ec34ecaeda94";
+	public static final String ADDRESS_BIP44_0_1 = "0x6fac4d18c912343bf86fa7049364dd4e424ab9c0";
+
+	@Test
+	public void testCreateAccounts() {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Ethereum, Network.Production);
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_BIP39);
+		List<Account> accounts = protocol.createAccounts(mnemonicWords, "", 3);
+
+		assertEquals(3, accounts.size());
+		assertNotEquals(accounts.get(1).getAddress(), accounts.get(2).getAddress());
+
+		// account 0 is the account of a single account wallet, further accounts are bip 44 accounts
+		assertEquals(protocol.createAccount(mnemonicWords, "", Network.Production).getAddress(), accounts.get(0).getAddress());
+		assertEquals(protocol.createAccounts(mnemonicWords, "", 1).get(0).getAddress(), accounts.get(0).getAddress());
+
+		DeterministicKey coinKey = Ethereum.deriveCoinKey(Mnemonic.toSeed(mnemonicWords, ""));
+		assertEquals(new EthereumAccount(Ethereum.derivePrivateKey(coinKey, 1, 0, 0), "", Network.Production).getAddress(), accounts.get(1).getAddress());
+	}
+
+	@Test
+	public void testNonNormalizedMnemonic() {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Ethereum, Network.Production);
+
+		// the single code point 'e' with accent is not in NFKD form, web3j hashes the words as they are
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_FIXED.replace("history", "caf\u00e9"));
+		BigInteger legacyKey = EthereumAccount.toPrivateKey(MnemonicUtils.generateSeed(Mnemonic.convert(mnemonicWords), PASS_PHRASE));
+		String expected = new EthereumAccount(legacyKey, PASS_PHRASE, Network.Production).getAddress();
+
+		assertFalse(EthereumAccount.hasBip39Seed(mnemonicWords, PASS_PHRASE));
+		assertEquals(expected, protocol.createAccount(mnemonicWords, PASS_PHRASE, Network.Production).getAddress());
+		assertEquals(expected, protocol.createAccounts(mnemonicWords, PASS_PHRASE, 2).get(0).getAddress());
+
+		try(SeedContext seeds = new SeedContext(mnemonicWords)) {
+			assertEquals(expected, protocol.createAccounts(mnemonicWords, PASS_PHRASE, 2, seeds).get(0).getAddress());
+		}
+	}
+
+	@Test
+	public void testDeriveAddresses() {
+		List<String> mnemonicWords = Mnemonic.convert(MNEMONIC_WORDS_BIP39);
+		List<String> addresses = Ethereum.deriveAddresses(mnemonicWords, "", 0, 20);
+
+		assertEquals(20, addresses.size());
+		assertEquals(ADDRESS_BIP44_0, addresses.get(0));
+		assertEquals(ADDRESS_BIP44_0_1, addresses.get(1));
+
+		DeterministicKey coinKey = Ethereum.deriveCoinKey(Mnemonic.toSeed(mnemonicWords, ""));
+		for(int i = 0; i < addresses.size(); i += 7) {
+			EthereumAccount account = new EthereumAccount(Ethereum.derivePrivateKey(coinKey, 0, 0, i), "", Network.Production);
+			assertEquals(account.getAddress(), addresses.get(i));
+		}
+
+		assertEquals(addresses.subList(15, 20), Ethereum.deriveAddresses(coinKey, 0, 15, 5, false));
+	}
+
+	@Test
+	public void testKeystoreCached() throws JSONException {
+		KeystoreProfile.setDefault(KeystoreProfile.LIGHT);
+
+		try {
+			EthereumAccount account = new EthereumAccount(Mnemonic.convert(MNEMONIC_WORDS_FIXED), PASS_PHRASE, Network.Production);
+			JSONObject json = account.toJson(false);
+
+			// a new key store would come with a new salt and iv
+			assertEquals(json.toString(), account.toJson(false).toString());
+			assertEquals(KeystoreProfile.LIGHT, account.getKeystoreProfile());
+
+			EthereumAccount restored = new EthereumAccount(json, PASS_PHRASE, Network.Production);
+			assertEquals(account, restored);
+			assertEquals(KeystoreProfile.LIGHT, restored.getKeystoreProfile());
+			assertEquals(json.toString(), restored.toJson(false).toString());
+		}
+		finally {
+			KeystoreProfile.setDefault(KeystoreProfile.STANDARD);
+		}
+	}
+
+	@Test
+	public void testKeystoreProfile() {
+		assertEquals(KeystoreProfile.STANDARD, KeystoreProfile.get("standard"));
+		assertEquals(KeystoreProfile.LIGHT, KeystoreProfile.get("Light"));
+		assertEquals(KeystoreProfile.LIGHT, KeystoreProfile.get("4096,8,6"));
+
+		KeystoreProfile custom = KeystoreProfile.get("16384, 8, 2");
+		assertEquals(KeystoreProfile.NAME_CUSTOM, custom.getName());
+		assertEquals(16384, custom.getN());
+		assertEquals(2, custom.getP());
+		assertEquals(16L * 1024 * 1024, custom.getMemory());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeystoreProfileInvalidR() {
+		KeystoreProfile.get("16384,4,1");
+	}
+
 	@Test
 	public void verifyMatchingAddress() throws IOException, JSONException {
 		Network network = Network.Production;
@@ -0,0 +1,64 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+import org.matthiaszimmermann.crypto.utility.Secp256k1Utility;
+
+public class EthereumAddressTest extends BaseTest {
+
+	// test vectors of EIP-55
+	public static final String [] CHECKSUM_ADDRESSES = {
+			"0x5aAeb6053F3E94C9b9A09f33669435E7Ef1BeAed",
+			"0xfB6916095ca1df60bB79Ce92cE3Ea74c37c5d359",
+			"0xdbF03B407c01E7cD3CBea99509d93f8DDDC8C6FB",
+			"0xD1220A0cf47c7B9Be7A2E6BA89F429762e7b9aDb"
+	};
+
+	// address of private key 1 (public key = generator point)
+	public static final String ADDRESS_KEY_1 = "0x7E5F4552091A69125d5DfCb7b8C2659029395Bdf";
+
+	@Test
+	public void testChecksumAddress() {
+		for(String address : CHECKSUM_ADDRESSES) {
+			assertEquals(address, EthereumAddress.toChecksumAddress(address.toLowerCase()));
+			assertEquals(address, EthereumAddress.toChecksumAddress(address.substring(2).toUpperCase()));
+			assertTrue(EthereumAddress.isValid(address));
+		}
+	}
+
+	@Test
+	public void testInvalidChecksum() {
+		String address = CHECKSUM_ADDRESSES[0];
+		// "0x5aAeb..." with the upper case A in lower case
+		String flipped = address.substring(0, 4) + address.substring(4, 5).toLowerCase() + address.substring(5);
+
+		assertFalse(EthereumAddress.isValid(flipped));
+		assertTrue(EthereumAddress.isValid(address.toLowerCase()));
+		assertFalse(EthereumAddress.isValid(address.substring(2)));
+		assertFalse(EthereumAddress.isValid(address.substring(0, 40) + "zz"));
+	}
+
+	@Test
+	public void testFromPublicKey() {
+		byte [] publicKey = Secp256k1Utility.publicKey(BigInteger.ONE, false);
+
+		assertEquals(ADDRESS_KEY_1.toLowerCase(), EthereumAddress.fromPublicKey(publicKey));
+		assertEquals(ADDRESS_KEY_1, EthereumAddress.fromPublicKeyChecksum(publicKey));
+
+		// plain x and y coordinates without prefix
+		byte [] coordinates = new byte[64];
+		System.arraycopy(publicKey, 1, coordinates, 0, 64);
+		assertEquals(ADDRESS_KEY_1.toLowerCase(), EthereumAddress.fromPublicKey(coordinates));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAddress() {
+		EthereumAddress.toChecksumAddress("0x1234");
+	}
+}
@@ -0,0 +1,127 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+import org.matthiaszimmermann.crypto.core.Network;
+import org.matthiaszimmermann.crypto.utility.FileUtility;
+import org.matthiaszimmermann.crypto.utility.KdfScheduler;
+import org.web3j.crypto.CipherException;
+import org.web3j.crypto.WalletFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class EthereumKeystoreImporterTest extends BaseTest {
+
+	public static final String PASS_PHRASE = "test pass phrase";
+
+	// small scrypt parameters keep the test fast
+	private static final KeystoreProfile PROFILE = KeystoreProfile.custom(1 << 10, 1);
+
+	@Test
+	public void testImport() throws Exception {
+		EthereumKeystoreImporter importer = new EthereumKeystoreImporter(PASS_PHRASE, Network.Production);
+		BigInteger privateKey = new BigInteger(EthereumTransactionSignerTest.PRIVATE_KEY, 16);
+		File file = createKeystoreFile(createKeystore(privateKey, PASS_PHRASE));
+
+		EthereumKeystoreImporter.Result result = importer.importKeystore(file);
+
+		assertTrue(result.getError(), result.isValid());
+		assertEquals(EthereumAddress.toChecksumAddress(new EthereumTransactionSigner(privateKey).getAddress()), result.getAddress());
+		assertEquals(result.getAddress(), ((EthereumAccount) result.getWallet().getAccount()).getChecksumAddress());
+		assertEquals(PROFILE, ((EthereumAccount) result.getWallet().getAccount()).getKeystoreProfile());
+		assertNull(result.getWallet().getMnemonicWords());
+
+		// a second key store of the same key is not imported again
+		EthereumKeystoreImporter.Result duplicate = importer.importKeystore(createKeystoreFile(createKeystore(privateKey, PASS_PHRASE)));
+
+		assertFalse(duplicate.isValid());
+		assertNull(duplicate.getWallet());
+		assertEquals(1, importer.getImportCount());
+	}
+
+	@Test
+	public void testWrongPassPhrase() throws Exception {
+		EthereumKeystoreImporter importer = new EthereumKeystoreImporter("wrong pass phrase", Network.Production);
+		File file = createKeystoreFile(createKeystore(BigInteger.valueOf(12345), PASS_PHRASE));
+
+		EthereumKeystoreImporter.Result result = importer.importKeystore(file);
+
+		assertFalse(result.isValid());
+		assertNotNull(result.getError());
+		assertNull(result.getAddress());
+		assertEquals(0, importer.getImportCount());
+	}
+
+	@Test
+	public void testAddressMismatch() throws Exception {
+		EthereumKeystoreImporter importer = new EthereumKeystoreImporter(PASS_PHRASE, Network.Production);
+		WalletFile keystore = createKeystore(BigInteger.valueOf(12345), PASS_PHRASE);
+		keystore.setAddress("3535353535353535353535353535353535353535");
+
+		EthereumKeystoreImporter.Result result = importer.importKeystore(createKeystoreFile(keystore));
+
+		assertFalse(result.isValid());
+		assertNull(result.getWallet());
+	}
+
+	@Test
+	public void testKeystoreOverMemoryBudget() throws Exception {
+		EthereumKeystoreImporter importer = new EthereumKeystoreImporter(PASS_PHRASE, Network.Production);
+		File file = createKeystoreFile(createKeystore(BigInteger.valueOf(12345), PASS_PHRASE));
+		KdfScheduler scheduler = KdfScheduler.getInstance();
+
+		// 128 * N * r = 1 MB exceeds a budget of 512 KB, the key store is decrypted alone
+		KdfScheduler.configure(512 * 1024, 1);
+
+		try {
+			EthereumKeystoreImporter.Result result = importer.importKeystore(file);
+
+			assertTrue(result.getError(), result.isValid());
+		}
+		finally {
+			KdfScheduler.configure(scheduler.getMemoryBudget(), scheduler.getCpuSlots());
+		}
+	}
+
+	@Test
+	public void testKeystoreOverMaxHeap() throws Exception {
+		EthereumKeystoreImporter importer = new EthereumKeystoreImporter(PASS_PHRASE, Network.Production);
+		WalletFile keystore = createKeystore(BigInteger.valueOf(12345), PASS_PHRASE);
+
+		// 128 * 2^30 * r = 1 TB can never be allocated, the key store is reported instead of decrypted
+		((WalletFile.ScryptKdfParams) keystore.getCrypto().getKdfparams()).setN(1 << 30);
+
+		EthereumKeystoreImporter.Result result = importer.importKeystore(createKeystoreFile(keystore));
+
+		assertFalse(result.isValid());
+		assertTrue(result.getError(), result.getError().contains("maximum heap"));
+	}
+
+	@Test
+	public void testKeystoreFileNames() {
+		assertTrue(EthereumKeystoreImporter.isKeystoreFile("UTC--2018-01-01T00-00-00.000000000Z--3535353535353535353535353535353535353535"));
+		assertTrue(EthereumKeystoreImporter.isKeystoreFile("wallet.json"));
+		assertFalse(EthereumKeystoreImporter.isKeystoreFile("wallet.html"));
+	}
+
+	private WalletFile createKeystore(BigInteger privateKey, String passPhrase) throws CipherException {
+		return PROFILE.createKeystore(passPhrase, EthereumAccount.createKeyPair(privateKey.toString(16)));
+	}
+
+	private File createKeystoreFile(WalletFile keystore) throws IOException {
+		File file = File.createTempFile("keystore", ".json");
+		file.deleteOnExit();
+		FileUtility.saveToFile(new ObjectMapper().writeValueAsString(keystore), file.getAbsolutePath(), true);
+		return file;
+	}
+}
@@ -0,0 +1,101 @@
+package org.matthiaszimmermann.crypto.ethereum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class EthereumTransactionSignerTest extends BaseTest {
+
+	// example of EIP-155
+	public static final String PRIVATE_KEY = "4646464646464646464646464646464646464646464646464646464646464646";
+	public static final String TRANSACTION = "{\"nonce\": 9, \"gasPrice\": \"20000000000\", \"gasLimit\": \"0x5208\", "
+			+ "\"to\": \"0x3535353535353535353535353535353535353535\", \"value\": \"1000000000000000000\", \"data\": \"\", \"chainId\": 1}";
+	public static final String RAW_TRANSACTION = "0xf86c098504a817c800825208943535353535353535353535353535353535353535880de0b6b3a7640000"
+			+ "8025a028ef61340bd939bc2195fe537567866003e1a15d3c71ff63e1590620aa636276a067cbe9d8997f761aecb703304b3800ccf555c9f3dc64214b297fb1966a3b6d83";
+
+	@Test
+	public void testEip155Example() {
+		EthereumTransactionSigner signer = new EthereumTransactionSigner(new BigInteger(PRIVATE_KEY, 16));
+		List<String> raw = signer.sign(Arrays.asList(TRANSACTION, ""));
+
+		assertEquals(1, raw.size());
+		assertEquals(RAW_TRANSACTION, raw.get(0));
+	}
+
+	@Test
+	public void testBatch() {
+		EthereumTransactionSigner signer = new EthereumTransactionSigner(new BigInteger(PRIVATE_KEY, 16));
+		List<String> lines = new ArrayList<>();
+
+		for(int i = 0; i < 200; i++) {
+			lines.add(TRANSACTION);
+		}
+
+		// signatures are deterministic, every line results in the same raw transaction
+		for(String raw : signer.sign(lines)) {
+			assertEquals(RAW_TRANSACTION, raw);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRecipient() {
+		new EthereumTransactionSigner(new BigInteger(PRIVATE_KEY, 16)).sign(Arrays.asList(TRANSACTION.replace("0x3535", "0x35")));
+	}
+
+	@Test
+	public void testInvalidData() {
+		EthereumTransactionSigner signer = new EthereumTransactionSigner(new BigInteger(PRIVATE_KEY, 16));
+
+		for(String data : Arrays.asList("0xzz", "0x123", "12g4")) {
+			try {
+				signer.sign(Arrays.asList(TRANSACTION, TRANSACTION.replace("\"data\": \"\"", "\"data\": \"" + data + "\"")));
+				fail("Invalid data accepted: " + data);
+			}
+			catch(IllegalArgumentException e) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid transaction on line 2"));
+			}
+		}
+	}
+
+	@Test
+	public void testRlpEncoding() {
+		RlpEncoder rlp = new RlpEncoder(4);
+		byte [] lorem = "Lorem ipsum dolor sit amet, consectetur adipisicing elit".getBytes(StandardCharsets.UTF_8);
+
+		assertEquals("83646f67", toHex(rlp.reset().encode("dog".getBytes(StandardCharsets.UTF_8)).toByteArray()));
+		assertEquals("c88363617483646f67", toHex(rlp.reset().beginList().encode("cat".getBytes(StandardCharsets.UTF_8)).encode("dog".getBytes(StandardCharsets.UTF_8)).endList().toByteArray()));
+		assertEquals("80", toHex(rlp.reset().encode(0).toByteArray()));
+		assertEquals("0f", toHex(rlp.reset().encode(15).toByteArray()));
+		assertEquals("820400", toHex(rlp.reset().encode(BigInteger.valueOf(1024)).toByteArray()));
+		assertEquals("c0", toHex(rlp.reset().beginList().endList().toByteArray()));
+		assertEquals("b838", toHex(rlp.reset().encode(lorem).toByteArray()).substring(0, 4));
+
+		// set theoretical representation of three
+		rlp.reset().beginList().beginList().endList().beginList().beginList().endList().endList()
+		.beginList().beginList().endList().beginList().beginList().endList().endList().endList().endList();
+		assertEquals("c7c0c1c0c3c0c1c0", toHex(rlp.toByteArray()));
+
+		// long list
+		rlp.reset().beginList().encode(lorem).encode(lorem).encode(lorem).endList();
+		assertEquals("f8aeb838", toHex(rlp.toByteArray()).substring(0, 8));
+	}
+
+	private static String toHex(byte [] bytes) {
+		StringBuilder hex = new StringBuilder();
+
+		for(byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+
+		return hex.toString();
+	}
+}
@@ -0,0 +1,90 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class AddressIndexTest extends BaseTest {
+
+	public static final String WALLET_NAME = "iota_wallet.json";
+
+	@Test
+	public void testAddAndLookup() throws IOException {
+		File file = createIndexFile();
+
+		try(AddressIndex index = AddressIndex.open(file)) {
+			assertTrue(index.add(IotaAccountTest.ADDRESS_FIXED, WALLET_NAME, 0, 2));
+			assertTrue(index.add(IotaAccountTest.ADDRESS_INDEX_30, WALLET_NAME, 30, 2));
+			assertFalse(index.add(IotaAccountTest.ADDRESS_FIXED.substring(0, IotaSigning.ADDRESS_LENGTH), WALLET_NAME, 0, 2));
+			assertEquals(2, index.size());
+
+			AddressIndex.Entry entry = index.lookup(IotaAccountTest.ADDRESS_INDEX_30);
+			assertEquals(IotaAccountTest.ADDRESS_INDEX_30.substring(0, IotaSigning.ADDRESS_LENGTH), entry.getAddress());
+			assertEquals(WALLET_NAME, entry.getWalletName());
+			assertEquals(30, entry.getIndex());
+			assertEquals(2, entry.getSecurity());
+
+			assertNull(index.lookup(IotaAccountTest.ADDRESS_INDEX_1));
+		}
+	}
+
+	@Test
+	public void testReopenAndGrow() throws IOException {
+		File file = createIndexFile();
+		Random random = new Random(3);
+		String [] addresses = new String[10000];
+
+		// few buckets and many records force long chains and several remappings
+		try(AddressIndex index = AddressIndex.open(file, 16)) {
+			for(int i = 0; i < addresses.length; i++) {
+				addresses[i] = randomAddress(random);
+				assertTrue(index.add(addresses[i], "wallet_" + (i % 7) + ".json", i, 1 + i % 3));
+			}
+		}
+
+		try(AddressIndex index = AddressIndex.open(file)) {
+			assertEquals(addresses.length, index.size());
+
+			for(int i = 0; i < addresses.length; i += 97) {
+				AddressIndex.Entry entry = index.lookup(addresses[i]);
+				assertEquals("wallet_" + (i % 7) + ".json", entry.getWalletName());
+				assertEquals(i, entry.getIndex());
+				assertEquals(1 + i % 3, entry.getSecurity());
+			}
+
+			// appending after reopening
+			assertTrue(index.add(IotaAccountTest.ADDRESS_FIXED, WALLET_NAME, 0, 2));
+			assertEquals(0, index.lookup(IotaAccountTest.ADDRESS_FIXED).getIndex());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAddress() throws IOException {
+		try(AddressIndex index = AddressIndex.open(createIndexFile())) {
+			index.lookup("NOT9AN9ADDRESS");
+		}
+	}
+
+	private File createIndexFile() throws IOException {
+		File file = File.createTempFile("address_index", ".idx");
+		file.delete();
+		file.deleteOnExit();
+		return file;
+	}
+
+	private String randomAddress(Random random) {
+		StringBuilder address = new StringBuilder();
+		for(int i = 0; i < IotaSigning.ADDRESS_LENGTH; i++) {
+			address.append(Iota.TRYTE_ALPHABET.charAt(random.nextInt(27)));
+		}
+		return address.toString();
+	}
+}
@@ -0,0 +1,51 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class BatchCurlTest extends BaseTest {
+
+	@Test
+	public void testMatchesCurl() {
+		verifyLanes(BatchCurl.LANES, Curl.ROUNDS_P81, 2 * Sponge.HASH_LENGTH);
+		verifyLanes(BatchCurl.LANES, Curl.ROUNDS_P27, Sponge.HASH_LENGTH);
+		verifyLanes(5, Curl.ROUNDS_P81, 3 * Sponge.HASH_LENGTH);
+		verifyLanes(1, Curl.ROUNDS_P81, 100);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyLanes() {
+		new BatchCurl().absorb(new int[BatchCurl.LANES + 1][Sponge.HASH_LENGTH], 0, Sponge.HASH_LENGTH);
+	}
+
+	private void verifyLanes(int lanes, int rounds, int length) {
+		Random random = new Random(lanes + rounds);
+		int [][] input = new int[lanes][length];
+		int [][] output = new int[lanes][2 * Sponge.HASH_LENGTH];
+
+		for(int [] trits : input) {
+			for(int i = 0; i < trits.length; i++) {
+				trits[i] = random.nextInt(3) - 1;
+			}
+		}
+
+		BatchCurl batch = new BatchCurl(rounds);
+		batch.absorb(input, 0, length);
+		batch.squeeze(output, 0, 2 * Sponge.HASH_LENGTH);
+
+		Curl curl = new Curl(rounds);
+		for(int lane = 0; lane < lanes; lane++) {
+			int [] expected = new int[2 * Sponge.HASH_LENGTH];
+
+			curl.reset();
+			curl.absorb(input[lane], 0, length);
+			curl.squeeze(expected, 0, expected.length);
+
+			assertArrayEquals(expected, output[lane]);
+		}
+	}
+}
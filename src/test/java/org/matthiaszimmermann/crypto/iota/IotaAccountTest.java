@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.json.JSONException;
@@ -25,6 +26,11 @@ public class IotaAccountTest extends BaseTest {
 	public static final String ADDRESS_FIXED = "RCJXXBJJGBXOCCRGVZYITIBTVRGYQZDTJIZELVWTYJNHFLKFQNYGCJNXLWXPJDCICQJBCGGUOVNUTQGKYFZZSOCJED";
 	public static final String PASS_PHRASE = "test_pass_phrase";
 
+	public static final String ADDRESS_INDEX_1 = "DD9IHCYGKZIGQLUJUWBMWDNSCDVSGVYOWXFJIYYKXTTXYWCSFMUBGPYJQALYREJGVIXGGUJWTKXIYSGL9XTNBRHAKB";
+	public static final String ADDRESS_INDEX_30 = "KH9QPNOCODAZBA9KQAOJNYWLYCQYDYMMXTNFYYFHZVSEDFPDELEKRFAYEWUUSJURQLLHMVTTDAWUXSNNXRQCYUOSCX";
+	public static final String ADDRESS_SECURITY_1 = "FIJQJTVFJTKOOPWWOHBDANHMYSPJSFGPKAVPSURAEGE9KP9DQ9PHKGVWAWCPIDPELYJZ9G9SAWZSLCCUWGW9RWUGIA";
+	public static final String ADDRESS_SECURITY_3 = "HGXKCLLOYYEGJEJMZJGVBPHTHHJZMSFSYNBHUSRFJKKOFCZCXLHOBDGLB9OBUAZAWJLWL9GUJPREPNA9CNLGJICZPD";
+
 	@Test
 	public void verifyMatchingAddress() throws IOException, JSONException {
 		Network network = Network.Production;
@@ -46,6 +52,49 @@ public class IotaAccountTest extends BaseTest {
 		assertEquals(address, account.getAddress());
 	}
 
+	@Test
+	public void testDeriveAddresses() {
+		List<String> addresses = IotaAccount.deriveAddresses(SECRET_FIXED, IotaAccount.SECURITY_LEVEL_DEFAULT, 0, 31, true);
+
+		assertEquals(31, addresses.size());
+		assertEquals(ADDRESS_FIXED, addresses.get(0));
+		assertEquals(ADDRESS_INDEX_1, addresses.get(1));
+		assertEquals(ADDRESS_INDEX_30, addresses.get(30));
+
+		assertEquals(ADDRESS_INDEX_30, IotaAccount.deriveAddresses(SECRET_FIXED, IotaAccount.SECURITY_LEVEL_DEFAULT, 30, 1, true).get(0));
+		assertEquals(ADDRESS_SECURITY_1, IotaAccount.deriveAddresses(SECRET_FIXED, 1, 0, 1, true).get(0));
+		assertEquals(ADDRESS_SECURITY_3, IotaAccount.deriveAddresses(SECRET_FIXED, 3, 0, 1, true).get(0));
+		assertEquals(ADDRESS_FIXED.substring(0, 81), IotaAccount.deriveAddresses(SECRET_FIXED, IotaAccount.SECURITY_LEVEL_DEFAULT, 0, 1, false).get(0));
+	}
+
+	@Test
+	public void testDeriveAddressesBatch() {
+		String otherSeed = SECRET_FIXED.substring(1) + "9";
+		List<List<String>> addresses = IotaAccount.deriveAddresses(Arrays.asList(SECRET_FIXED, otherSeed, SECRET_FIXED), IotaAccount.SECURITY_LEVEL_DEFAULT, 0, 2, true);
+
+		assertEquals(3, addresses.size());
+		assertEquals(Arrays.asList(ADDRESS_FIXED, ADDRESS_INDEX_1), addresses.get(0));
+		assertEquals(IotaAccount.deriveAddresses(otherSeed, IotaAccount.SECURITY_LEVEL_DEFAULT, 0, 2, true), addresses.get(1));
+		assertEquals(addresses.get(0), addresses.get(2));
+	}
+
+	@Test
+	public void testCreateAccounts() {
+		Protocol protocol = ProtocolFactory.getInstance(Technology.Iota, Network.Production);
+		List<Account> accounts = protocol.createAccounts(Mnemonic.convert(MNEMONIC_WORDS_FIXED), PASS_PHRASE, 2);
+
+		assertEquals(2, accounts.size());
+		assertEquals(SECRET_FIXED, accounts.get(1).getSecret());
+		assertEquals(ADDRESS_FIXED, accounts.get(0).getAddress());
+		assertEquals(ADDRESS_INDEX_1, accounts.get(1).getAddress());
+		assertEquals(1, ((IotaAccount) accounts.get(1)).getIndex());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDeriveAddressesInvalidSecurity() {
+		IotaAccount.deriveAddresses(SECRET_FIXED, 4, 0, 1, true);
+	}
+
 	@Test
 	public void testCreateAndRestore() throws IOException, JSONException {		
 		Network network = Network.Production;
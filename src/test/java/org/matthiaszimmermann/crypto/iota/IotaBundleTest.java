@@ -0,0 +1,135 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class IotaBundleTest extends BaseTest {
+
+	public static final String SEED = IotaAccountTest.SECRET_FIXED;
+	public static final String RECIPIENT = IotaAccountTest.ADDRESS_INDEX_30;
+	public static final String TAG = "PAPER9WALLET";
+	public static final long TIMESTAMP = 1500000000L;
+
+	private static final int OFFSET_ADDRESS = 2187;
+	private static final int OFFSET_VALUE = 2268;
+	private static final int OFFSET_CURRENT_INDEX = 2331;
+	private static final int OFFSET_BUNDLE = 2349;
+	private static final int OFFSET_TAG = 2592;
+
+	@Test
+	public void testSignBundle() {
+		IotaBundle bundle = new IotaBundle(SEED)
+				.addOutput(RECIPIENT, 150, TAG)
+				.addInput(0, 2, 100)
+				.addInput(3, 1, 70)
+				.setRemainderAddress(IotaAccountTest.ADDRESS_INDEX_1)
+				.setTimestamp(TIMESTAMP);
+
+		List<String> trytes = bundle.sign();
+		String bundleHash = bundle.getBundleHash();
+
+		// output, 2 + 1 input transactions, remainder
+		assertEquals(5, trytes.size());
+
+		List<String> transactions = new ArrayList<>(trytes);
+		Collections.reverse(transactions);
+
+		long sum = 0;
+		for(int i = 0; i < transactions.size(); i++) {
+			String transaction = transactions.get(i);
+			assertEquals(IotaBundle.TRANSACTION_LENGTH, transaction.length());
+			assertEquals(i, Trytes.toLong(transaction.substring(OFFSET_CURRENT_INDEX, OFFSET_CURRENT_INDEX + 9)));
+			assertEquals(bundleHash, transaction.substring(OFFSET_BUNDLE, OFFSET_BUNDLE + 81));
+
+			// input and remainder transactions reuse the output tag (jota)
+			assertEquals(Trytes.pad(TAG, IotaBundle.TAG_LENGTH), transaction.substring(OFFSET_TAG, OFFSET_TAG + IotaBundle.TAG_LENGTH));
+			sum += value(transaction);
+		}
+
+		assertEquals(0, sum);
+		assertEquals(RECIPIENT.substring(0, 81), address(transactions.get(0)));
+		assertEquals(-100, value(transactions.get(1)));
+		assertEquals(IotaAccountTest.ADDRESS_INDEX_1.substring(0, 81), address(transactions.get(4)));
+		assertEquals(20, value(transactions.get(4)));
+
+		int [] normalizedBundle = IotaSigning.normalizedBundle(bundleHash);
+		for(int value : normalizedBundle) {
+			assertFalse(value == IotaSigning.MAX_TRYTE_VALUE);
+		}
+
+		// the signatures must lead back to the input addresses
+		assertEquals(address(transactions.get(1)), signatureAddress(normalizedBundle, transactions.subList(1, 3)));
+		assertEquals(address(transactions.get(3)), signatureAddress(normalizedBundle, transactions.subList(3, 4)));
+		assertEquals(IotaAccount.deriveAddresses(SEED, 1, 3, 1, false).get(0), address(transactions.get(3)));
+	}
+
+	@Test
+	public void testSignatureFastPathMatchesTritPath() {
+		final Kerl kerl = new Kerl();
+		Sponge tritOnly = new Sponge() {
+			public void reset() { kerl.reset(); }
+			public void absorb(int [] trits, int offset, int length) { kerl.absorb(trits, offset, length); }
+			public void squeeze(int [] trits, int offset, int length) { kerl.squeeze(trits, offset, length); }
+		};
+
+		int [] seed = Trytes.toTrits(SEED);
+		int [] normalizedBundle = IotaSigning.normalizedBundle(IotaAccountTest.ADDRESS_FIXED.substring(0, 81));
+		int [][] expected = new IotaSigning(tritOnly).signatureFragments(seed, 2, 3, normalizedBundle);
+		int [][] actual = new IotaSigning().signatureFragments(seed, 2, 3, normalizedBundle);
+
+		for(int s = 0; s < 3; s++) {
+			assertArrayEquals(expected[s], actual[s]);
+		}
+	}
+
+	@Test
+	public void testNormalizedBundle() {
+		int [] normalized = IotaSigning.normalizedBundle(IotaAccountTest.ADDRESS_FIXED.substring(0, 81));
+
+		for(int i = 0; i < 3; i++) {
+			int sum = 0;
+			for(int j = 0; j < 27; j++) {
+				sum += normalized[i * 27 + j];
+			}
+			assertEquals(0, sum);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInsufficientBalance() {
+		new IotaBundle(SEED).addOutput(RECIPIENT, 150, TAG).addInput(0, 2, 100).sign();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidChecksum() {
+		new IotaBundle(SEED).addOutput(RECIPIENT.substring(0, 89) + "A", 150, TAG);
+	}
+
+	private String signatureAddress(int [] normalizedBundle, List<String> transactions) {
+		IotaSigning signing = new IotaSigning();
+		int [] digests = new int[transactions.size() * Sponge.HASH_LENGTH];
+
+		for(int i = 0; i < transactions.size(); i++) {
+			int [] fragment = Trytes.toTrits(transactions.get(i).substring(0, IotaBundle.SIGNATURE_LENGTH));
+			System.arraycopy(signing.signatureDigest(normalizedBundle, i, fragment), 0, digests, i * Sponge.HASH_LENGTH, Sponge.HASH_LENGTH);
+		}
+
+		return Trytes.fromTrits(signing.address(digests));
+	}
+
+	private String address(String transaction) {
+		return transaction.substring(OFFSET_ADDRESS, OFFSET_ADDRESS + 81);
+	}
+
+	private long value(String transaction) {
+		return Trytes.toLong(transaction.substring(OFFSET_VALUE, OFFSET_VALUE + 27));
+	}
+}
@@ -0,0 +1,96 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class IotaBundleValidatorTest extends BaseTest {
+
+	@Test
+	public void testValidBundle() {
+		IotaBundleValidator.Result result = new IotaBundleValidator().validate("test", signedBundle(0));
+
+		assertTrue(result.getErrors().toString(), result.isValid());
+		assertTrue(result.getAddresses().contains(IotaAccountTest.ADDRESS_INDEX_30));
+		assertTrue(result.getAddresses().contains(IotaAccountTest.ADDRESS_FIXED));
+	}
+
+	@Test
+	public void testTamperedValue() {
+		List<String> bundle = signedBundle(0);
+		String output = bundle.get(bundle.size() - 1);
+
+		// move value from the output to the remainder keeps the sum at 0 but changes the bundle hash
+		bundle.set(bundle.size() - 1, replace(output, 2268, Trytes.fromLong(9, 27)));
+		bundle.set(0, replace(bundle.get(0), 2268, Trytes.fromLong(21, 27)));
+
+		IotaBundleValidator.Result result = new IotaBundleValidator().validate("test", bundle);
+		assertFalse(result.isValid());
+		assertEquals("bundle hash mismatch", result.getErrors().get(0));
+	}
+
+	@Test
+	public void testValueOutOfRange() {
+		List<String> bundle = signedBundle(0);
+		long outOfRange = 1L;
+
+		for(int i = 0; i < IotaBundleValidator.VALUE_TRITS; i++) {
+			outOfRange *= 3;
+		}
+
+		// a value beyond the 33 value trits or above the supply must not enter the sum
+		bundle.set(0, replace(bundle.get(0), 2268, Trytes.fromLong(outOfRange, 27)));
+		assertTrue(new IotaBundleValidator().validate("test", bundle).getErrors().get(0).endsWith("has invalid value"));
+
+		bundle.set(0, replace(bundle.get(0), 2268, Trytes.fromLong(IotaBundleValidator.MAX_SUPPLY + 1, 27)));
+		assertTrue(new IotaBundleValidator().validate("test", bundle).getErrors().get(0).endsWith("has invalid value"));
+	}
+
+	@Test
+	public void testTamperedSignature() {
+		List<String> bundle = signedBundle(0);
+		String input = bundle.get(2);
+		bundle.set(2, replace(input, 0, input.charAt(0) == 'A' ? "B" : "A"));
+
+		IotaBundleValidator.Result result = new IotaBundleValidator().validate("test", bundle);
+		assertFalse(result.isValid());
+		assertTrue(result.getErrors().get(0).startsWith("invalid signature"));
+	}
+
+	@Test
+	public void testGroupByBundle() {
+		List<String> transactions = new ArrayList<>(signedBundle(0));
+		transactions.addAll(signedBundle(1));
+		transactions.add("NOT9A9TRANSACTION");
+
+		Map<String, List<String>> bundles = IotaBundleValidator.groupByBundle(transactions);
+		assertEquals(3, bundles.size());
+		assertEquals(1, bundles.get("").size());
+
+		IotaBundleValidator validator = new IotaBundleValidator();
+		for(Map.Entry<String, List<String>> bundle : bundles.entrySet()) {
+			assertEquals(!bundle.getKey().isEmpty(), validator.validate("test", bundle.getValue()).isValid());
+		}
+	}
+
+	// output, 2 input transactions (security 2), remainder; last transaction first
+	private List<String> signedBundle(int index) {
+		return new IotaBundle(IotaAccountTest.SECRET_FIXED)
+				.addOutput(IotaAccountTest.ADDRESS_INDEX_30, 10, "")
+				.addInput(index, 2, 30)
+				.setRemainderAddress(IotaAccountTest.ADDRESS_INDEX_1)
+				.setTimestamp(1500000000L)
+				.sign();
+	}
+
+	private String replace(String transaction, int offset, String trytes) {
+		return transaction.substring(0, offset) + trytes + transaction.substring(offset + trytes.length());
+	}
+}
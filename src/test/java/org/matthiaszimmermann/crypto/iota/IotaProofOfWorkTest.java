@@ -0,0 +1,86 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class IotaProofOfWorkTest extends BaseTest {
+
+	public static final int MIN_WEIGHT_MAGNITUDE = 9;
+
+	@Test
+	public void testSearch() {
+		String transaction = signedBundle().get(0);
+		IotaProofOfWork pow = new IotaProofOfWork(2);
+
+		String result = pow.search(transaction, MIN_WEIGHT_MAGNITUDE);
+		log("pow: %d hashes, %.0f hashes/s", pow.getHashCount(), pow.getHashRate());
+
+		assertNotNull(result);
+		assertEquals(transaction.substring(0, 2646), result.substring(0, 2646));
+		assertTrue(pow.getHashCount() > 0);
+		assertZeroTail(IotaProofOfWork.transactionHash(result), MIN_WEIGHT_MAGNITUDE);
+	}
+
+	@Test
+	public void testAttach() {
+		List<String> bundle = signedBundle();
+		String trunk = IotaAccountTest.ADDRESS_INDEX_1.substring(0, 81);
+		String branch = IotaAccountTest.ADDRESS_INDEX_30.substring(0, 81);
+
+		List<String> attached = new IotaProofOfWork(1).attach(bundle, trunk, branch, MIN_WEIGHT_MAGNITUDE);
+		assertEquals(bundle.size(), attached.size());
+
+		for(int i = 0; i < attached.size(); i++) {
+			String transaction = attached.get(i);
+			String expectedTrunk = i == 0 ? trunk : IotaProofOfWork.transactionHash(attached.get(i - 1));
+			String expectedBranch = i == 0 ? branch : trunk;
+
+			assertEquals(expectedTrunk, transaction.substring(2430, 2511));
+			assertEquals(expectedBranch, transaction.substring(2511, 2592));
+			assertZeroTail(IotaProofOfWork.transactionHash(transaction), MIN_WEIGHT_MAGNITUDE);
+		}
+	}
+
+	@Test
+	public void testCancel() throws InterruptedException {
+		String transaction = signedBundle().get(0);
+		IotaProofOfWork pow = new IotaProofOfWork(1);
+		String [] result = { "" };
+
+		Thread search = new Thread(() -> result[0] = pow.search(transaction, 80));
+		search.start();
+		Thread.sleep(200);
+		pow.cancel();
+		search.join(10000);
+
+		assertNull(result[0]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyThreads() {
+		// the worker id of thread 29525 does not fit into the worker trits
+		new IotaProofOfWork(IotaProofOfWork.MAX_THREADS + 1);
+	}
+
+	private List<String> signedBundle() {
+		return new IotaBundle(IotaAccountTest.SECRET_FIXED)
+				.addOutput(IotaAccountTest.ADDRESS_INDEX_30, 10, "")
+				.addInput(0, 1, 10)
+				.setTimestamp(1500000000L)
+				.sign();
+	}
+
+	private void assertZeroTail(String hash, int minWeightMagnitude) {
+		int [] trits = Trytes.toTrits(hash);
+		for(int i = trits.length - minWeightMagnitude; i < trits.length; i++) {
+			assertEquals(0, trits[i]);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class SpentAddressRegistryTest extends BaseTest {
+
+	public static final String SEED = IotaAccountTest.SECRET_FIXED;
+	public static final String OTHER_SEED = SEED.substring(1) + "9";
+
+	@Test
+	public void testMarkAndQuery() throws IOException {
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(createRegistryFile())) {
+			assertFalse(registry.isSpent(SEED, 0));
+			assertEquals(0, registry.nextUnspent(SEED, 0));
+
+			registry.markSpent(SEED, 0, 1, 2, 4);
+
+			assertTrue(registry.isSpent(SEED, 0));
+			assertTrue(registry.isSpent(SEED, 4));
+			assertFalse(registry.isSpent(SEED, 3));
+			assertFalse(registry.isSpent(OTHER_SEED, 0));
+
+			assertEquals(3, registry.nextUnspent(SEED, 0));
+			assertEquals(5, registry.nextUnspent(SEED, 4));
+			assertEquals(0, registry.nextUnspent(OTHER_SEED, 0));
+			assertEquals(1, registry.size());
+		}
+	}
+
+	@Test
+	public void testSegments() throws IOException {
+		File file = createRegistryFile();
+		int [] firstSegment = new int[SpentAddressRegistry.SEGMENT_INDEXES];
+		for(int i = 0; i < firstSegment.length; i++) {
+			firstSegment[i] = i;
+		}
+
+		// segments are created out of order
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(file, 4)) {
+			registry.markSpent(SEED, 5000);
+			registry.markSpent(SEED, firstSegment);
+			registry.markSpent(SEED, 1024, 1025);
+			registry.markSpent(OTHER_SEED, 70);
+		}
+
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(file)) {
+			assertEquals(2, registry.size());
+			assertEquals(1026, registry.nextUnspent(SEED, 0));
+			assertEquals(5001, registry.nextUnspent(SEED, 5000));
+			assertEquals(4999, registry.nextUnspent(SEED, 4999));
+			assertTrue(registry.isSpent(SEED, 1023));
+			assertTrue(registry.isSpent(OTHER_SEED, 70));
+			assertFalse(registry.isSpent(OTHER_SEED, 71));
+			assertEquals(71, registry.nextUnspent(OTHER_SEED, 70));
+		}
+	}
+
+	@Test
+	public void testGrowth() throws IOException {
+		File file = createRegistryFile();
+		int seeds = 1000;
+
+		// the table starts with 4 slots and grows while the seeds are added
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(file, 4)) {
+			for(int i = 0; i < seeds; i++) {
+				registry.markSpent(seed(i), i);
+			}
+
+			assertEquals(seeds, registry.size());
+			assertTrue(registry.isSpent(seed(0), 0));
+		}
+
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(file)) {
+			assertEquals(seeds, registry.size());
+
+			for(int i = 0; i < seeds; i++) {
+				assertTrue(registry.isSpent(seed(i), i));
+				assertEquals(i + 1, registry.nextUnspent(seed(i), i));
+			}
+
+			assertFalse(registry.isSpent(seed(seeds), 0));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSeed() throws IOException {
+		try(SpentAddressRegistry registry = SpentAddressRegistry.open(createRegistryFile())) {
+			registry.isSpent("NOT9A9SEED", 0);
+		}
+	}
+
+	private String seed(int i) {
+		return Trytes.fromLong(i, IotaAccount.SEED_LENGTH);
+	}
+
+	private File createRegistryFile() throws IOException {
+		File file = File.createTempFile("spent_registry", ".bin");
+		file.delete();
+		file.deleteOnExit();
+		return file;
+	}
+}
@@ -0,0 +1,121 @@
+package org.matthiaszimmermann.crypto.iota;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+import jota.pow.ICurl;
+import jota.pow.SpongeFactory;
+
+public class SpongeTest extends BaseTest {
+
+	@Test
+	public void testCurlMatchesJota() {
+		verifySponge(new Curl(Curl.ROUNDS_P81), SpongeFactory.create(SpongeFactory.Mode.CURLP81));
+		verifySponge(new Curl(Curl.ROUNDS_P27), SpongeFactory.create(SpongeFactory.Mode.CURLP27));
+	}
+
+	@Test
+	public void testKerlMatchesJota() {
+		verifySponge(new Kerl(), SpongeFactory.create(SpongeFactory.Mode.KERL));
+	}
+
+	@Test
+	public void testKerlByteConversions() {
+		Random random = new Random(42);
+		Kerl kerl = new Kerl();
+		int [] trits = new int[Sponge.HASH_LENGTH];
+		int [] restored = new int[Sponge.HASH_LENGTH];
+		byte [] bytes = new byte[Kerl.BYTE_LENGTH];
+
+		for(int i = 0; i < 1000; i++) {
+			randomTrits(random, trits);
+			trits[Sponge.HASH_LENGTH - 1] = 0;
+
+			kerl.tritsToBytes(trits, 0, bytes, 0);
+			kerl.bytesToTrits(bytes, 0, restored, 0);
+			assertArrayEquals(trits, restored);
+
+			// normalizing arbitrary bytes is the same as a round trip over trits
+			random.nextBytes(bytes);
+			byte [] normalized = bytes.clone();
+			kerl.normalize(normalized, 0);
+			kerl.bytesToTrits(bytes, 0, restored, 0);
+			kerl.tritsToBytes(restored, 0, bytes, 0);
+			assertArrayEquals(bytes, normalized);
+		}
+	}
+
+	@Test
+	public void testSigningFastPathMatchesTritPath() {
+		Random random = new Random(7);
+		int [] seed = new int[Sponge.HASH_LENGTH];
+		randomTrits(random, seed);
+
+		final Kerl kerl = new Kerl();
+		Sponge tritOnly = new Sponge() {
+			public void reset() { kerl.reset(); }
+			public void absorb(int [] trits, int offset, int length) { kerl.absorb(trits, offset, length); }
+			public void squeeze(int [] trits, int offset, int length) { kerl.squeeze(trits, offset, length); }
+		};
+
+		IotaSigning fast = new IotaSigning();
+		IotaSigning reference = new IotaSigning(tritOnly);
+
+		for(int security = IotaAccount.SECURITY_LEVEL_MIN; security <= IotaAccount.SECURITY_LEVEL_MAX; security++) {
+			for(int index = 0; index < 3; index++) {
+				assertEquals(reference.address(seed, index, security), fast.address(seed, index, security));
+			}
+		}
+	}
+
+	@Test
+	public void testChecksum() {
+		String address = IotaAccountTest.ADDRESS_FIXED.substring(0, IotaSigning.ADDRESS_LENGTH);
+		assertEquals(IotaAccountTest.ADDRESS_FIXED, new IotaSigning().addChecksum(address));
+	}
+
+	@Test
+	public void testTrytes() {
+		String trytes = Iota.TRYTE_ALPHABET;
+		assertEquals(trytes, Trytes.fromTrits(Trytes.toTrits(trytes)));
+		assertArrayEquals(new int [] {1, 1, 1, -1, -1, -1}, Trytes.toTrits("MN"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidTrytes() {
+		Trytes.toTrits("ABc");
+	}
+
+	private void verifySponge(Sponge sponge, ICurl jota) {
+		Random random = new Random(1);
+
+		for(int chunks = 1; chunks <= 3; chunks++) {
+			int [] input = new int[chunks * Sponge.HASH_LENGTH];
+			randomTrits(random, input);
+
+			int [] expected = new int[2 * Sponge.HASH_LENGTH];
+			int [] actual = new int[2 * Sponge.HASH_LENGTH];
+
+			jota.reset();
+			jota.absorb(input.clone(), 0, input.length);
+			jota.squeeze(expected, 0, expected.length);
+
+			sponge.reset();
+			sponge.absorb(input.clone(), 0, input.length);
+			sponge.squeeze(actual, 0, actual.length);
+
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	private void randomTrits(Random random, int [] trits) {
+		for(int i = 0; i < trits.length; i++) {
+			trits[i] = random.nextInt(3) - 1;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class KdfSchedulerTest extends BaseTest {
+
+	public static final long MB = 1024 * 1024;
+
+	@Test
+	public void testMemoryBudget() throws Exception {
+		KdfScheduler scheduler = new KdfScheduler(3 * MB, 8);
+		int maxRunning = runConcurrently(scheduler, 12, MB);
+
+		// three jobs of 1 MB fit the budget, the cpu slots would allow eight
+		assertTrue("max running jobs " + maxRunning, maxRunning <= 3);
+		assertEquals(12, scheduler.getJobCount());
+		assertEquals(0, scheduler.getQueueDepth());
+		assertEquals(0, scheduler.getMemoryInUse());
+		assertTrue(scheduler.getMaxQueueDepth() > 0);
+	}
+
+	@Test
+	public void testCpuSlots() throws Exception {
+		KdfScheduler scheduler = new KdfScheduler(100 * MB, 2);
+		int maxRunning = runConcurrently(scheduler, 8, MB);
+
+		assertTrue("max running jobs " + maxRunning, maxRunning <= 2);
+	}
+
+	@Test
+	public void testOversizedJobRunsAlone() throws Exception {
+		KdfScheduler scheduler = new KdfScheduler(2 * MB, 4);
+		int maxRunning = runConcurrently(scheduler, 4, 256 * MB);
+
+		assertEquals(1, maxRunning);
+		assertEquals(4, scheduler.getJobCount());
+	}
+
+	@Test
+	public void testNestedJob() {
+		KdfScheduler scheduler = new KdfScheduler(MB, 1);
+
+		// the nested job would deadlock on the single cpu slot if it was admitted again
+		int result = scheduler.execute(MB, () -> scheduler.execute(MB, () -> 42));
+
+		assertEquals(42, result);
+		assertEquals(1, scheduler.getJobCount());
+	}
+
+	@Test
+	public void testPbkdf2UsesSharedScheduler() {
+		long jobs = KdfScheduler.getInstance().getJobCount();
+		Pbkdf2Utility.deriveSha512("password", "salt", 1, 64);
+
+		assertEquals(jobs + 1, KdfScheduler.getInstance().getJobCount());
+	}
+
+	@Test
+	public void testParallelPbkdf2BlocksAdmittedOneByOne() {
+		long jobs = KdfScheduler.getInstance().getJobCount();
+		byte [] parallel = Pbkdf2Utility.deriveSha512("password".getBytes(), "salt".getBytes(), 1, 11 * 64, true);
+
+		assertEquals(jobs + 11, KdfScheduler.getInstance().getJobCount());
+
+		// within an admitted job the blocks are computed sequentially in the same job
+		byte [] nested = KdfScheduler.getInstance().execute(() -> Pbkdf2Utility.deriveSha512("password".getBytes(), "salt".getBytes(), 1, 11 * 64, true));
+
+		assertEquals(jobs + 12, KdfScheduler.getInstance().getJobCount());
+		assertArrayEquals(parallel, nested);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCpuSlots() {
+		new KdfScheduler(MB, 0);
+	}
+
+	private int runConcurrently(KdfScheduler scheduler, int jobs, long memory) throws Exception {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(jobs);
+		List<Future<?>> results = new ArrayList<>();
+
+		try {
+			for(int i = 0; i < jobs; i++) {
+				results.add(executor.submit(() -> scheduler.execute(memory, () -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					Thread.sleep(20);
+					running.decrementAndGet();
+					return null;
+				})));
+			}
+
+			for(Future<?> result : results) {
+				result.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		return maxRunning.get();
+	}
+}
@@ -0,0 +1,62 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class KeccakUtilityTest extends BaseTest {
+
+	public static final String KECCAK_256_ABC = "4e03657aea45a94fc7d47ba826c8d667c0d1e6e33a64a036ec44f58fa12d6c45";
+	public static final String KECCAK_384_EMPTY = "2c23146a63a29acf99e73b88f8c24eaa7dc60aa771780ccc006afbfa8fe2479b2dd2b21362337441ac12b515911957ff";
+
+	@Test
+	public void testKnownVectors() {
+		assertEquals(KECCAK_256_ABC, toHex(KeccakUtility.keccak256("abc".getBytes(StandardCharsets.UTF_8))));
+
+		KeccakUtility keccak = new KeccakUtility(KeccakUtility.KECCAK_384);
+		byte [] digest = new byte[keccak.getDigestLength()];
+		keccak.digest(digest, 0);
+
+		assertEquals(KECCAK_384_EMPTY, toHex(digest));
+	}
+
+	@Test
+	public void testIncrementalUpdates() {
+		// data longer than the rate so that several permutations are involved
+		byte [] data = new byte[1000];
+		for(int i = 0; i < data.length; i++) {
+			data[i] = (byte)i;
+		}
+
+		KeccakUtility keccak = new KeccakUtility(KeccakUtility.KECCAK_256);
+		byte [] digest = new byte[keccak.getDigestLength()];
+
+		for(int offset = 0; offset < data.length; offset += 7) {
+			keccak.update(data, offset, Math.min(7, data.length - offset));
+		}
+
+		keccak.digest(digest, 0);
+		assertEquals(toHex(KeccakUtility.keccak256(data)), toHex(digest));
+
+		// the instance is reset after the digest
+		keccak.update("abc".getBytes(StandardCharsets.UTF_8), 0, 3);
+		keccak.digest(digest, 0);
+		assertEquals(KECCAK_256_ABC, toHex(digest));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDigestSize() {
+		new KeccakUtility(100);
+	}
+
+	private String toHex(byte [] bytes) {
+		StringBuilder buf = new StringBuilder();
+		for(byte b : bytes) {
+			buf.append(String.format("%02x", b));
+		}
+		return buf.toString();
+	}
+}
@@ -0,0 +1,84 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+
+public class Pbkdf2UtilityTest extends BaseTest {
+
+	public static final String PASSWORD = "password";
+	public static final String SALT = "salt";
+	public static final String KEY_HEX_1_ROUND = "867f70cf1ade02cff3752599a3a53dc4af34c7a669815ae5d513554e1c8cf252c02d470a285a0501bad999bfe943c08f050235d7d68b1da55e63f73b60a57fce";
+
+	public static final String MNEMONIC = "history suit seat regular toe valid circle public issue degree river vendor";
+	public static final String MNEMONIC_SALT = "mnemonictest_pass_phrase";
+
+	@Test
+	public void testKnownVector() throws Exception {
+		byte [] key = Pbkdf2Utility.deriveSha512(PASSWORD, SALT, 1, 64);
+		assertEquals(KEY_HEX_1_ROUND, toHex(key));
+	}
+
+	@Test
+	public void testMatchesJavaCryptoProvider() throws Exception {
+		String longPassword = new String(new char[200]).replace('\0', 'p');
+		String longSalt = new String(new char[120]).replace('\0', 's');
+
+		String [] passwords = { PASSWORD, MNEMONIC, longPassword };
+		String [] salts = { SALT, MNEMONIC_SALT, longSalt };
+		int [] lengths = { 1, 20, 64, 65, 648 };
+
+		for(String password : passwords) {
+			for(String salt : salts) {
+				for(int length : lengths) {
+					byte [] expected = deriveJca(password, salt, 3, length);
+					byte [] serial = Pbkdf2Utility.deriveSha512(password, salt, 3, length, false);
+					byte [] parallel = Pbkdf2Utility.deriveSha512(password, salt, 3, length, true);
+
+					String message = String.format("password length %d, salt length %d, key length %d", password.length(), salt.length(), length);
+					assertArrayEquals(message, expected, serial);
+					assertArrayEquals(message, expected, parallel);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIotaSeedMaterial() throws Exception {
+		byte [] expected = deriveJca(MNEMONIC, MNEMONIC_SALT, 2048, 648);
+		byte [] key = Pbkdf2Utility.deriveSha512(MNEMONIC, MNEMONIC_SALT, 2048, 648, true);
+
+		assertArrayEquals(expected, key);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRoundsZero() throws Exception {
+		Pbkdf2Utility.deriveSha512(PASSWORD, SALT, 0, 64);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeyLengthZero() throws Exception {
+		Pbkdf2Utility.deriveSha512(PASSWORD, SALT, 1, 0);
+	}
+
+	private byte [] deriveJca(String password, String salt, int rounds, int length) throws Exception {
+		SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512");
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8), rounds, length * 8);
+		return factory.generateSecret(spec).getEncoded();
+	}
+
+	private String toHex(byte [] bytes) {
+		StringBuilder buf = new StringBuilder();
+		for(byte b : bytes) {
+			buf.append(String.format("%02x", b));
+		}
+		return buf.toString();
+	}
+}
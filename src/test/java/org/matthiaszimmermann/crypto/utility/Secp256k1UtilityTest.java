@@ -0,0 +1,77 @@
+package org.matthiaszimmermann.crypto.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.bitcoinj.core.ECKey;
+import org.junit.Test;
+import org.matthiaszimmermann.crypto.common.BaseTest;
+import org.web3j.crypto.Sign;
+
+public class Secp256k1UtilityTest extends BaseTest {
+
+	// 2 * G
+	public static final String PUBLIC_KEY_2 = "02c6047f9441ed7d6d3045406e95c07cd85c778e4b8cef3ca7abac09b95c709ee5";
+
+	@Test
+	public void testKnownPublicKey() {
+		assertEquals(PUBLIC_KEY_2, toHex(Secp256k1Utility.publicKey(BigInteger.valueOf(2), true)));
+		assertArrayEquals(Secp256k1Utility.CURVE_PARAMS.getG().getEncoded(false), Secp256k1Utility.publicKey(BigInteger.ONE, false));
+	}
+
+	@Test
+	public void testMatchesBitcoinjAndWeb3j() {
+		for(BigInteger privateKey : privateKeys(50)) {
+			assertArrayEquals(ECKey.fromPrivate(privateKey, true).getPubKey(), Secp256k1Utility.publicKey(privateKey, true));
+			assertEquals(Sign.publicKeyFromPrivate(privateKey), Secp256k1Utility.publicKeyValue(privateKey));
+		}
+	}
+
+	@Test
+	public void testBatchNormalization() {
+		List<BigInteger> privateKeys = privateKeys(100);
+		List<byte []> publicKeys = Secp256k1Utility.publicKeys(privateKeys, false);
+
+		for(int i = 0; i < privateKeys.size(); i++) {
+			byte [] expected = Secp256k1Utility.CURVE_PARAMS.getG().multiply(privateKeys.get(i)).normalize().getEncoded(false);
+			assertArrayEquals(expected, publicKeys.get(i));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPrivateKey() {
+		Secp256k1Utility.publicKey(Secp256k1Utility.N, true);
+	}
+
+	private List<BigInteger> privateKeys(int count) {
+		Random random = new Random(42);
+		List<BigInteger> keys = new ArrayList<>();
+
+		// edge cases: smallest and largest valid scalar
+		keys.add(BigInteger.ONE);
+		keys.add(Secp256k1Utility.N.subtract(BigInteger.ONE));
+
+		while(keys.size() < count) {
+			BigInteger key = new BigInteger(256, random);
+
+			if(key.signum() > 0 && key.compareTo(Secp256k1Utility.N) < 0) {
+				keys.add(key);
+			}
+		}
+
+		return keys;
+	}
+
+	private String toHex(byte [] bytes) {
+		StringBuilder buf = new StringBuilder();
+		for(byte b : bytes) {
+			buf.append(String.format("%02x", b));
+		}
+		return buf.toString();
+	}
+}